@@ -1,23 +1,62 @@
 package com.superestoque.estoque.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
-	@Bean(name = "taskExecutor")
-	Executor taskExecutor() {
+	// envios simultâneos da fila de e-mails; o despachante nunca tem mais de um
+	// lote em andamento, então a fila do tamanho do lote não rejeita
+	@Bean(name = "emailExecutor")
+	@ConditionalOnThreading(Threading.PLATFORM)
+	Executor emailExecutor(@Value("${email.outbox.concurrency:4}") int concurrency,
+			@Value("${email.outbox.batch-size:20}") int batchSize) {
 		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-		executor.setCorePoolSize(5);
-		executor.setMaxPoolSize(10);
-		executor.setQueueCapacity(25);
-		executor.setThreadNamePrefix("AsyncExecutor-");
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setQueueCapacity(batchSize);
+		executor.setThreadNamePrefix("EmailExecutor-");
+		executor.initialize();
+		return executor;
+	}
+
+	// com threads virtuais cada envio tem a sua, no máximo um lote; as conexões
+	// SMTP continuam limitadas por mail.pool.size. Sem limite de concorrência
+	// aqui, que bloquearia a thread de agendamento do despachante
+	@Bean(name = "emailExecutor")
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	Executor virtualEmailExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("EmailExecutor-");
+		executor.setVirtualThreads(true);
+		return executor;
+	}
+
+	// geração de miniaturas usa CPU; fica em threads de plataforma mesmo com
+	// threads virtuais ligadas
+	@Bean(name = "imageExecutor")
+	Executor imageExecutor() {
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(200);
+		executor.setThreadNamePrefix("ImageExecutor-");
+		// fila cheia: ThumbnailService recebe a recusa e tenta de novo no
+		// próximo acesso
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
 		executor.initialize();
 		return executor;
 	}
@@ -1,17 +1,16 @@
 package com.superestoque.estoque.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,7 +20,6 @@ import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
@@ -42,14 +40,16 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.superestoque.estoque.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.superestoque.estoque.config.customgrant.CustomPasswordAuthenticationProvider;
 import com.superestoque.estoque.config.customgrant.CustomUserAuthorities;
 import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.AuthService;
+import com.superestoque.estoque.services.BoundedAuthorizationService;
+import com.superestoque.estoque.services.JdbcPurgingAuthorizationService;
+import com.superestoque.estoque.services.SigningKeyService;
 
 @Configuration
 public class AuthorizationServerConfig {
@@ -65,22 +65,26 @@ public class AuthorizationServerConfig {
 
 	private final UserDetailsService userDetailsService;
 	private final UserRepository userRepository;
+	private final SigningKeyService signingKeyService;
 
-	public AuthorizationServerConfig(UserDetailsService userDetailsService, UserRepository userRepository) {
+	public AuthorizationServerConfig(UserDetailsService userDetailsService, UserRepository userRepository,
+			SigningKeyService signingKeyService) {
 		this.userDetailsService = userDetailsService;
 		this.userRepository = userRepository;
+		this.signingKeyService = signingKeyService;
 	}
 
 	@Bean
 	@Order(2)
-	SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
+	SecurityFilterChain asSecurityFilterChain(HttpSecurity http, OAuth2AuthorizationService authorizationService)
+			throws Exception {
 
 		OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
 		http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
 				.tokenEndpoint(tokenEndpoint -> tokenEndpoint
 						.accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
-						.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(),
+						.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService,
 								tokenGenerator(), userDetailsService, passwordEncoder(), userRepository)));
 
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
@@ -88,9 +92,23 @@ public class AuthorizationServerConfig {
 		return http.build();
 	}
 
+	// cada login grava uma autorização; elas saem junto com o token
 	@Bean
-	OAuth2AuthorizationService authorizationService() {
-		return new InMemoryOAuth2AuthorizationService();
+	@ConditionalOnProperty(name = "security.authorizations.store", havingValue = "memory", matchIfMissing = true)
+	OAuth2AuthorizationService authorizationService(
+			@Value("${security.authorizations.max-size:100000}") long maximumSize) {
+		return new BoundedAuthorizationService(maximumSize, Duration.ofSeconds(jwtDurationSeconds));
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "security.authorizations.store", havingValue = "jdbc")
+	OAuth2AuthorizationService jdbcAuthorizationService(JdbcTemplate jdbcTemplate,
+			RegisteredClientRepository registeredClientRepository,
+			@Value("${security.authorizations.purge-batch-size:500}") int batchSize) {
+		JdbcPurgingAuthorizationService service = new JdbcPurgingAuthorizationService(jdbcTemplate,
+				registeredClientRepository, batchSize);
+		service.createTableIfMissing();
+		return service;
 	}
 
 	@Bean
@@ -131,7 +149,7 @@ public class AuthorizationServerConfig {
 
 	@Bean
 	OAuth2TokenGenerator<OAuth2Token> tokenGenerator() {
-	    NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource());
+	    NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(signingKeyService.signingSource());
 	    JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
 	    jwtGenerator.setJwtCustomizer(tokenCustomizer());
 	    OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
@@ -143,10 +161,14 @@ public class AuthorizationServerConfig {
 		return context -> {
 			OAuth2ClientAuthenticationToken principal = context.getPrincipal();
 			CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
-			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+			// ArrayList: a claim também vai para a autorização salva no banco
+			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority())
+					.collect(Collectors.toList());
 			if (context.getTokenType().getValue().equals("access_token")) {
 				context.getClaims().claim("authorities", authorities).claim("username", user.getUsername())
-						.claim("name", user.getName()).claim("first_acess", user.isFirstAcess());
+						.claim("name", user.getName()).claim("first_acess", user.isFirstAcess())
+						.claim(AuthService.USER_ID_CLAIM, user.getUserId())
+						.claim(AuthService.COMPANY_ID_CLAIM, user.getCompanyId());
 			}
 		};
 	}
@@ -156,29 +178,9 @@ public class AuthorizationServerConfig {
 		return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
 	}
 
+	// chaves do banco: tokens continuam válidos entre reinícios e instâncias
 	@Bean
 	JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-	}
-
-	private static RSAKey generateRsa() {
-		KeyPair keyPair = generateRsaKey();
-		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-		RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-		return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
-	}
-
-	private static KeyPair generateRsaKey() {
-		KeyPair keyPair;
-		try {
-			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-			keyPairGenerator.initialize(2048);
-			keyPair = keyPairGenerator.generateKeyPair();
-		} catch (Exception ex) {
-			throw new IllegalStateException(ex);
-		}
-		return keyPair;
+		return signingKeyService.verificationSource();
 	}
-}
\ No newline at end of file
+}
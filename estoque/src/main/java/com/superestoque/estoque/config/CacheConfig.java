@@ -0,0 +1,46 @@
+package com.superestoque.estoque.config;
+
+import java.time.Duration;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String CATEGORIES = "categories";
+	public static final String CATEGORY = "category";
+	public static final String COMPANY = "company";
+	public static final String ROLES = "roles";
+	public static final String STOCK_SHARDS = "stockShards";
+
+	/**
+	 * Caches em memória para dados de referência. Escritas e remoções só valem
+	 * após o commit, para que uma transação desfeita não deixe o cache diferente
+	 * do banco.
+	 */
+	@Bean
+	CacheManager cacheManager() {
+		CaffeineCacheManager manager = new CaffeineCacheManager();
+		manager.setAllowNullValues(false);
+		manager.registerCustomCache(CATEGORIES, build(1_000, Duration.ofMinutes(10)));
+		manager.registerCustomCache(CATEGORY, build(10_000, Duration.ofMinutes(10)));
+		manager.registerCustomCache(COMPANY, build(1_000, Duration.ofMinutes(10)));
+		manager.registerCustomCache(ROLES, build(100, Duration.ofHours(1)));
+		// soma das faixas de produtos muito movimentados; pode atrasar até um segundo
+		manager.registerCustomCache(STOCK_SHARDS, build(10_000, Duration.ofSeconds(1)));
+		return new TransactionAwareCacheManagerProxy(manager);
+	}
+
+	private static Cache<Object, Object> build(long maximumSize, Duration ttl) {
+		return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+	}
+}
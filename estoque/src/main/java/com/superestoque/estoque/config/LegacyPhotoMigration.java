@@ -0,0 +1,76 @@
+package com.superestoque.estoque.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.superestoque.estoque.services.ImageStorageService;
+import com.superestoque.estoque.services.ThumbnailService;
+
+/**
+ * Move fotos que ainda estão na antiga coluna {@code photo} (LOB) para o
+ * armazenamento de imagens, deixando na tabela apenas o hash do conteúdo. As
+ * fotos de produto já saem com as miniaturas agendadas, como num upload.
+ */
+@Component
+public class LegacyPhotoMigration implements ApplicationRunner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LegacyPhotoMigration.class);
+
+	private static final String PRODUCT_TABLE = "tb_product";
+
+	private static final List<String> TABLES = List.of(PRODUCT_TABLE, "tb_user", "tb_company");
+
+	private static final int BATCH_SIZE = 50;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final ImageStorageService imageStorageService;
+
+	private final ThumbnailService thumbnailService;
+
+	public LegacyPhotoMigration(JdbcTemplate jdbcTemplate, ImageStorageService imageStorageService,
+			ThumbnailService thumbnailService) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.imageStorageService = imageStorageService;
+		this.thumbnailService = thumbnailService;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		TABLES.forEach(this::migrate);
+	}
+
+	private void migrate(String table) {
+		String select = "SELECT id, photo FROM " + table + " WHERE photo IS NOT NULL AND photo_hash IS NULL LIMIT "
+				+ BATCH_SIZE;
+		String update = "UPDATE " + table + " SET photo_hash = ?, photo = NULL WHERE id = ?";
+		int migrated = 0;
+		List<Map<String, Object>> rows;
+		try {
+			while (!(rows = jdbcTemplate.queryForList(select)).isEmpty()) {
+				for (Map<String, Object> row : rows) {
+					String hash = imageStorageService.store((byte[]) row.get("photo"));
+					jdbcTemplate.update(update, hash, row.get("id"));
+					if (PRODUCT_TABLE.equals(table)) {
+						thumbnailService.generate(hash);
+					}
+				}
+				migrated += rows.size();
+			}
+		} catch (BadSqlGrammarException e) {
+			LOG.info("Tabela {} sem coluna de foto legada, nada a migrar", table);
+			return;
+		}
+		if (migrated > 0) {
+			LOG.info("{} fotos da tabela {} migradas para o armazenamento de imagens", migrated, table);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.superestoque.estoque.config;
+
+import java.util.Properties;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.superestoque.estoque.services.PooledMailSender;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+	/**
+	 * Substitui o JavaMailSender da auto-configuração, que abre e autentica uma
+	 * conexão SMTP por envio, mantendo as mesmas propriedades spring.mail.*.
+	 */
+	@Bean
+	PooledMailSender mailSender(MailProperties properties, @Value("${mail.pool.size:2}") int poolSize,
+			@Value("${mail.pool.batch-size:20}") int batchSize,
+			@Value("${mail.pool.queue-capacity:200}") int queueCapacity,
+			@Value("${mail.pool.idle-ms:60000}") long idleMs,
+			@Value("${mail.pool.send-timeout-ms:60000}") long sendTimeoutMs,
+			@Value("${mail.circuit-breaker.failure-threshold:5}") int failureThreshold,
+			@Value("${mail.circuit-breaker.open-ms:60000}") long openMs) {
+		PooledMailSender sender = new PooledMailSender(poolSize, batchSize, queueCapacity, idleMs, sendTimeoutMs,
+				failureThreshold, openMs);
+		sender.setHost(properties.getHost());
+		if (properties.getPort() != null) {
+			sender.setPort(properties.getPort());
+		}
+		sender.setUsername(properties.getUsername());
+		sender.setPassword(properties.getPassword());
+		sender.setProtocol(properties.getProtocol());
+		if (properties.getDefaultEncoding() != null) {
+			sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+		}
+		Properties javaMailProperties = new Properties();
+		javaMailProperties.putAll(properties.getProperties());
+		sender.setJavaMailProperties(javaMailProperties);
+		return sender;
+	}
+}
@@ -31,7 +31,7 @@ public class ResourceServerConfig {
 	@Value("${cors.origins}")
 	private String corsOrigins;
 
-	private static final String[] PUBLIC = { "/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**", "/actuator/health", "/users/reset-password/**", "/health/**", "/users/sendEmailResetPassword" };
+	private static final String[] PUBLIC = { "/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**", "/actuator/health", "/users/reset-password/**", "/health/**", "/users/sendEmailResetPassword", "/images/**" };
 
 	@Bean
 	@Profile("test")
@@ -49,7 +49,8 @@ public class ResourceServerConfig {
 
 		http.csrf(csrf -> csrf.disable());
 		http.authorizeHttpRequests(
-				authorize -> authorize.requestMatchers(PUBLIC).permitAll().anyRequest().authenticated());
+				authorize -> authorize.requestMatchers(PUBLIC).permitAll().requestMatchers("/actuator/**")
+						.hasRole("ADMIN").anyRequest().authenticated());
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
 		http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
 		return http.build();
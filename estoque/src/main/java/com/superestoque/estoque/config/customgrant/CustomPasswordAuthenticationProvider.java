@@ -104,7 +104,7 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 		OAuth2ClientAuthenticationToken oAuth2ClientAuthenticationToken = (OAuth2ClientAuthenticationToken) SecurityContextHolder
 				.getContext().getAuthentication();
 		CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, user.getAuthorities(),
-				entity.getName(), entity.isFirst_acess());
+				entity.getName(), entity.isFirst_acess(), entity.getId(), entity.getCompany().getId());
 		oAuth2ClientAuthenticationToken.setDetails(customPasswordUser);
 
 		var newcontext = SecurityContextHolder.createEmptyContext();
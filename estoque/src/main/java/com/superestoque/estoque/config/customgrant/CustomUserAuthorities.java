@@ -10,13 +10,17 @@ public class CustomUserAuthorities {
 	private Collection<? extends GrantedAuthority> authorities;
 	private String name;
 	private boolean firstAcess;
+	private Long userId;
+	private Long companyId;
 
 	public CustomUserAuthorities(String username, Collection<? extends GrantedAuthority> authorities, String name,
-			boolean firstAcess) {
+			boolean firstAcess, Long userId, Long companyId) {
 		this.username = username;
 		this.authorities = authorities;
 		this.name = name;
 		this.firstAcess = firstAcess;
+		this.userId = userId;
+		this.companyId = companyId;
 	}
 
 	public String getUsername() {
@@ -35,4 +39,12 @@ public class CustomUserAuthorities {
 		return firstAcess;
 	}
 
+	public Long getUserId() {
+		return userId;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
 }
\ No newline at end of file
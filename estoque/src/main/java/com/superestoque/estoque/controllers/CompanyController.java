@@ -1,7 +1,12 @@
 package com.superestoque.estoque.controllers;
 
+import java.net.URI;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,7 +20,9 @@ import org.springframework.web.multipart.MultipartFile;
 import com.superestoque.estoque.controllers.exception.StandardError;
 import com.superestoque.estoque.entities.dto.CompanyDTO;
 import com.superestoque.estoque.entities.dto.UserDTO;
+import com.superestoque.estoque.entities.dto.UserSummaryDTO;
 import com.superestoque.estoque.services.CompanyService;
+import com.superestoque.estoque.services.ImageStorageService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -45,6 +52,19 @@ public class CompanyController {
 		return ResponseEntity.ok(entity);
 	}
 
+	@Operation(description = "Redirects to the immutable, content-addressed URL of the logged in user company logo. The image itself is served with ETag and long-lived Cache-Control.", summary = "Redirects to the company logo", responses = {
+			@ApiResponse(description = "Found", responseCode = "302", content = @Content),
+			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"timestamp\": \"2024-02-04T12:00:00Z\",\n\"status\": 404,\n\"error\": \"Recurso não encontrado\",\n\"message\": \"Empresa sem logo.\",\n\"path\": \"/company/logo\"}"), schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping(value = "/logo")
+	public ResponseEntity<Void> getLogo() {
+		String hash = service.findLogoHash();
+		return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(ImageStorageService.url(hash)))
+				.cacheControl(CacheControl.noCache()).build();
+	}
+
 	@Operation(description = "This endpoint allows an ADMIN user to update the details of a specific company, including its name and photo.", summary = "Updates company details by ID", responses = {
 			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CompanyDTO.class))),
 			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"timestamp\": \"2024-02-04T12:00:00Z\",\n\"status\": 404,\n\"error\": \"Recurso não encontrado\",\n\"message\": \"Companhia não encontrada\",\n\"path\": \"/company/{id}\"}"), schema = @Schema(implementation = StandardError.class))),
@@ -69,6 +89,20 @@ public class CompanyController {
 		return ResponseEntity.ok(entities);
 	}
 
+	@Operation(description = "Returns a page of company users filtered by status, name and role (ADMIN or OPERATOR). Filtering and paging run in the database and photos are returned only as URLs.", summary = "Searches company users with pagination", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping(value = "/users/search")
+	public ResponseEntity<Page<UserSummaryDTO>> searchUserMyCompany(
+			@RequestParam(value = "status", defaultValue = "true") boolean status,
+			@RequestParam(value = "name", required = false) String name,
+			@RequestParam(value = "role", required = false) String role, Pageable pageable) {
+		Page<UserSummaryDTO> entities = service.findUsersByCompanyPaged(status, name, role, pageable);
+		return ResponseEntity.ok(entities);
+	}
+
 	@Operation(description = "This endpoint is used to return a list of desactive users by company", summary = "Returns a list of company users", responses = {
 			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = UserDTO.class))),
 			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
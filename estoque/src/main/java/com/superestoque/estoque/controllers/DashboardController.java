@@ -0,0 +1,37 @@
+package com.superestoque.estoque.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.superestoque.estoque.entities.dto.InventoryDashboardDTO;
+import com.superestoque.estoque.services.InventoryDashboardService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+@RestController
+@RequestMapping(value = "/dashboard")
+public class DashboardController {
+
+	private final InventoryDashboardService service;
+
+	public DashboardController(InventoryDashboardService service) {
+		this.service = service;
+	}
+
+	@Operation(description = "Returns the inventory KPIs of the user's company: total stock value, product count, products at or below the critical quantity and stock value per category. Served from aggregates kept up to date on every product change.", summary = "Inventory dashboard", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = InventoryDashboardDTO.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping
+	public ResponseEntity<InventoryDashboardDTO> dashboard() {
+		return ResponseEntity.ok(service.dashboard());
+	}
+}
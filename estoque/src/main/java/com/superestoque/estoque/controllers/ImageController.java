@@ -0,0 +1,201 @@
+package com.superestoque.estoque.controllers;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.superestoque.estoque.controllers.exception.StandardError;
+import com.superestoque.estoque.services.ImageStorageService;
+import com.superestoque.estoque.services.ThumbnailService;
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping(value = "/images")
+public class ImageController {
+
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+	// a miniatura ainda está sendo gerada: o original não pode ficar no cache
+	// sob a URL da miniatura
+	private static final String PENDING_RENDITION = "public, max-age=60";
+
+	private final ImageStorageService service;
+
+	private final ThumbnailService thumbnailService;
+
+	public ImageController(ImageStorageService service, ThumbnailService thumbnailService) {
+		this.service = service;
+		this.thumbnailService = thumbnailService;
+	}
+
+	@Operation(description = "Returns an image by the SHA-256 of its content. With size (64, 256 or 1024) returns the JPEG thumbnail, or the original while it is being generated. Supports ETag and HTTP Range requests.", summary = "Returns a stored image", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "image/*")),
+			@ApiResponse(description = "Partial Content", responseCode = "206", content = @Content(mediaType = "image/*")),
+			@ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
+			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Range Not Satisfiable", responseCode = "416", content = @Content),
+			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))) })
+	@GetMapping(value = "/{hash}")
+	public void getImage(@PathVariable String hash, @RequestParam(required = false) Integer size,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (size != null) {
+			if (!ThumbnailService.isSupported(size)) {
+				throw new ValidMultiFormDataException("Tamanho de imagem inválido.");
+			}
+			Optional<Path> rendition = service.findRendition(hash, size);
+			if (rendition.isPresent()) {
+				serve(rendition.get(), "\"" + hash + "-" + size + "\"", IMMUTABLE, request, response);
+				return;
+			}
+		}
+		Path path = service.find(hash).orElseThrow(() -> new ResourceNotFoundException("Imagem não encontrada."));
+		// sem miniaturas possíveis, o original é a resposta definitiva
+		if (size == null || service.isUnrenderable(hash)) {
+			serve(path, "\"" + hash + "\"", IMMUTABLE, request, response);
+			return;
+		}
+		// as miniaturas nascem no upload; aqui só imagens antigas, sem repetir
+		// uma geração em andamento
+		thumbnailService.generate(hash);
+		serve(path, null, PENDING_RENDITION, request, response);
+	}
+
+	private void serve(Path path, String etag, String cacheControl, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		if (etag != null) {
+			response.setHeader(HttpHeaders.ETAG, etag);
+		}
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		if (etag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			long start = 0;
+			long end = length - 1;
+
+			String range = request.getHeader(HttpHeaders.RANGE);
+			String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+			if (range != null && (ifRange == null || ifRange.equals(etag))) {
+				long[] bounds = parseRange(range, length);
+				if (bounds == null) {
+					response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+					response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+					return;
+				}
+				if (bounds.length == 2) {
+					start = bounds[0];
+					end = bounds[1];
+					response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+					response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+				}
+			}
+
+			long count = end - start + 1;
+			response.setContentType(service.contentType(path));
+			response.setContentLengthLong(count);
+			if ("HEAD".equals(request.getMethod()) || count == 0) {
+				return;
+			}
+
+			if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+				request.setAttribute(SENDFILE_FILENAME, path.toString());
+				request.setAttribute(SENDFILE_START, start);
+				request.setAttribute(SENDFILE_END, end + 1);
+				return;
+			}
+
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			while (count > 0) {
+				long written = channel.transferTo(position, count, out);
+				position += written;
+				count -= written;
+			}
+		}
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String value = candidate.trim();
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (value.equals("*") || value.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Retorna {start, end} para um único intervalo, um array vazio quando o
+	 * cabeçalho deve ser ignorado (vários intervalos ou sintaxe desconhecida) e
+	 * null quando o intervalo não pode ser atendido.
+	 */
+	private static long[] parseRange(String header, long length) {
+		if (!header.startsWith("bytes=") || header.contains(",")) {
+			return new long[0];
+		}
+		String spec = header.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return new long[0];
+		}
+		try {
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			long start;
+			long end;
+			if (first.isEmpty()) {
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0) {
+					return null;
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(first);
+				end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+			}
+			if (start >= length || start > end) {
+				return null;
+			}
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			return new long[0];
+		}
+	}
+}
@@ -1,12 +1,19 @@
 package com.superestoque.estoque.controllers;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,14 +21,23 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.superestoque.estoque.controllers.exception.StandardError;
+import com.superestoque.estoque.entities.dto.CriticalProductDTO;
+import com.superestoque.estoque.entities.dto.CursorPageDTO;
 import com.superestoque.estoque.entities.dto.ProductDTO;
+import com.superestoque.estoque.entities.dto.ProductImportReportDTO;
+import com.superestoque.estoque.services.CriticalStockIndex;
+import com.superestoque.estoque.services.ProductExportService;
+import com.superestoque.estoque.services.ProductImportService;
 import com.superestoque.estoque.services.ProductService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +45,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping(value = "/products")
@@ -36,8 +53,22 @@ public class ProductController {
 
 	private final ProductService service;
 
-	public ProductController(ProductService service) {
+	private final ProductImportService importService;
+
+	private final ProductExportService exportService;
+
+	private final CriticalStockIndex criticalStockIndex;
+
+	private final Duration exportTimeout;
+
+	public ProductController(ProductService service, ProductImportService importService,
+			ProductExportService exportService, CriticalStockIndex criticalStockIndex,
+			@Value("${products.export.timeout:30m}") Duration exportTimeout) {
 		this.service = service;
+		this.importService = importService;
+		this.exportService = exportService;
+		this.criticalStockIndex = criticalStockIndex;
+		this.exportTimeout = exportTimeout;
 	}
 
 	@Operation(description = "Retrieves a paginated list of products by group", summary = "Fetches products with pagination by group", responses = {
@@ -53,6 +84,46 @@ public class ProductController {
 		return ResponseEntity.ok(products);
 	}
 
+	@Operation(description = "Retrieves a slice of products without counting the total, use count=false", summary = "Fetches products with pagination without total count", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Slice.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping(params = { "count=false", "!after" })
+	public ResponseEntity<Slice<ProductDTO>> findAllProductsSlicedByGroup(
+			@RequestParam(value = "categoryId", required = false) Long categoryId,
+			@RequestParam(value = "productName", required = false) String productName, Pageable pageable) {
+		Slice<ProductDTO> products = service.findAllProductSliceByCompanyId(pageable, categoryId, productName);
+		return ResponseEntity.ok(products);
+	}
+
+	@Operation(description = "Retrieves products ordered by name using an opaque cursor. Send an empty 'after' for the first page and the returned 'nextCursor' for the following ones.", summary = "Fetches products with cursor pagination", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDTO.class))),
+			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping(params = "after")
+	public ResponseEntity<CursorPageDTO<ProductDTO>> findAllProductsByCursor(@RequestParam(value = "after") String after,
+			@RequestParam(value = "size", defaultValue = "20") int size,
+			@RequestParam(value = "categoryId", required = false) Long categoryId,
+			@RequestParam(value = "productName", required = false) String productName) {
+		CursorPageDTO<ProductDTO> products = service.findAllProductByCompanyIdAfter(after, size, categoryId,
+				productName);
+		return ResponseEntity.ok(products);
+	}
+
+	@Operation(description = "Lists the products at or below their critical quantity, most short first. 'limit' returns only the top N (at most 100).", summary = "Fetches products in critical stock", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CriticalProductDTO.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping(value = "/critical")
+	public ResponseEntity<List<CriticalProductDTO>> findCriticalProducts(
+			@RequestParam(value = "limit", defaultValue = "20") int limit) {
+		return ResponseEntity.ok(criticalStockIndex.top(limit));
+	}
+
 	@Operation(description = "Fetches a product by ID", summary = "Retrieve a product by its ID", responses = {
 			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDTO.class))),
 			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"timestamp\": \"2024-02-04T12:00:00Z\",\n\"status\": 404,\n\"error\": \"Recurso não encontrado\",\n\"message\": \"Produto não encontrado\",\n\"path\": \"/products/{id}\"}"), schema = @Schema(implementation = StandardError.class))),
@@ -94,8 +165,44 @@ public class ProductController {
 		return ResponseEntity.created(uri).body(entity);
 	}
 
-	@Operation(description = "Update a product with details including name, quantity, critical quantity, unit value, and photo.", summary = "Save a new product", responses = {
+	@Operation(description = "Imports products in bulk from a CSV (header: name,quantity,description,critical_quantity,unit_value,categories, with category ids separated by |) or NDJSON body, one product per line. Valid rows are saved and invalid ones are listed in the report.", summary = "Bulk import products", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportReportDTO.class))),
+			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+	public ResponseEntity<ProductImportReportDTO> importProducts(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+		return ResponseEntity.ok(importService.importProducts(body, contentType));
+	}
+
+	@Operation(description = "Streams every product of the company as CSV or NDJSON (format=csv|ndjson), in the same layout accepted by the import, without photos.", summary = "Export products", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = { @Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson") }),
+			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping(value = "/export")
+	public WebAsyncTask<Void> exportProducts(
+			@RequestParam(value = "format", defaultValue = ProductExportService.CSV) String format,
+			HttpServletResponse response) {
+		StreamingResponseBody body = exportService.export(format);
+		boolean csv = ProductExportService.CSV.equals(format);
+		response.setContentType(
+				(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON).toString());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"produtos." + format + "\"");
+		// o prazo longo vale só para a exportação; as demais requisições assíncronas seguem o padrão
+		return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+			body.writeTo(response.getOutputStream());
+			response.flushBuffer();
+			return null;
+		});
+	}
+
+	@Operation(description = "Update a product with details including name, quantity, critical quantity, unit value, and photo. Send the version returned by the API to reject edits made over a stale copy.", summary = "Save a new product", responses = {
 			@ApiResponse(description = "Created", responseCode = "201", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDTO.class))),
+			@ApiResponse(description = "Conflict", responseCode = "409", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
 			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
 			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
 			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
@@ -104,8 +211,10 @@ public class ProductController {
 	public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @RequestParam String name,
 			@RequestParam int quantity, @RequestParam String description,
 			@RequestParam("critical_quantity") int criticalQuantity, @RequestParam("unit_value") BigDecimal unitValue,
-			@RequestParam MultipartFile photo, @RequestParam List<Long> categories) throws IOException {
+			@RequestParam MultipartFile photo, @RequestParam List<Long> categories,
+			@RequestParam(required = false) Long version) throws IOException {
 		ProductDTO product = new ProductDTO(name, quantity, description, photo.getBytes(), criticalQuantity, unitValue);
+		product.setVersion(version);
 		ProductDTO entity = service.updateProduct(id, product, categories);
 		return ResponseEntity.ok(entity);
 	}
@@ -0,0 +1,65 @@
+package com.superestoque.estoque.controllers;
+
+import java.net.URI;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.superestoque.estoque.controllers.exception.StandardError;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.services.StockMovementService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+@RestController
+@RequestMapping(value = "/products/{productId}/movements")
+public class StockMovementController {
+
+	private final StockMovementService service;
+
+	public StockMovementController(StockMovementService service) {
+		this.service = service;
+	}
+
+	@Operation(description = "Registers a stock movement: IN and OUT take a positive quantity, ADJUST takes a signed quantity and a reason. The quantity is applied atomically in the database, or accepted and applied later when write-behind is enabled.", summary = "Register a stock movement", responses = {
+			@ApiResponse(description = "Created", responseCode = "201", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StockMovementDTO.class))),
+			@ApiResponse(description = "Accepted", responseCode = "202", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StockMovementDTO.class))),
+			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unprocessable Entity", responseCode = "422", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@PostMapping
+	public ResponseEntity<StockMovementDTO> register(@PathVariable Long productId, @RequestBody StockMovementDTO dto) {
+		StockMovementDTO entity = service.register(productId, dto);
+		if (entity.getId() == null) {
+			return ResponseEntity.accepted().body(entity);
+		}
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(entity.getId()).toUri();
+		return ResponseEntity.created(uri).body(entity);
+	}
+
+	@Operation(description = "Lists the stock movements of a product, newest first", summary = "List stock movements", responses = {
+			@ApiResponse(description = "Ok", responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping
+	public ResponseEntity<Page<StockMovementDTO>> findAll(@PathVariable Long productId, Pageable pageable) {
+		return ResponseEntity.ok(service.findByProduct(productId, pageable));
+	}
+}
@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,6 +27,7 @@ import com.superestoque.estoque.entities.dto.UserInsertDTO;
 import com.superestoque.estoque.entities.dto.UserPhoto;
 import com.superestoque.estoque.entities.dto.UserUpdateDTO;
 import com.superestoque.estoque.entities.dto.UserUpdatePasswordDTO;
+import com.superestoque.estoque.services.ImageStorageService;
 import com.superestoque.estoque.services.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -147,6 +150,19 @@ public class UserController {
 		return ResponseEntity.ok(entity);
 	}
 
+	@Operation(description = "Redirects to the immutable, content-addressed URL of the user photo. The image itself is served with ETag and long-lived Cache-Control.", summary = "Redirects to the user avatar", responses = {
+			@ApiResponse(description = "Found", responseCode = "302", content = @Content),
+			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"timestamp\": \"2024-02-04T12:00:00Z\",\n\"status\": 404,\n\"error\": \"Recurso não encontrado\",\n\"message\": \"Usuário não encontrado\",\n\"path\": \"/users/avatar/{email}\"}"), schema = @Schema(implementation = StandardError.class))),
+			@ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Unauthorized\"}"))),
+			@ApiResponse(description = "Forbidden", responseCode = "403", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\n\"message\": \"Forbidden\"}"))) })
+	@PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
+	@GetMapping(value = "/avatar/{email}")
+	public ResponseEntity<Void> getAvatar(@PathVariable String email) {
+		String hash = service.findAvatarHash(email);
+		return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(ImageStorageService.url(hash)))
+				.cacheControl(CacheControl.noCache()).build();
+	}
+
 	@Operation(description = "This endpoint is used to request a password reset. An email with a reset link will be sent to the user.", summary = "Request password reset", responses = {
 			@ApiResponse(description = "No Content", responseCode = "204", content = @Content),
 			@ApiResponse(description = "Not Found", responseCode = "404", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = """
@@ -8,12 +8,12 @@ import java.util.Set;
 import com.superestoque.estoque.entities.dto.CompanyDTO;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
@@ -28,28 +28,25 @@ public class Company implements Serializable {
 	private Long id;
 	private String name;
 	private String cnpj;
-	@Lob
-	private byte[] photo;
-	@OneToMany(mappedBy = "company", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@Column(name = "photo_hash", length = 64)
+	private String photoHash;
+	@OneToMany(mappedBy = "company", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private Set<User> users = new HashSet<>();
-	@OneToMany(mappedBy = "company", fetch = FetchType.EAGER)
-	private Set<Product> products = new HashSet<>();
 
 	public Company() {
 	}
 
-	public Company(Long id, String name, String cnpj, byte[] photo) {
+	public Company(Long id, String name, String cnpj, String photoHash) {
 		this.id = id;
 		this.name = name;
 		this.cnpj = cnpj;
-		this.photo = photo;
+		this.photoHash = photoHash;
 	}
 
 	public Company(CompanyDTO entity) {
 		this.id = entity.getId();
 		this.name = entity.getName();
 		this.cnpj = entity.getCnpj();
-		this.photo = entity.getPhoto();
 	}
 
 	public Long getId() {
@@ -76,12 +73,12 @@ public class Company implements Serializable {
 		this.cnpj = cnpj;
 	}
 
-	public byte[] getPhoto() {
-		return photo;
+	public String getPhotoHash() {
+		return photoHash;
 	}
 
-	public void setPhoto(byte[] photo) {
-		this.photo = photo;
+	public void setPhotoHash(String photoHash) {
+		this.photoHash = photoHash;
 	}
 
 	public Set<User> getUsers() {
@@ -0,0 +1,59 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Alerta de estoque crítico de um produto, gravado na mesma transação da
+ * alteração que deixou o produto crítico. {@code pending} marca que o produto
+ * entra no próximo resumo da empresa; {@code alertedAt} guarda o último envio,
+ * que segura novos alertas até o fim da janela.
+ */
+@Entity
+@Table(name = "tb_critical_stock_alert", indexes = @Index(name = "idx_critical_stock_alert_pending", columnList = "pending"))
+public class CriticalStockAlert implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long productId;
+
+	@Column(nullable = false)
+	private Long companyId;
+
+	@Column(nullable = false)
+	private boolean pending;
+
+	private Instant alertedAt;
+
+	public CriticalStockAlert() {
+	}
+
+	public CriticalStockAlert(Long productId, Long companyId) {
+		this.productId = productId;
+		this.companyId = companyId;
+		this.pending = true;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
+	public boolean isPending() {
+		return pending;
+	}
+
+	public Instant getAlertedAt() {
+		return alertedAt;
+	}
+}
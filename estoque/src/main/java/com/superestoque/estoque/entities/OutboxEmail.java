@@ -0,0 +1,145 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import com.superestoque.estoque.entities.enums.EmailType;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * E-mail a enviar, gravado na mesma transação da alteração que o originou. A
+ * linha é removida depois do envio; {@code lockedUntil} marca o prazo em que
+ * uma instância tem a posse do envio antes de outra poder retomá-lo.
+ */
+@Entity
+@Table(name = "tb_email_outbox", indexes = @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+public class OutboxEmail implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 30)
+	private EmailType type;
+
+	@Lob
+	@Column(nullable = false)
+	private String payload;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	private OutboxStatus status;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(name = "next_attempt_at", nullable = false)
+	private Instant nextAttemptAt;
+
+	private Instant lockedUntil;
+
+	@Column(length = 500)
+	private String lastError;
+
+	@Column(nullable = false)
+	private Instant createdAt;
+
+	public OutboxEmail() {
+	}
+
+	public OutboxEmail(EmailType type, String payload, Instant createdAt) {
+		this.type = type;
+		this.payload = payload;
+		this.status = OutboxStatus.PENDING;
+		this.nextAttemptAt = createdAt;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public EmailType getType() {
+		return type;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public OutboxStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(OutboxStatus status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Instant getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(Instant nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public Instant getLockedUntil() {
+		return lockedUntil;
+	}
+
+	public void setLockedUntil(Instant lockedUntil) {
+		this.lockedUntil = lockedUntil;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OutboxEmail other = (OutboxEmail) obj;
+		return Objects.equals(id, other.id);
+	}
+}
@@ -6,19 +6,22 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = @Index(name = "idx_product_company_name", columnList = "company_id, name, id"))
 public class Product implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -29,8 +32,8 @@ public class Product implements Serializable {
 	private String name;
 	private int quantity;
 	private String description;
-	@Lob
-	private byte[] photo;
+	@Column(name = "photo_hash", length = 64)
+	private String photoHash;
 	private int critical_quantity;
 	@ManyToOne
 	@JoinColumn(name = "company_id")
@@ -40,17 +43,27 @@ public class Product implements Serializable {
 	@ManyToMany
 	@JoinTable(name = "tb_product_category", joinColumns = @JoinColumn(name = "product_id"), inverseJoinColumns = @JoinColumn(name = "category_id"))
 	private Set<Category> categories = new HashSet<>();
+	@Version
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	private long version;
+	// produtos muito movimentados guardam parte do estoque em tb_product_stock_shard
+	@Column(nullable = false, columnDefinition = "integer default 0")
+	private int stockShards;
+	@Transient
+	private Integer shardQuantity;
+	@Transient
+	private long shardVersion;
 
 	public Product() {
 	}
 
-	public Product(Long id, String name, int quantity, String description, byte[] photo, int critical_quantity,
+	public Product(Long id, String name, int quantity, String description, String photoHash, int critical_quantity,
 			BigDecimal unitValue) {
 		this.id = id;
 		this.name = name;
 		this.quantity = quantity;
 		this.description = description;
-		this.photo = photo;
+		this.photoHash = photoHash;
 		this.critical_quantity = critical_quantity;
 		this.unitValue = unitValue;
 	}
@@ -71,12 +84,21 @@ public class Product implements Serializable {
 		this.name = name;
 	}
 
+	/**
+	 * Quantidade total do produto: a da própria linha mais a soma das faixas,
+	 * quando o produto é dividido e a soma já foi carregada.
+	 */
 	public int getQuantity() {
-		return quantity;
+		return shardQuantity == null ? quantity : quantity + shardQuantity;
 	}
 
+	/**
+	 * Define a quantidade total. Em produto dividido as faixas precisam ser
+	 * zeradas na mesma transação.
+	 */
 	public void setQuantity(int quantity) {
 		this.quantity = quantity;
+		this.shardQuantity = stockShards > 0 ? 0 : null;
 	}
 
 	public String getDescription() {
@@ -87,12 +109,12 @@ public class Product implements Serializable {
 		this.description = description;
 	}
 
-	public byte[] getPhoto() {
-		return photo;
+	public String getPhotoHash() {
+		return photoHash;
 	}
 
-	public void setPhoto(byte[] photo) {
-		this.photo = photo;
+	public void setPhotoHash(String photoHash) {
+		this.photoHash = photoHash;
 	}
 
 	public int getCritical_quantity() {
@@ -120,11 +142,42 @@ public class Product implements Serializable {
 	}
 
 	public BigDecimal getStockValue() {
-		return stockValue;
+		if (shardQuantity == null || unitValue == null) {
+			return stockValue;
+		}
+		return unitValue.multiply(new BigDecimal(getQuantity()));
 	}
 
 	public void calculateStockValue() {
-		this.stockValue = unitValue.multiply(new BigDecimal(quantity));
+		this.stockValue = unitValue.multiply(new BigDecimal(getQuantity()));
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Versão do estoque: a da linha mais a soma das faixas carregada, que
+	 * mudam sem tocar a linha do produto. Aumenta a cada alteração gravada.
+	 */
+	public long getStockVersion() {
+		return version + shardVersion;
+	}
+
+	public int getStockShards() {
+		return stockShards;
+	}
+
+	public void setStockShards(int stockShards) {
+		this.stockShards = stockShards;
+	}
+
+	public void setShardQuantity(Integer shardQuantity) {
+		this.shardQuantity = shardQuantity;
+	}
+
+	public void setShardVersion(long shardVersion) {
+		this.shardVersion = shardVersion;
 	}
 
 	public Set<Category> getCategories() {
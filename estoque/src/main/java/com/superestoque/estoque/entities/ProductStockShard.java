@@ -0,0 +1,97 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Faixa do estoque de um produto muito movimentado. Cada escrita cai em uma
+ * faixa sorteada, espalhando os bloqueios por várias linhas; o estoque do
+ * produto é a quantidade da linha dele mais a soma das faixas. {@code version}
+ * conta as escritas na faixa, que não passam pela linha do produto.
+ */
+@Entity
+@Table(name = "tb_product_stock_shard", uniqueConstraints = @UniqueConstraint(name = "uk_stock_shard_product_shard", columnNames = {
+		"product_id", "shard" }))
+public class ProductStockShard implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
+	@JoinColumn(name = "product_id", nullable = false)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private Product product;
+
+	@Column(nullable = false)
+	private int shard;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	private long version;
+
+	public ProductStockShard() {
+	}
+
+	public ProductStockShard(Long id, Product product, int shard, int quantity) {
+		this.id = id;
+		this.product = product;
+		this.shard = shard;
+		this.quantity = quantity;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Product getProduct() {
+		return product;
+	}
+
+	public int getShard() {
+		return shard;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ProductStockShard other = (ProductStockShard) obj;
+		return Objects.equals(id, other.id);
+	}
+}
@@ -0,0 +1,77 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Par de chaves RSA que assina os tokens JWT, compartilhado pelas instâncias.
+ * A geração é única, então duas instâncias rotacionando ao mesmo tempo não
+ * criam duas chaves; a chave privada fica cifrada.
+ */
+@Entity
+@Table(name = "tb_signing_key")
+public class SigningKey implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(length = 36)
+	private String id;
+
+	@Column(nullable = false, unique = true)
+	private long generation;
+
+	@Column(nullable = false, length = 1000)
+	private String publicKey;
+
+	@Column(nullable = false, length = 4000)
+	private String privateKey;
+
+	@Column(nullable = false)
+	private Instant createdAt;
+
+	@Column(nullable = false)
+	private Instant activatesAt;
+
+	public SigningKey() {
+	}
+
+	public SigningKey(String id, long generation, String publicKey, String privateKey, Instant createdAt,
+			Instant activatesAt) {
+		this.id = id;
+		this.generation = generation;
+		this.publicKey = publicKey;
+		this.privateKey = privateKey;
+		this.createdAt = createdAt;
+		this.activatesAt = activatesAt;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getGeneration() {
+		return generation;
+	}
+
+	public String getPublicKey() {
+		return publicKey;
+	}
+
+	public String getPrivateKey() {
+		return privateKey;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getActivatesAt() {
+		return activatesAt;
+	}
+}
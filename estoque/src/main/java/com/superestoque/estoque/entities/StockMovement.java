@@ -0,0 +1,127 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.superestoque.estoque.entities.enums.MovementType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Lançamento do livro de movimentações de estoque. Os registros só são
+ * inseridos, nunca alterados: {@code quantity} é a variação aplicada e
+ * {@code resultingQuantity} o saldo do produto logo depois dela.
+ */
+@Entity
+@Table(name = "tb_stock_movement", indexes = @Index(name = "idx_stock_movement_product_moment", columnList = "product_id, moment"))
+public class StockMovement implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
+	@JoinColumn(name = "product_id", nullable = false)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private Product product;
+
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
+	@JoinColumn(name = "user_id", nullable = false)
+	private User user;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	private MovementType type;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	@Column(nullable = false)
+	private int resultingQuantity;
+
+	private String reason;
+
+	@Column(nullable = false)
+	private Instant moment;
+
+	public StockMovement() {
+	}
+
+	public StockMovement(Long id, Product product, User user, MovementType type, int quantity, int resultingQuantity,
+			String reason, Instant moment) {
+		this.id = id;
+		this.product = product;
+		this.user = user;
+		this.type = type;
+		this.quantity = quantity;
+		this.resultingQuantity = resultingQuantity;
+		this.reason = reason;
+		this.moment = moment;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Product getProduct() {
+		return product;
+	}
+
+	public User getUser() {
+		return user;
+	}
+
+	public MovementType getType() {
+		return type;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public int getResultingQuantity() {
+		return resultingQuantity;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StockMovement other = (StockMovement) obj;
+		return Objects.equals(id, other.id);
+	}
+}
@@ -0,0 +1,136 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import com.superestoque.estoque.entities.enums.MovementType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Movimentação aceita no modo write-behind que o banco recusou ao gravar, por
+ * falta de estoque ou porque o produto foi removido. Fica guardada para
+ * conferência manual; é inserida na mesma transação que avança o checkpoint do
+ * log local.
+ */
+@Entity
+@Table(name = "tb_stock_movement_dead_letter", uniqueConstraints = @UniqueConstraint(name = "uk_stock_dead_letter_node_seq", columnNames = {
+		"node_id", "seq" }))
+public class StockMovementDeadLetter implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, length = 100)
+	private String nodeId;
+
+	@Column(nullable = false)
+	private long seq;
+
+	@Column(nullable = false)
+	private Long productId;
+
+	@Column(nullable = false)
+	private Long companyId;
+
+	@Column(nullable = false)
+	private Long userId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	private MovementType type;
+
+	@Column(nullable = false)
+	private int quantity;
+
+	private String reason;
+
+	@Column(nullable = false)
+	private Instant moment;
+
+	@Column(nullable = false)
+	private String error;
+
+	@Column(nullable = false)
+	private Instant failedAt;
+
+	public StockMovementDeadLetter() {
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public long getSeq() {
+		return seq;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public MovementType getType() {
+		return type;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public Instant getFailedAt() {
+		return failedAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StockMovementDeadLetter other = (StockMovementDeadLetter) obj;
+		return Objects.equals(id, other.id);
+	}
+}
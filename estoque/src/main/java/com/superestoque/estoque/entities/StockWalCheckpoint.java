@@ -0,0 +1,47 @@
+package com.superestoque.estoque.entities;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Última entrada do log local de estoque já aplicada no banco, por instância.
+ * É gravada na mesma transação que aplica as movimentações, para que a
+ * recuperação não repita o que já foi gravado.
+ */
+@Entity
+@Table(name = "tb_stock_wal_checkpoint")
+public class StockWalCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(length = 100)
+	private String nodeId;
+
+	@Column(nullable = false)
+	private long lastSeq;
+
+	public StockWalCheckpoint() {
+	}
+
+	public StockWalCheckpoint(String nodeId, long lastSeq) {
+		this.nodeId = nodeId;
+		this.lastSeq = lastSeq;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public long getLastSeq() {
+		return lastSeq;
+	}
+
+	public void setLastSeq(long lastSeq) {
+		this.lastSeq = lastSeq;
+	}
+}
@@ -13,20 +13,21 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import com.superestoque.estoque.entities.dto.UserDTO;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "tb_user")
+@Table(name = "tb_user", indexes = @Index(name = "idx_user_company_status_name", columnList = "company_id, status, name"))
 public class User implements Serializable, UserDetails {
 
 	private static final long serialVersionUID = 1L;
@@ -38,8 +39,8 @@ public class User implements Serializable, UserDetails {
 	private String password;
 	private boolean status;
 	private String email;
-	@Lob
-	private byte[] photo;
+	@Column(name = "photo_hash", length = 64)
+	private String photoHash;
 	private boolean first_acess;
 	@ManyToMany(fetch = FetchType.EAGER)
 	@JoinTable(name = "tb_user_role", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -51,12 +52,12 @@ public class User implements Serializable, UserDetails {
 	public User() {
 	}
 
-	public User(Long id, String name, String email, byte[] photo, String password, boolean first_acess) {
+	public User(Long id, String name, String email, String photoHash, String password, boolean first_acess) {
 		this.id = id;
 		this.name = name;
 		this.status = true;
 		this.email = email;
-		this.photo = photo;
+		this.photoHash = photoHash;
 		this.password = password;
 		this.first_acess = first_acess;
 	}
@@ -65,7 +66,6 @@ public class User implements Serializable, UserDetails {
 		this.id = entity.getId();
 		this.name = entity.getName();
 		this.email = entity.getEmail();
-		this.photo = entity.getPhoto();
 		this.status = entity.isStatus();
 		this.first_acess = entity.isFirst_acess();
 	}
@@ -102,12 +102,12 @@ public class User implements Serializable, UserDetails {
 		this.email = email;
 	}
 
-	public byte[] getPhoto() {
-		return photo;
+	public String getPhotoHash() {
+		return photoHash;
 	}
 
-	public void setPhoto(byte[] photo) {
-		this.photo = photo;
+	public void setPhotoHash(String photoHash) {
+		this.photoHash = photoHash;
 	}
 
 	public void setPassword(String password) {
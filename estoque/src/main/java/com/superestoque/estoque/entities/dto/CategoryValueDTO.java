@@ -0,0 +1,34 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+public class CategoryValueDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private BigDecimal stockValue;
+
+	public CategoryValueDTO() {
+	}
+
+	public CategoryValueDTO(Long id, String name, BigDecimal stockValue) {
+		this.id = id;
+		this.name = name;
+		this.stockValue = stockValue;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public BigDecimal getStockValue() {
+		return stockValue;
+	}
+}
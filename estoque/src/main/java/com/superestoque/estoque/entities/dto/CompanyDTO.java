@@ -3,6 +3,7 @@ package com.superestoque.estoque.entities.dto;
 import java.io.Serializable;
 
 import com.superestoque.estoque.entities.Company;
+import com.superestoque.estoque.services.ImageStorageService;
 
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.NotBlank;
@@ -18,23 +19,23 @@ public class CompanyDTO implements Serializable {
 	private String name;
 	@Column(unique = true)
 	private String cnpj;
-	private byte[] photo;
+	private String photoUrl;
 
 	public CompanyDTO() {
 	}
 
-	public CompanyDTO(Long id, String name, String cnpj, byte[] photo) {
+	public CompanyDTO(Long id, String name, String cnpj, String photoUrl) {
 		this.id = id;
 		this.name = name;
 		this.cnpj = cnpj;
-		this.photo = photo;
+		this.photoUrl = photoUrl;
 	}
 
 	public CompanyDTO(Company entity) {
 		this.id = entity.getId();
 		this.name = entity.getName();
 		this.cnpj = entity.getCnpj();
-		this.photo = entity.getPhoto();
+		this.photoUrl = ImageStorageService.url(entity.getPhotoHash());
 	}
 
 	public Long getId() {
@@ -61,12 +62,8 @@ public class CompanyDTO implements Serializable {
 		this.cnpj = cnpj;
 	}
 
-	public byte[] getPhoto() {
-		return photo;
-	}
-
-	public void setPhoto(byte[] photo) {
-		this.photo = photo;
+	public String getPhotoUrl() {
+		return photoUrl;
 	}
 
 }
\ No newline at end of file
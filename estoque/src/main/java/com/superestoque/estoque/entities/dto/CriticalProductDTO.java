@@ -0,0 +1,45 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+
+public class CriticalProductDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private int quantity;
+	private int criticalQuantity;
+	private int shortage;
+
+	public CriticalProductDTO() {
+	}
+
+	public CriticalProductDTO(Long id, String name, int quantity, int criticalQuantity) {
+		this.id = id;
+		this.name = name;
+		this.quantity = quantity;
+		this.criticalQuantity = criticalQuantity;
+		this.shortage = criticalQuantity - quantity;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public int getCriticalQuantity() {
+		return criticalQuantity;
+	}
+
+	public int getShortage() {
+		return shortage;
+	}
+}
@@ -0,0 +1,42 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+public class InventoryDashboardDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private BigDecimal totalStockValue;
+	private long productCount;
+	private long criticalCount;
+	private List<CategoryValueDTO> categories;
+
+	public InventoryDashboardDTO() {
+	}
+
+	public InventoryDashboardDTO(BigDecimal totalStockValue, long productCount, long criticalCount,
+			List<CategoryValueDTO> categories) {
+		this.totalStockValue = totalStockValue;
+		this.productCount = productCount;
+		this.criticalCount = criticalCount;
+		this.categories = categories;
+	}
+
+	public BigDecimal getTotalStockValue() {
+		return totalStockValue;
+	}
+
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public long getCriticalCount() {
+		return criticalCount;
+	}
+
+	public List<CategoryValueDTO> getCategories() {
+		return categories;
+	}
+}
@@ -5,8 +5,12 @@ import java.math.BigDecimal;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.superestoque.estoque.entities.Category;
 import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.services.ImageStorageService;
+import com.superestoque.estoque.services.ThumbnailService;
 
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.Min;
@@ -26,7 +30,10 @@ public class ProductDTO implements Serializable {
 	private int quantity;
 	private String description;
 	@NotNull
+	@JsonProperty(access = Access.WRITE_ONLY)
 	private byte[] photo;
+	private String photoUrl;
+	private String thumbnailUrl;
 	@Min(value = 0)
 	private int critical_quantity;
 	@Column(scale = 2)
@@ -36,6 +43,7 @@ public class ProductDTO implements Serializable {
 	@Min(0)
 	private BigDecimal stockValue;
 	private Set<CategoryDTO> categories;
+	private Long version;
 
 	public ProductDTO() {
 	}
@@ -67,10 +75,12 @@ public class ProductDTO implements Serializable {
 		this.name = entity.getName();
 		this.quantity = entity.getQuantity();
 		this.description = entity.getDescription();
-		this.photo = entity.getPhoto();
+		this.photoUrl = ImageStorageService.url(entity.getPhotoHash());
+		this.thumbnailUrl = ImageStorageService.url(entity.getPhotoHash(), ThumbnailService.LISTING_SIZE);
 		this.critical_quantity = entity.getCritical_quantity();
 		this.unitValue = entity.getUnitValue();
 		this.stockValue = entity.getStockValue();
+		this.version = entity.getVersion();
 	}
 
 	public ProductDTO(Product entity, Set<Category> categories) {
@@ -78,11 +88,13 @@ public class ProductDTO implements Serializable {
 		this.name = entity.getName();
 		this.quantity = entity.getQuantity();
 		this.description = entity.getDescription();
-		this.photo = entity.getPhoto();
+		this.photoUrl = ImageStorageService.url(entity.getPhotoHash());
+		this.thumbnailUrl = ImageStorageService.url(entity.getPhotoHash(), ThumbnailService.LISTING_SIZE);
 		this.critical_quantity = entity.getCritical_quantity();
 		this.unitValue = entity.getUnitValue();
 		this.stockValue = entity.getStockValue();
 		this.categories = categories.stream().map(category -> new CategoryDTO(category)).collect(Collectors.toSet());
+		this.version = entity.getVersion();
 	}
 
 	public Long getId() {
@@ -125,6 +137,10 @@ public class ProductDTO implements Serializable {
 		this.photo = photo;
 	}
 
+	public String getPhotoUrl() {
+		return photoUrl;
+	}
+
 	public int getCritical_quantity() {
 		return critical_quantity;
 	}
@@ -153,4 +169,15 @@ public class ProductDTO implements Serializable {
 		return categories;
 	}
 
-}
\ No newline at end of file
+	public String getThumbnailUrl() {
+		return thumbnailUrl;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+}
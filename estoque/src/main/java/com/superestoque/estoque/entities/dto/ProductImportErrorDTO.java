@@ -0,0 +1,27 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+
+public class ProductImportErrorDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private long line;
+	private String message;
+
+	public ProductImportErrorDTO() {
+	}
+
+	public ProductImportErrorDTO(long line, String message) {
+		this.line = line;
+		this.message = message;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,43 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportReportDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// limita o relatório em importações com muitas linhas inválidas
+	public static final int MAX_ERRORS = 1000;
+
+	private long imported;
+	private long failed;
+	private List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+	public ProductImportReportDTO() {
+	}
+
+	public void addImported(long count) {
+		imported += count;
+	}
+
+	public void addError(long line, String message) {
+		failed++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(new ProductImportErrorDTO(line, message));
+		}
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public List<ProductImportErrorDTO> getErrors() {
+		return errors;
+	}
+}
@@ -0,0 +1,98 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.superestoque.estoque.entities.StockMovement;
+import com.superestoque.estoque.entities.enums.MovementType;
+
+public class StockMovementDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty(access = Access.READ_ONLY)
+	private Long id;
+	@JsonProperty(access = Access.READ_ONLY)
+	private Long productId;
+	private MovementType type;
+	private int quantity;
+	@JsonProperty(access = Access.READ_ONLY)
+	private int resultingQuantity;
+	private String reason;
+	@JsonProperty(access = Access.READ_ONLY)
+	private String username;
+	@JsonProperty(access = Access.READ_ONLY)
+	private Instant moment;
+
+	public StockMovementDTO() {
+	}
+
+	public StockMovementDTO(MovementType type, int quantity, String reason) {
+		this.type = type;
+		this.quantity = quantity;
+		this.reason = reason;
+	}
+
+	public StockMovementDTO(Long id, Long productId, MovementType type, int quantity, int resultingQuantity,
+			String reason, String username, Instant moment) {
+		this.id = id;
+		this.productId = productId;
+		this.type = type;
+		this.quantity = quantity;
+		this.resultingQuantity = resultingQuantity;
+		this.reason = reason;
+		this.username = username;
+		this.moment = moment;
+	}
+
+	public StockMovementDTO(StockMovement entity, String username) {
+		this(entity.getId(), entity.getProduct().getId(), entity.getType(), entity.getQuantity(),
+				entity.getResultingQuantity(), entity.getReason(), username, entity.getMoment());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public MovementType getType() {
+		return type;
+	}
+
+	public void setType(MovementType type) {
+		this.type = type;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public int getResultingQuantity() {
+		return resultingQuantity;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public void setReason(String reason) {
+		this.reason = reason;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+}
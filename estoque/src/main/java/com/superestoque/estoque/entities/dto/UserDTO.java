@@ -4,8 +4,11 @@ import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.superestoque.estoque.entities.Role;
 import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.services.ImageStorageService;
 
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.Email;
@@ -24,7 +27,9 @@ public class UserDTO implements Serializable {
 	@Email(message = "E-mail inválido")
 	@NotBlank(message = "O campo nome é obrigatório")
 	private String email;
+	@JsonProperty(access = Access.WRITE_ONLY)
 	private byte[] photo;
+	private String photoUrl;
 	private boolean status;
 	private boolean first_acess;
 	private Set<RoleDTO> roles = new HashSet<>();;
@@ -45,7 +50,7 @@ public class UserDTO implements Serializable {
 		this.id = entity.getId();
 		this.name = entity.getName();
 		this.email = entity.getEmail();
-		this.photo = entity.getPhoto();
+		this.photoUrl = ImageStorageService.url(entity.getPhotoHash());
 		this.status = entity.isStatus();
 		this.first_acess = entity.isFirst_acess();
 	}
@@ -54,7 +59,7 @@ public class UserDTO implements Serializable {
 		this.id = entity.getId();
 		this.name = entity.getName();
 		this.email = entity.getEmail();
-		this.photo = entity.getPhoto();
+		this.photoUrl = ImageStorageService.url(entity.getPhotoHash());
 		this.status = entity.isStatus();
 		this.first_acess = entity.isFirst_acess();
 		entity.getRoles().forEach(role -> this.roles.add(new RoleDTO(role)));
@@ -92,6 +97,10 @@ public class UserDTO implements Serializable {
 		this.photo = photo;
 	}
 
+	public String getPhotoUrl() {
+		return photoUrl;
+	}
+
 	public boolean isStatus() {
 		return status;
 	}
@@ -0,0 +1,52 @@
+package com.superestoque.estoque.entities.dto;
+
+import java.io.Serializable;
+
+import com.superestoque.estoque.services.ImageStorageService;
+
+/**
+ * Projeção usada na listagem de usuários da empresa: só as colunas exibidas,
+ * sem foto nem perfis.
+ */
+public class UserSummaryDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private String email;
+	private boolean status;
+	private String photoUrl;
+
+	public UserSummaryDTO() {
+	}
+
+	public UserSummaryDTO(Long id, String name, String email, boolean status, String photoHash) {
+		this.id = id;
+		this.name = name;
+		this.email = email;
+		this.status = status;
+		this.photoUrl = ImageStorageService.url(photoHash);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public boolean isStatus() {
+		return status;
+	}
+
+	public String getPhotoUrl() {
+		return photoUrl;
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.superestoque.estoque.entities.enums;
+
+public enum EmailType {
+	PASSWORD_RESET, CRITICAL_STOCK_DIGEST
+}
@@ -0,0 +1,5 @@
+package com.superestoque.estoque.entities.enums;
+
+public enum MovementType {
+	IN, OUT, ADJUST
+}
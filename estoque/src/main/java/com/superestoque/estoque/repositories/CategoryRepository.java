@@ -1,6 +1,8 @@
 package com.superestoque.estoque.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,4 +13,8 @@ import com.superestoque.estoque.entities.Category;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
 	List<Category> findByCompanyId(Long id);
+
+	Optional<Category> findByIdAndCompanyId(Long id, Long companyId);
+
+	List<Category> findByIdInAndCompanyId(Collection<Long> ids, Long companyId);
 }
\ No newline at end of file
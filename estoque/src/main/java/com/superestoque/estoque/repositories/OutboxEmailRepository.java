@@ -0,0 +1,30 @@
+package com.superestoque.estoque.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+	/**
+	 * E-mails prontos para envio e sem posse vigente. Linhas bloqueadas por
+	 * outra instância são puladas em vez de esperadas. Consulta nativa porque o
+	 * dialeto do H2 não gera {@code SKIP LOCKED}; a sintaxe vale no MySQL 8 e
+	 * no H2. Sem ORDER BY: com ordenação o banco bloqueia todas as linhas lidas
+	 * antes do LIMIT, e a leitura pelo índice (status, next_attempt_at) já
+	 * traz primeiro as mais antigas.
+	 */
+	@Query(value = "SELECT * FROM tb_email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now "
+			+ "AND (locked_until IS NULL OR locked_until < :now) LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+	List<OutboxEmail> findClaimable(@Param("now") Instant now, @Param("limit") int limit);
+
+	long countByStatus(OutboxStatus status);
+}
@@ -1,8 +1,14 @@
 package com.superestoque.estoque.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,10 +18,71 @@ import com.superestoque.estoque.entities.Product;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-	@Query("SELECT DISTINCT p FROM Product p " + "LEFT JOIN FETCH p.categories c " + "WHERE p.company.id = :companyId "
-			+ "AND (:categoryId IS NULL OR c.id = :categoryId) "
-			+ "AND (:productName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :productName, '%')))")
-	Page<Product> findByCompanyIdAndCategoryId(@Param("companyId") Long companyId, @Param("categoryId") Long categoryId,
+	String COMPANY_FILTER = "WHERE p.company.id = :companyId "
+			+ "AND (:categoryId IS NULL OR EXISTS (SELECT 1 FROM Product p2 JOIN p2.categories c WHERE p2.id = p.id AND c.id = :categoryId)) "
+			+ "AND (:productName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :productName, '%'))) ";
+
+	@Query(value = "SELECT p.id FROM Product p " + COMPANY_FILTER, countQuery = "SELECT COUNT(p) FROM Product p "
+			+ COMPANY_FILTER)
+	Page<Long> findIdsByCompanyIdAndCategoryId(@Param("companyId") Long companyId, @Param("categoryId") Long categoryId,
 			@Param("productName") String productName, Pageable pageable);
 
-}
\ No newline at end of file
+	@Query("SELECT p.id FROM Product p " + COMPANY_FILTER)
+	Slice<Long> findIdSliceByCompanyIdAndCategoryId(@Param("companyId") Long companyId,
+			@Param("categoryId") Long categoryId, @Param("productName") String productName, Pageable pageable);
+
+	@Query("SELECT p.id FROM Product p " + COMPANY_FILTER + "ORDER BY p.name, p.id")
+	List<Long> findFirstIdsByCompanyId(@Param("companyId") Long companyId, @Param("categoryId") Long categoryId,
+			@Param("productName") String productName, Limit limit);
+
+	@Query("SELECT p.id FROM Product p " + COMPANY_FILTER
+			+ "AND (p.name > :afterName OR (p.name = :afterName AND p.id > :afterId)) ORDER BY p.name, p.id")
+	List<Long> findIdsByCompanyIdAfter(@Param("companyId") Long companyId, @Param("afterName") String afterName,
+			@Param("afterId") Long afterId, @Param("categoryId") Long categoryId,
+			@Param("productName") String productName, Limit limit);
+
+	long countByCompanyId(Long companyId);
+
+	@Query("SELECT COUNT(p) FROM Product p JOIN p.categories c WHERE p.company.id = :companyId AND c.id = :categoryId")
+	long countByCompanyIdAndCategoryId(@Param("companyId") Long companyId, @Param("categoryId") Long categoryId);
+
+	@Query("SELECT c.id FROM Product p JOIN p.categories c WHERE p.id = :id")
+	List<Long> findCategoryIdsById(@Param("id") Long id);
+
+	boolean existsByIdAndCompanyId(Long id, Long companyId);
+
+	/**
+	 * Soma {@code delta} ao estoque numa única instrução, sem ler o produto antes.
+	 * Não altera nada quando a saída deixaria o estoque negativo. O valor do
+	 * estoque vem antes da quantidade porque o MySQL avalia as atribuições da
+	 * esquerda para a direita.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.stockValue = p.unitValue * (p.quantity + :delta), p.quantity = p.quantity + :delta, "
+			+ "p.version = p.version + 1 WHERE p.id = :id AND p.company.id = :companyId AND p.quantity + :delta >= 0")
+	int addQuantity(@Param("id") Long id, @Param("companyId") Long companyId, @Param("delta") int delta);
+
+	@Query("SELECT p.stockShards FROM Product p WHERE p.id = :id AND p.company.id = :companyId")
+	Integer findStockShardsByIdAndCompanyId(@Param("id") Long id, @Param("companyId") Long companyId);
+
+	@Query("SELECT p.id FROM Product p WHERE p.stockShards > 0")
+	List<Long> findShardedIds();
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.stockShards = :shards WHERE p.id = :id AND p.stockShards = 0")
+	int enableShards(@Param("id") Long id, @Param("shards") int shards);
+
+	/**
+	 * Devolve para a linha do produto o que estava nas faixas e volta ao modo
+	 * normal. A versão absorve a das faixas, para a versão do estoque não
+	 * voltar atrás quando elas forem removidas.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.stockValue = p.unitValue * (p.quantity + :quantity), p.quantity = p.quantity + :quantity, "
+			+ "p.stockShards = 0, p.version = p.version + CAST(:shardVersion AS Long) + 1 WHERE p.id = :id")
+	int foldShards(@Param("id") Long id, @Param("quantity") int quantity, @Param("shardVersion") long shardVersion);
+
+	@Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.categories WHERE p.id IN :ids")
+	List<Product> findWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,49 @@
+package com.superestoque.estoque.repositories;
+
+import java.util.List;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.superestoque.estoque.config.CacheConfig;
+import com.superestoque.estoque.entities.ProductStockShard;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+
+	String SUM_BY_PRODUCT = "SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStockShard s WHERE s.product.id = :productId";
+
+	List<ProductStockShard> findByProductId(Long productId);
+
+	/**
+	 * Mesma soma, guardada por pouco tempo para as leituras de listagem não
+	 * baterem nas faixas a cada requisição.
+	 */
+	@Cacheable(cacheNames = CacheConfig.STOCK_SHARDS, key = "#p0")
+	@Query(SUM_BY_PRODUCT)
+	Long sumCachedByProductId(@Param("productId") Long productId);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT s FROM ProductStockShard s WHERE s.product.id = :productId ORDER BY s.shard")
+	List<ProductStockShard> findForUpdateByProductId(@Param("productId") Long productId);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ProductStockShard s SET s.quantity = s.quantity + :delta, s.version = s.version + 1 "
+			+ "WHERE s.product.id = :productId AND s.shard = :shard AND s.quantity + :delta >= 0")
+	int addQuantity(@Param("productId") Long productId, @Param("shard") int shard, @Param("delta") int delta);
+
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE ProductStockShard s SET s.quantity = 0 WHERE s.product.id = :productId")
+	int resetByProductId(@Param("productId") Long productId);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM ProductStockShard s WHERE s.product.id = :productId")
+	int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,12 +1,18 @@
 package com.superestoque.estoque.repositories;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import com.superestoque.estoque.config.CacheConfig;
 import com.superestoque.estoque.entities.Role;
 
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
+	// só a existência vai para o cache; a entidade é obtida com getReferenceById
+	@Override
+	@Cacheable(cacheNames = CacheConfig.ROLES, key = "#p0", unless = "!#result")
+	boolean existsById(Long id);
 }
@@ -0,0 +1,14 @@
+package com.superestoque.estoque.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.superestoque.estoque.entities.SigningKey;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+	List<SigningKey> findAllByOrderByGenerationAsc();
+}
@@ -0,0 +1,35 @@
+package com.superestoque.estoque.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.superestoque.estoque.entities.StockMovement;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+	@Query(value = "SELECT new com.superestoque.estoque.entities.dto.StockMovementDTO(m.id, m.product.id, m.type, m.quantity, m.resultingQuantity, m.reason, u.email, m.moment) "
+			+ "FROM StockMovement m JOIN m.user u WHERE m.product.id = :productId AND m.product.company.id = :companyId "
+			+ "ORDER BY m.moment DESC, m.id DESC", countQuery = "SELECT COUNT(m) FROM StockMovement m "
+					+ "WHERE m.product.id = :productId AND m.product.company.id = :companyId")
+	Page<StockMovementDTO> findByProductId(@Param("productId") Long productId, @Param("companyId") Long companyId,
+			Pageable pageable);
+
+	/**
+	 * Produtos de {@code productIds} com pelo menos {@code minimum} lançamentos
+	 * desde {@code since}, gravados por qualquer instância.
+	 */
+	@Query("SELECT m.product.id FROM StockMovement m WHERE m.product.id IN :productIds AND m.moment >= :since "
+			+ "GROUP BY m.product.id HAVING COUNT(m) >= :minimum")
+	List<Long> findBusyProductIds(@Param("productIds") Collection<Long> productIds, @Param("since") Instant since,
+			@Param("minimum") long minimum);
+}
@@ -0,0 +1,10 @@
+package com.superestoque.estoque.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.superestoque.estoque.entities.StockWalCheckpoint;
+
+@Repository
+public interface StockWalCheckpointRepository extends JpaRepository<StockWalCheckpoint, String> {
+}
@@ -1,20 +1,39 @@
 package com.superestoque.estoque.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.entities.dto.UserSummaryDTO;
 
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+	String COMPANY_FILTER = "WHERE u.company.id = :companyId AND u.status = :status "
+			+ "AND (:name IS NULL OR LOWER(u.name) LIKE LOWER(CONCAT('%', :name, '%'))) "
+			+ "AND (:authority IS NULL OR EXISTS (SELECT 1 FROM User u2 JOIN u2.roles r WHERE u2.id = u.id AND r.authority = :authority)) ";
+
 	@Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.email = :email")
 	User findByEmail(@Param("email") String email);
 
 	Optional<User> getByEmail(String email);
+
+	List<User> findByCompanyIdAndStatus(Long companyId, boolean status);
+
+	@Query(value = "SELECT new com.superestoque.estoque.entities.dto.UserSummaryDTO(u.id, u.name, u.email, u.status, u.photoHash) "
+			+ "FROM User u " + COMPANY_FILTER, countQuery = "SELECT COUNT(u) FROM User u " + COMPANY_FILTER)
+	Page<UserSummaryDTO> findSummariesByCompanyId(@Param("companyId") Long companyId, @Param("status") boolean status,
+			@Param("name") String name, @Param("authority") String authority, Pageable pageable);
+
+	@Query("SELECT u.email FROM User u JOIN u.roles r WHERE u.company.id = :companyId AND r.authority = :authority")
+	List<String> findEmailsByCompanyIdAndAuthority(@Param("companyId") Long companyId,
+			@Param("authority") String authority);
 }
\ No newline at end of file
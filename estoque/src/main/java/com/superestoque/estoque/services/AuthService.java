@@ -1,11 +1,15 @@
 package com.superestoque.estoque.services;
 
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.superestoque.estoque.entities.User;
 import com.superestoque.estoque.repositories.UserRepository;
@@ -16,23 +20,87 @@ public class AuthService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(AuthService.class);
 
+	public static final String USER_ID_CLAIM = "user_id";
+	public static final String COMPANY_ID_CLAIM = "company_id";
+
+	private static final String PRINCIPAL_ATTRIBUTE = AuthService.class.getName() + ".principal";
+	private static final String USER_ATTRIBUTE = AuthService.class.getName() + ".user";
+
 	private final UserRepository userRepository;
 
 	public AuthService(UserRepository userRepository) {
 		this.userRepository = userRepository;
 	}
 
+	/**
+	 * Usuário logado montado a partir das claims do token, sem acesso ao banco.
+	 * Tokens emitidos antes das claims {@code user_id}/{@code company_id} caem na
+	 * busca pelo e-mail.
+	 */
+	public AuthenticatedUser principal() {
+		return memoized(PRINCIPAL_ATTRIBUTE, () -> {
+			Jwt jwt = currentJwt();
+			Number userId = jwt.getClaim(USER_ID_CLAIM);
+			Number companyId = jwt.getClaim(COMPANY_ID_CLAIM);
+			if (userId != null && companyId != null) {
+				return new AuthenticatedUser(userId.longValue(), companyId.longValue(),
+						jwt.getClaimAsString("username"));
+			}
+			return AuthenticatedUser.of(authenticated());
+		});
+	}
+
+	/**
+	 * Entidade completa do usuário logado, carregada no máximo uma vez por
+	 * requisição. Use {@link #principal()} quando bastar o id do usuário ou da
+	 * empresa.
+	 */
 	public User authenticated() {
+		return memoized(USER_ATTRIBUTE, () -> {
+			String username = currentJwt().getClaimAsString("username");
+			User user = userRepository.findByEmail(username);
+			if (user == null) {
+				throw new UnauthorizedException("Usuário inválido");
+			}
+			LOG.info("Retornando usuário logado com o email {} com sucesso.", username);
+			return user;
+		});
+	}
+
+	/**
+	 * Descarta o usuário guardado na requisição atual, para que a próxima chamada
+	 * leia os dados alterados.
+	 */
+	public void invalidate() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.removeAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+			attributes.removeAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	private static Jwt currentJwt() {
 		try {
 			JwtAuthenticationToken jwtToken = (JwtAuthenticationToken) SecurityContextHolder.getContext()
 					.getAuthentication();
-			Jwt jwt = (Jwt) jwtToken.getPrincipal();
-			String username = jwt.getClaimAsString("username");
-			LOG.info("Retornando usuário logado com o email {} com sucesso.", username);
-			return userRepository.findByEmail(username);
+			return (Jwt) jwtToken.getPrincipal();
 		} catch (Exception e) {
 			throw new UnauthorizedException("Usuário inválido");
 		}
 	}
 
-}
\ No newline at end of file
+	@SuppressWarnings("unchecked")
+	private static <T> T memoized(String name, Supplier<T> loader) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return loader.get();
+		}
+		T value = (T) attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+		if (value == null) {
+			value = loader.get();
+			attributes.setAttribute(name, value, RequestAttributes.SCOPE_REQUEST);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.superestoque.estoque.services;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.superestoque.estoque.entities.User;
+
+/**
+ * Dados do usuário logado lidos do token de acesso. Basta para a maioria dos
+ * serviços, que só precisam do id da empresa para filtrar os dados.
+ */
+public final class AuthenticatedUser implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Long id;
+	private final Long companyId;
+	private final String username;
+
+	public AuthenticatedUser(Long id, Long companyId, String username) {
+		this.id = id;
+		this.companyId = companyId;
+		this.username = username;
+	}
+
+	public static AuthenticatedUser of(User user) {
+		return new AuthenticatedUser(user.getId(), user.getCompany().getId(), user.getEmail());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, companyId, username);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AuthenticatedUser other = (AuthenticatedUser) obj;
+		return Objects.equals(id, other.id) && Objects.equals(companyId, other.companyId)
+				&& Objects.equals(username, other.username);
+	}
+}
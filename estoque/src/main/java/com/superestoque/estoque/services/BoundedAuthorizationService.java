@@ -0,0 +1,175 @@
+package com.superestoque.estoque.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.security.oauth2.core.AbstractOAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Autorizações OAuth2 em memória com limite de tamanho. Cada autorização
+ * expira junto com o último token que ela guarda, ou depois de
+ * {@code defaultTtl} quando nenhum token tem validade. Além do limite, as
+ * menos usadas são descartadas. A busca por token usa um índice do valor do
+ * token para o id da autorização.
+ */
+public class BoundedAuthorizationService implements OAuth2AuthorizationService {
+
+	private static final List<Class<? extends AbstractOAuth2Token>> TOKEN_TYPES = List.of(
+			OAuth2AuthorizationCode.class, OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class,
+			OAuth2DeviceCode.class, OAuth2UserCode.class);
+
+	private final Cache<String, OAuth2Authorization> authorizations;
+
+	private final Map<String, String> tokenIndex = new ConcurrentHashMap<>();
+
+	private final Duration defaultTtl;
+
+	public BoundedAuthorizationService(long maximumSize, Duration defaultTtl) {
+		this(maximumSize, defaultTtl, Ticker.systemTicker(), ForkJoinPool.commonPool());
+	}
+
+	BoundedAuthorizationService(long maximumSize, Duration defaultTtl, Ticker ticker, Executor executor) {
+		this.defaultTtl = defaultTtl;
+		this.authorizations = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new TokenExpiry())
+				.ticker(ticker).executor(executor).removalListener(this::onRemoval).build();
+	}
+
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		Map<String, String> tokens = tokens(authorization);
+		tokens.keySet().forEach(token -> tokenIndex.put(token, authorization.getId()));
+		OAuth2Authorization previous = authorizations.asMap().put(authorization.getId(), authorization);
+		if (previous != null) {
+			tokens(previous).keySet().stream().filter(token -> !tokens.containsKey(token))
+					.forEach(token -> tokenIndex.remove(token, previous.getId()));
+		}
+	}
+
+	@Override
+	public void remove(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		authorizations.invalidate(authorization.getId());
+	}
+
+	@Override
+	public OAuth2Authorization findById(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		return authorizations.getIfPresent(id);
+	}
+
+	@Override
+	public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		String id = tokenIndex.get(token);
+		if (id == null) {
+			return null;
+		}
+		OAuth2Authorization authorization = authorizations.getIfPresent(id);
+		if (authorization == null) {
+			return null;
+		}
+		String type = tokens(authorization).get(token);
+		return type != null && (tokenType == null || tokenType.getValue().equals(type)) ? authorization : null;
+	}
+
+	long size() {
+		authorizations.cleanUp();
+		return authorizations.estimatedSize();
+	}
+
+	int indexedTokens() {
+		return tokenIndex.size();
+	}
+
+	private void onRemoval(String id, OAuth2Authorization authorization, RemovalCause cause) {
+		// na troca, save já cuidou do índice
+		if (authorization != null && cause != RemovalCause.REPLACED) {
+			tokens(authorization).keySet().forEach(token -> tokenIndex.remove(token, id));
+		}
+	}
+
+	/**
+	 * Valores dos tokens da autorização e o tipo de cada um, nos nomes usados
+	 * em {@link OAuth2TokenType}.
+	 */
+	private static Map<String, String> tokens(OAuth2Authorization authorization) {
+		Map<String, String> tokens = new HashMap<>();
+		String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+		if (state != null) {
+			tokens.put(state, OAuth2ParameterNames.STATE);
+		}
+		put(tokens, authorization.getToken(OAuth2AuthorizationCode.class), OAuth2ParameterNames.CODE);
+		put(tokens, authorization.getToken(OAuth2AccessToken.class), OAuth2TokenType.ACCESS_TOKEN.getValue());
+		put(tokens, authorization.getToken(OAuth2RefreshToken.class), OAuth2TokenType.REFRESH_TOKEN.getValue());
+		put(tokens, authorization.getToken(OidcIdToken.class), OidcParameterNames.ID_TOKEN);
+		put(tokens, authorization.getToken(OAuth2DeviceCode.class), OAuth2ParameterNames.DEVICE_CODE);
+		put(tokens, authorization.getToken(OAuth2UserCode.class), OAuth2ParameterNames.USER_CODE);
+		return tokens;
+	}
+
+	private static void put(Map<String, String> tokens, OAuth2Authorization.Token<?> token, String type) {
+		if (token != null) {
+			tokens.put(token.getToken().getTokenValue(), type);
+		}
+	}
+
+	private final class TokenExpiry implements Expiry<String, OAuth2Authorization> {
+
+		@Override
+		public long expireAfterCreate(String id, OAuth2Authorization authorization, long currentTime) {
+			return ttl(authorization);
+		}
+
+		@Override
+		public long expireAfterUpdate(String id, OAuth2Authorization authorization, long currentTime,
+				long currentDuration) {
+			return ttl(authorization);
+		}
+
+		@Override
+		public long expireAfterRead(String id, OAuth2Authorization authorization, long currentTime,
+				long currentDuration) {
+			return currentDuration;
+		}
+
+		private long ttl(OAuth2Authorization authorization) {
+			Instant expiresAt = null;
+			for (Class<? extends AbstractOAuth2Token> type : TOKEN_TYPES) {
+				OAuth2Authorization.Token<? extends AbstractOAuth2Token> token = authorization.getToken(type);
+				Instant tokenExpiresAt = token == null ? null : token.getToken().getExpiresAt();
+				if (tokenExpiresAt != null && (expiresAt == null || tokenExpiresAt.isAfter(expiresAt))) {
+					expiresAt = tokenExpiresAt;
+				}
+			}
+			if (expiresAt == null) {
+				return defaultTtl.toNanos();
+			}
+			return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+		}
+	}
+}
@@ -1,18 +1,22 @@
 package com.superestoque.estoque.services;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
+import com.superestoque.estoque.config.CacheConfig;
 import com.superestoque.estoque.entities.Category;
-import com.superestoque.estoque.entities.Company;
-import com.superestoque.estoque.entities.User;
 import com.superestoque.estoque.entities.dto.CategoryDTO;
-import com.superestoque.estoque.entities.dto.CompanyDTO;
 import com.superestoque.estoque.repositories.CategoryRepository;
 import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
 
@@ -23,6 +27,11 @@ public class CategoryService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CategoryService.class);
 
+	// as categorias ficam no cache por empresa do usuário logado
+	private static final String COMPANY_KEY = "@authService.principal().companyId";
+
+	private static final String CATEGORY_KEY = COMPANY_KEY + " + ':' + #id";
+
 	private final CategoryRepository repository;
 
 	private final AuthService authService;
@@ -36,39 +45,60 @@ public class CategoryService {
 	}
 
 	@Transactional
+	@Cacheable(cacheNames = CacheConfig.CATEGORIES, key = COMPANY_KEY)
 	public List<CategoryDTO> findAllCategory() {
-		User user = authService.authenticated();
-		List<Category> objs = repository.findByCompanyId(user.getCompany().getId());
-		List<CategoryDTO> entities = objs.stream().map(category -> new CategoryDTO(category))
-				.collect(Collectors.toList());
+		AuthenticatedUser user = authService.principal();
+		List<Category> objs = repository.findByCompanyId(user.getCompanyId());
+		List<CategoryDTO> entities = objs.stream().map(category -> new CategoryDTO(category)).toList();
 		return entities;
 	}
 
 	@Transactional
+	@Cacheable(cacheNames = CacheConfig.CATEGORY, key = CATEGORY_KEY)
 	public CategoryDTO findById(Long id) {
-		Optional<Category> obj = repository.findById(id);
+		Optional<Category> obj = repository.findByIdAndCompanyId(id, authService.principal().getCompanyId());
 		Category category = obj.orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada."));
 		LOG.info("Categoria {} retornado com sucesso.", category.getName());
 		return new CategoryDTO(category);
 	}
 
+	/**
+	 * Busca de uma vez as categorias informadas, todas da empresa do usuário
+	 * logado. Ids inexistentes ou de outra empresa são rejeitados juntos.
+	 */
+	@Transactional
+	public Set<Category> findAllOwnedById(Collection<Long> ids) {
+		Set<Long> distinctIds = new LinkedHashSet<>(ids);
+		Long companyId = authService.principal().getCompanyId();
+		List<Category> categories = repository.findByIdInAndCompanyId(distinctIds, companyId);
+		if (categories.size() < distinctIds.size()) {
+			Set<Long> found = categories.stream().map(Category::getId).collect(Collectors.toSet());
+			String missing = distinctIds.stream().filter(id -> !found.contains(id)).map(String::valueOf)
+					.collect(Collectors.joining(", "));
+			throw new ResourceNotFoundException("Categorias não encontradas: " + missing + ".");
+		}
+		return new LinkedHashSet<>(categories);
+	}
+
 	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = COMPANY_KEY)
 	public CategoryDTO insert(CategoryDTO dto) {
 		Category entity = new Category();
 		entity.setName(dto.getName());
-		CompanyDTO company = companyService.findById();
-		entity.setCompany(new Company(company));
+		entity.setCompany(companyService.getReference());
 		entity = repository.save(entity);
 		return new CategoryDTO(entity);
 	}
 
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = COMPANY_KEY),
+			@CacheEvict(cacheNames = CacheConfig.CATEGORY, key = CATEGORY_KEY) })
 	public void delete(Long id) {
 		if (!repository.existsById(id)) {
 			throw new ResourceNotFoundException("Produto não encontrado");
 		}
-		User entity = authService.authenticated();
+		AuthenticatedUser entity = authService.principal();
 		repository.deleteById(id);
-		LOG.info("Categoria deletada com sucesso pelo usuário {}", entity.getName());
+		LOG.info("Categoria deletada com sucesso pelo usuário {}", entity.getUsername());
 	}
 
 }
\ No newline at end of file
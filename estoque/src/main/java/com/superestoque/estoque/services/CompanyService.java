@@ -7,14 +7,20 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.superestoque.estoque.config.CacheConfig;
 import com.superestoque.estoque.entities.Company;
-import com.superestoque.estoque.entities.User;
 import com.superestoque.estoque.entities.dto.CompanyDTO;
 import com.superestoque.estoque.entities.dto.UserDTO;
+import com.superestoque.estoque.entities.dto.UserSummaryDTO;
 import com.superestoque.estoque.repositories.CompanyRepository;
+import com.superestoque.estoque.repositories.UserRepository;
 import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
 
 import jakarta.transaction.Transactional;
@@ -32,22 +38,51 @@ public class CompanyService {
 
 	private static final String ERROR_NOTFOUND_MESSAGE = "Empresa não encontrada";
 
-	public CompanyService(CompanyRepository repository, AuthService authService) {
+	private final ImageStorageService imageStorageService;
+
+	private final UserRepository userRepository;
+
+	public CompanyService(CompanyRepository repository, AuthService authService,
+			ImageStorageService imageStorageService, UserRepository userRepository) {
 		this.repository = repository;
 		this.authService = authService;
+		this.imageStorageService = imageStorageService;
+		this.userRepository = userRepository;
+	}
+
+	/**
+	 * Referência à empresa do usuário logado para ser usada em associações, sem
+	 * carregar a linha da empresa.
+	 */
+	public Company getReference() {
+		AuthenticatedUser user = authService.principal();
+		return repository.getReferenceById(user.getCompanyId());
 	}
 
 	@Transactional
+	@Cacheable(cacheNames = CacheConfig.COMPANY, key = "@authService.principal().companyId")
 	public CompanyDTO findById() {
-		User user = authService.authenticated();
-		LOG.info("Usuário {} buscando empresa com o id {} ", user.getUsername(), user.getCompany().getId());
-		Company entity = repository.findById(user.getCompany().getId())
+		AuthenticatedUser user = authService.principal();
+		LOG.info("Usuário {} buscando empresa com o id {} ", user.getUsername(), user.getCompanyId());
+		Company entity = repository.findById(user.getCompanyId())
 				.orElseThrow(() -> new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE));
 		LOG.info("Empresa retornada com sucesso {}", entity.getId());
 		return new CompanyDTO(entity);
 	}
 
 	@Transactional
+	public String findLogoHash() {
+		AuthenticatedUser user = authService.principal();
+		Company entity = repository.findById(user.getCompanyId())
+				.orElseThrow(() -> new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE));
+		if (entity.getPhotoHash() == null) {
+			throw new ResourceNotFoundException("Empresa sem logo.");
+		}
+		return entity.getPhotoHash();
+	}
+
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.COMPANY, key = "#id")
 	public CompanyDTO updateDataByUser(Long id, String name, MultipartFile photo) {
 		LOG.info("Tentando atualizar nome e foto da empresa {} ", id);
 		if (!ALLOWED_FILE_TYPES.contains(photo.getContentType())) {
@@ -63,12 +98,10 @@ public class CompanyService {
 
 	@Transactional
 	public List<UserDTO> findAllActiversUserByCompany() {
-		User authenticatedUser = authService.authenticated();
+		AuthenticatedUser authenticatedUser = authService.principal();
 		LOG.info("Usuário {} buscando usuários da empresa {}", authenticatedUser.getUsername(),
-				authenticatedUser.getCompany().getId());
-		Company entity = repository.findById(authenticatedUser.getCompany().getId())
-				.orElseThrow(() -> new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE));
-		List<UserDTO> entities = entity.getUsers().stream().filter(User::isStatus).map(UserDTO::new).toList();
+				authenticatedUser.getCompanyId());
+		List<UserDTO> entities = findUsersByStatus(authenticatedUser.getCompanyId(), true);
 
 		LOG.info("Usuários retornados com sucesso.");
 		return entities;
@@ -76,22 +109,39 @@ public class CompanyService {
 
 	@Transactional
 	public List<UserDTO> findAllDesactiversUserByCompany() {
-		User authenticatedUser = authService.authenticated();
+		AuthenticatedUser authenticatedUser = authService.principal();
 		LOG.info("Usuário {} buscando usuários da empresa {}", authenticatedUser.getUsername(),
-				authenticatedUser.getCompany().getId());
-		Company entity = repository.findById(authenticatedUser.getCompany().getId())
-				.orElseThrow(() -> new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE));
-		List<UserDTO> entities = entity.getUsers().stream().filter(x -> !x.isStatus()).map(UserDTO::new).toList();
+				authenticatedUser.getCompanyId());
+		List<UserDTO> entities = findUsersByStatus(authenticatedUser.getCompanyId(), false);
 
 		LOG.info("Usuários retornados com sucesso.");
 		return entities;
 	}
 
+	@Transactional
+	public Page<UserSummaryDTO> findUsersByCompanyPaged(boolean status, String name, String role, Pageable pageable) {
+		AuthenticatedUser authenticatedUser = authService.principal();
+		Long companyId = authenticatedUser.getCompanyId();
+		LOG.info("Usuário {} buscando usuários da empresa {} com status {}", authenticatedUser.getUsername(), companyId,
+				status);
+		String authority = role == null || role.isBlank() ? null
+				: role.toUpperCase().startsWith("ROLE_") ? role.toUpperCase() : "ROLE_" + role.toUpperCase();
+		String filter = name == null || name.isBlank() ? null : name;
+		return userRepository.findSummariesByCompanyId(companyId, status, filter, authority, pageable);
+	}
+
+	private List<UserDTO> findUsersByStatus(Long companyId, boolean status) {
+		if (!repository.existsById(companyId)) {
+			throw new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE);
+		}
+		return userRepository.findByCompanyIdAndStatus(companyId, status).stream().map(UserDTO::new).toList();
+	}
+
 	private void updateData(Company company, String name, MultipartFile photo) {
 		company.setName(name);
 		LOG.info("Atualizado nome da empresa");
 		try {
-			company.setPhoto(photo.getBytes());
+			company.setPhotoHash(imageStorageService.storeUpload(photo.getBytes()));
 			LOG.info("Atualizado foto da empresa com sucesso!");
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Erro ao atualizar a foto.");
@@ -0,0 +1,139 @@
+package com.superestoque.estoque.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+
+/**
+ * Estado em memória por empresa, mantido pelos eventos de produto, usado pelo
+ * painel e pelo estoque crítico. A empresa é carregada no primeiro acesso e
+ * recarregada em {@link #reconcile()}. Os eventos que chegam durante a recarga
+ * são guardados e, na troca, aplicados ao estado novo só os que a leitura não
+ * viu, comparando a versão do evento com a de cada produto lida na mesma
+ * transação.
+ */
+final class CompanyStateCache<S> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CompanyStateCache.class);
+
+	static final String PRODUCT_VERSIONS = "SELECT p.id, " + StockShardService.STOCK_VERSION
+			+ " AS version FROM tb_product p WHERE p.company_id = ?";
+
+	private final Map<Long, S> states = new ConcurrentHashMap<>();
+
+	// eventos recebidos enquanto a empresa é recarregada, acessados dentro do
+	// compute da empresa em states
+	private final Map<Long, List<ProductChangedEvent>> reconciling = new ConcurrentHashMap<>();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate readOnly;
+
+	private final String description;
+
+	private final Function<Long, S> loader;
+
+	private final BiConsumer<S, ProductChangedEvent> applier;
+
+	/**
+	 * {@code loader} roda dentro de uma transação de leitura; {@code applier}
+	 * aplica um evento ao estado e é chamado com a empresa bloqueada.
+	 */
+	CompanyStateCache(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, String description,
+			Function<Long, S> loader, BiConsumer<S, ProductChangedEvent> applier) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.readOnly.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.description = description;
+		this.loader = loader;
+		this.applier = applier;
+	}
+
+	S get(Long companyId) {
+		return states.computeIfAbsent(companyId, id -> load(id, new HashMap<>()));
+	}
+
+	/**
+	 * Empresas que ainda não foram carregadas são ignoradas; o primeiro acesso
+	 * já lê o estado atual do banco.
+	 */
+	void apply(ProductChangedEvent event) {
+		states.computeIfPresent(event.getCompanyId(), (companyId, state) -> {
+			applier.accept(state, event);
+			List<ProductChangedEvent> buffer = reconciling.get(companyId);
+			if (buffer != null) {
+				buffer.add(event);
+			}
+			return state;
+		});
+	}
+
+	void reconcile() {
+		for (Long companyId : states.keySet()) {
+			states.computeIfPresent(companyId, (id, state) -> {
+				reconciling.put(id, new ArrayList<>());
+				return state;
+			});
+			try {
+				Map<Long, Long> versions = new HashMap<>();
+				S reloaded = load(companyId, versions);
+				states.computeIfPresent(companyId, (id, state) -> {
+					replay(reloaded, versions, reconciling.remove(id));
+					return reloaded;
+				});
+			} catch (RuntimeException e) {
+				LOG.error("Erro ao reconciliar {} da empresa {}", description, companyId, e);
+			} finally {
+				reconciling.remove(companyId);
+			}
+		}
+	}
+
+	private S load(Long companyId, Map<Long, Long> versions) {
+		return readOnly.execute(status -> {
+			S state = loader.apply(companyId);
+			jdbcTemplate.query(PRODUCT_VERSIONS, rs -> {
+				versions.put(rs.getLong("id"), rs.getLong("version"));
+			}, companyId);
+			return state;
+		});
+	}
+
+	/**
+	 * Um produto lido entra se o evento tem versão mais nova ou é a remoção; um
+	 * produto ausente da leitura só entra se foi criado depois dela. A ordem de
+	 * chegada não importa, cada evento leva só a sua diferença.
+	 */
+	private void replay(S state, Map<Long, Long> versions, List<ProductChangedEvent> events) {
+		Set<Long> created = new HashSet<>();
+		for (ProductChangedEvent event : events) {
+			if (event.getBefore() == null && !versions.containsKey(event.getProductId())) {
+				created.add(event.getProductId());
+			}
+		}
+		for (ProductChangedEvent event : events) {
+			Long seen = versions.get(event.getProductId());
+			boolean unseen = seen == null ? created.contains(event.getProductId())
+					: event.getAfter() == null || event.getAfter().getVersion() > seen;
+			if (unseen) {
+				applier.accept(state, event);
+			}
+		}
+	}
+}
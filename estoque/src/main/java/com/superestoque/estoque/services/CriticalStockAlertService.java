@@ -0,0 +1,172 @@
+package com.superestoque.estoque.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+/**
+ * Junta os alertas de estoque crítico em um resumo por empresa. O alerta é
+ * gravado em {@code tb_critical_stock_alert} na transação da alteração do
+ * produto; o resumo é montado do banco, e cada instância toma posse dos alertas
+ * pendentes com {@code SKIP LOCKED} e grava o e-mail na fila de saída na mesma
+ * transação que marca o envio. Cada produto entra no máximo uma vez por janela
+ * de {@code stock.alerts.window-ms}, com o estado do momento do resumo; um
+ * produto que sai do estoque crítico antes do envio fica de fora.
+ */
+@Service
+public class CriticalStockAlertService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CriticalStockAlertService.class);
+
+	private static final String MARK_PENDING = "UPDATE tb_critical_stock_alert SET pending = TRUE WHERE product_id = ? "
+			+ "AND pending = FALSE AND (alerted_at IS NULL OR alerted_at < ?)";
+
+	private static final String EXISTS = "SELECT COUNT(*) FROM tb_critical_stock_alert WHERE product_id = ?";
+
+	private static final String INSERT_PENDING = "INSERT INTO tb_critical_stock_alert (product_id, company_id, pending) "
+			+ "VALUES (?, ?, TRUE)";
+
+	private static final String UNMARK = "UPDATE tb_critical_stock_alert SET pending = FALSE "
+			+ "WHERE product_id = ? AND pending = TRUE";
+
+	// sem ORDER BY, como na fila de e-mails: com ordenação o banco bloqueia
+	// todas as linhas lidas antes do LIMIT
+	private static final String CLAIM = "SELECT product_id FROM tb_critical_stock_alert WHERE pending = TRUE "
+			+ "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+	private static final String SELECT_PRODUCTS = "SELECT p.id, p.company_id, p.name, p.photo_hash, "
+			+ StockShardService.TOTAL_QUANTITY + " AS quantity, p.critical_quantity FROM tb_product p WHERE p.id IN (";
+
+	private static final String MARK_ALERTED = "UPDATE tb_critical_stock_alert SET pending = FALSE, alerted_at = ? "
+			+ "WHERE product_id = ?";
+
+	private static final String PURGE = "DELETE FROM tb_critical_stock_alert WHERE pending = FALSE "
+			+ "AND (alerted_at IS NULL OR alerted_at < ?)";
+
+	private static final Comparator<ProductSnapshot> LARGEST_DEFICIT_FIRST = Comparator
+			.comparingInt((ProductSnapshot product) -> product.getCriticalQuantity() - product.getQuantity())
+			.reversed();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final EmailOutboxService outboxService;
+
+	private final long windowMs;
+
+	private final int batchSize;
+
+	public CriticalStockAlertService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			EmailOutboxService outboxService, @Value("${stock.alerts.window-ms:3600000}") long windowMs,
+			@Value("${stock.alerts.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.outboxService = outboxService;
+		this.windowMs = windowMs;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Roda na transação de quem publicou o evento. Só produtos que estão ou
+	 * estavam críticos tocam a tabela.
+	 */
+	@EventListener
+	public void onProductChanged(ProductChangedEvent event) {
+		ProductSnapshot before = event.getBefore();
+		ProductSnapshot after = event.getAfter();
+		if (after != null && after.isCritical()) {
+			markPending(event.getProductId(), event.getCompanyId());
+		} else if (before != null && before.isCritical()) {
+			jdbcTemplate.update(UNMARK, event.getProductId());
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${stock.alerts.digest-ms:300000}", initialDelayString = "${stock.alerts.digest-ms:300000}")
+	public void sendDigests() {
+		try {
+			int claimed;
+			do {
+				claimed = transactionTemplate.execute(status -> sendBatch());
+			} while (claimed == batchSize);
+			jdbcTemplate.update(PURGE, windowStart());
+		} catch (RuntimeException e) {
+			LOG.error("Erro ao gravar os resumos de estoque crítico, alertas mantidos para o próximo ciclo", e);
+		}
+	}
+
+	private void markPending(Long productId, Long companyId) {
+		if (jdbcTemplate.update(MARK_PENDING, productId, windowStart()) > 0
+				|| jdbcTemplate.queryForObject(EXISTS, Integer.class, productId) > 0) {
+			return;
+		}
+		try {
+			jdbcTemplate.update(INSERT_PENDING, productId, companyId);
+		} catch (DuplicateKeyException e) {
+			// outra transação criou o alerta do produto primeiro
+		}
+	}
+
+	private int sendBatch() {
+		List<Long> ids = jdbcTemplate.queryForList(CLAIM, Long.class, batchSize);
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		Map<Long, List<ProductSnapshot>> digests = new HashMap<>();
+		String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+		jdbcTemplate.query(SELECT_PRODUCTS + placeholders + ")", rs -> {
+			ProductSnapshot product = new ProductSnapshot(rs.getLong("id"), rs.getLong("company_id"),
+					rs.getString("name"), rs.getString("photo_hash"), rs.getInt("quantity"),
+					rs.getInt("critical_quantity"), null, null, Set.of());
+			if (product.isCritical()) {
+				digests.computeIfAbsent(product.getCompanyId(), companyId -> new ArrayList<>()).add(product);
+			}
+		}, ids.toArray());
+
+		Timestamp now = Timestamp.from(Instant.now());
+		Set<Long> alerted = new HashSet<>();
+		List<Object[]> stamps = new ArrayList<>();
+		digests.forEach((companyId, products) -> {
+			products.sort(LARGEST_DEFICIT_FIRST);
+			outboxService.enqueueCriticalStockDigest(companyId, products);
+			for (ProductSnapshot product : products) {
+				alerted.add(product.getId());
+				stamps.add(new Object[] { now, product.getId() });
+			}
+		});
+		jdbcTemplate.batchUpdate(MARK_ALERTED, stamps);
+		// removidos ou fora do estoque crítico: saem sem envio
+		List<Object[]> dropped = ids.stream().filter(id -> !alerted.contains(id)).map(id -> new Object[] { id })
+				.toList();
+		jdbcTemplate.batchUpdate(UNMARK, dropped);
+		if (!digests.isEmpty()) {
+			LOG.info("{} resumos de estoque crítico gravados na fila de envio", digests.size());
+		}
+		return ids.size();
+	}
+
+	private Timestamp windowStart() {
+		return Timestamp.from(Instant.now().minusMillis(windowMs));
+	}
+}
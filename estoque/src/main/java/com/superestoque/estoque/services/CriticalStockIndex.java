@@ -0,0 +1,132 @@
+package com.superestoque.estoque.services;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.superestoque.estoque.entities.dto.CriticalProductDTO;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+/**
+ * Produtos no estoque crítico de cada empresa, ordenados pelo quanto faltam
+ * para a quantidade crítica. Como o painel, cada empresa é carregada no
+ * primeiro acesso, acompanha os eventos de produto e é recarregada
+ * periodicamente ({@link CompanyStateCache}). Eventos com versão do produto
+ * mais antiga que a já aplicada são ignorados.
+ */
+@Service
+public class CriticalStockIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CriticalStockIndex.class);
+
+	static final int MAX_LIMIT = 100;
+
+	static final String CRITICAL_PRODUCTS = "SELECT t.id, t.name, t.quantity, t.critical_quantity, t.version FROM ("
+			+ "SELECT p.id, p.name, p.critical_quantity, " + StockShardService.STOCK_VERSION + " AS version, "
+			+ StockShardService.TOTAL_QUANTITY
+			+ " AS quantity FROM tb_product p WHERE p.company_id = ?) t WHERE t.quantity <= t.critical_quantity";
+
+	private static final Comparator<CriticalProductDTO> ORDER = Comparator
+			.comparingInt(CriticalProductDTO::getShortage).reversed().thenComparing(CriticalProductDTO::getId);
+
+	private final CompanyStateCache<CompanyIndex> indexes;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final AuthService authService;
+
+	public CriticalStockIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			AuthService authService) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.indexes = new CompanyStateCache<>(jdbcTemplate, transactionManager, "o estoque crítico", this::load,
+				CompanyIndex::apply);
+		this.authService = authService;
+	}
+
+	/**
+	 * Os {@code limit} produtos mais abaixo da quantidade crítica na empresa do
+	 * usuário.
+	 */
+	public List<CriticalProductDTO> top(int limit) {
+		Long companyId = authService.principal().getCompanyId();
+		int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+		return indexes.get(companyId).ordered.stream().limit(size).toList();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		indexes.apply(event);
+	}
+
+	@Scheduled(fixedDelayString = "${critical-stock.reconcile-ms:600000}", initialDelayString = "${critical-stock.reconcile-ms:600000}")
+	public void reconcile() {
+		indexes.reconcile();
+	}
+
+	private CompanyIndex load(Long companyId) {
+		CompanyIndex index = new CompanyIndex();
+		jdbcTemplate.query(CRITICAL_PRODUCTS, rs -> {
+			long productId = rs.getLong("id");
+			index.update(productId, rs.getLong("version"), new CriticalProductDTO(productId, rs.getString("name"),
+					rs.getInt("quantity"), rs.getInt("critical_quantity")));
+		}, companyId);
+		LOG.info("Estoque crítico da empresa {} carregado do banco: {} produtos", companyId, index.byId.size());
+		return index;
+	}
+
+	/**
+	 * O mapa guarda a entrada atual de cada produto para que a antiga possa ser
+	 * achada no conjunto ordenado, e {@code versions} a última versão aplicada
+	 * de cada produto visto desde a carga, crítico ou não. As escritas são
+	 * serializadas; as leituras percorrem o conjunto sem bloqueio.
+	 */
+	private static final class CompanyIndex {
+
+		private final NavigableSet<CriticalProductDTO> ordered = new ConcurrentSkipListSet<>(ORDER);
+		private final Map<Long, CriticalProductDTO> byId = new ConcurrentHashMap<>();
+		private final Map<Long, Long> versions = new HashMap<>();
+
+		private void apply(ProductChangedEvent event) {
+			ProductSnapshot after = event.getAfter();
+			if (after == null) {
+				// removido: nenhum evento anterior traz o produto de volta
+				update(event.getProductId(), Long.MAX_VALUE, null);
+			} else {
+				update(after.getId(), after.getVersion(), after.isCritical() ? new CriticalProductDTO(after.getId(),
+						after.getName(), after.getQuantity(), after.getCriticalQuantity()) : null);
+			}
+		}
+
+		/**
+		 * Substitui a entrada do produto, ou remove quando {@code entry} é nulo,
+		 * se {@code version} não for mais antiga que a última aplicada.
+		 */
+		private synchronized void update(Long productId, long version, CriticalProductDTO entry) {
+			Long applied = versions.get(productId);
+			if (applied != null && applied > version) {
+				return;
+			}
+			versions.put(productId, version);
+			CriticalProductDTO previous = entry == null ? byId.remove(productId) : byId.put(productId, entry);
+			if (previous != null) {
+				ordered.remove(previous);
+			}
+			if (entry != null) {
+				ordered.add(entry);
+			}
+		}
+	}
+}
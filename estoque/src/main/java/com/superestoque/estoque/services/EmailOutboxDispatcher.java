@@ -0,0 +1,165 @@
+package com.superestoque.estoque.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+import com.superestoque.estoque.repositories.OutboxEmailRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Esvazia a tabela de saída de e-mails. Cada rodada toma posse de um lote com
+ * {@code SKIP LOCKED}, então várias instâncias dividem o trabalho sem enviar o
+ * mesmo e-mail duas vezes, e entrega o lote ao executor de e-mails sem esperar
+ * os envios, para não prender a thread de agendamento. Nunca há mais de um
+ * lote em andamento. Falhas voltam para a fila com espera exponencial até
+ * {@code email.outbox.max-attempts}.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+	private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+	private final AtomicLong pending = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final OutboxEmailRepository repository;
+
+	private final EmailOutboxService outboxService;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final Executor emailExecutor;
+
+	private final Counter sent;
+	private final Counter retried;
+	private final Counter exhausted;
+
+	private final int batchSize;
+
+	private final int maxAttempts;
+
+	private final Duration backoff;
+
+	private final Duration lease;
+
+	public EmailOutboxDispatcher(OutboxEmailRepository repository, EmailOutboxService outboxService,
+			PlatformTransactionManager transactionManager, @Qualifier("emailExecutor") Executor emailExecutor,
+			MeterRegistry meterRegistry, @Value("${email.outbox.batch-size:20}") int batchSize,
+			@Value("${email.outbox.max-attempts:8}") int maxAttempts,
+			@Value("${email.outbox.backoff-ms:5000}") long backoffMs,
+			@Value("${email.outbox.lease-ms:300000}") long leaseMs) {
+		this.repository = repository;
+		this.outboxService = outboxService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.emailExecutor = emailExecutor;
+		this.batchSize = batchSize;
+		this.maxAttempts = maxAttempts;
+		this.backoff = Duration.ofMillis(backoffMs);
+		this.lease = Duration.ofMillis(leaseMs);
+		Gauge.builder("email.outbox.depth", pending, AtomicLong::get).tag("status", "pending").register(meterRegistry);
+		Gauge.builder("email.outbox.depth", failed, AtomicLong::get).tag("status", "failed").register(meterRegistry);
+		sent = Counter.builder("email.outbox.deliveries").tag("result", "sent").register(meterRegistry);
+		retried = Counter.builder("email.outbox.deliveries").tag("result", "retry").register(meterRegistry);
+		exhausted = Counter.builder("email.outbox.deliveries").tag("result", "failed").register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${email.outbox.poll-ms:1000}")
+	public void dispatch() {
+		int capacity = batchSize - inFlight.get();
+		if (capacity > 0) {
+			List<OutboxEmail> claimed = claim(capacity);
+			claimed.forEach(this::submit);
+			if (!claimed.isEmpty()) {
+				LOG.info("{} e-mails encaminhados para envio", claimed.size());
+			}
+		}
+		pending.set(repository.countByStatus(OutboxStatus.PENDING));
+		failed.set(repository.countByStatus(OutboxStatus.FAILED));
+	}
+
+	List<OutboxEmail> claim(int limit) {
+		return transactionTemplate.execute(status -> {
+			Instant now = Instant.now();
+			List<OutboxEmail> emails = repository.findClaimable(now, limit);
+			emails.forEach(email -> email.setLockedUntil(now.plus(lease)));
+			return emails;
+		});
+	}
+
+	private void submit(OutboxEmail email) {
+		inFlight.incrementAndGet();
+		try {
+			emailExecutor.execute(() -> {
+				try {
+					deliver(email);
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// devolve sem contar tentativa; a próxima rodada pega de novo
+			inFlight.decrementAndGet();
+			email.setLockedUntil(null);
+			repository.save(email);
+			LOG.warn("Executor de e-mails cheio, e-mail {} {} devolvido para a fila", email.getType(), email.getId());
+		}
+	}
+
+	void deliver(OutboxEmail email) {
+		try {
+			outboxService.deliver(email);
+			repository.deleteById(email.getId());
+			sent.increment();
+		} catch (Exception e) {
+			reschedule(email, e);
+		}
+	}
+
+	private void reschedule(OutboxEmail email, Exception error) {
+		int attempts = email.getAttempts() + 1;
+		email.setAttempts(attempts);
+		email.setLockedUntil(null);
+		String message = String.valueOf(error.getMessage());
+		email.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+		if (attempts >= maxAttempts) {
+			email.setStatus(OutboxStatus.FAILED);
+			exhausted.increment();
+			LOG.error("E-mail {} {} descartado após {} tentativas: {}", email.getType(), email.getId(), attempts,
+					message);
+		} else {
+			email.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+			retried.increment();
+			LOG.warn("Falha ao enviar o e-mail {} {} (tentativa {}): {}", email.getType(), email.getId(), attempts,
+					message);
+		}
+		repository.save(email);
+	}
+
+	private Duration backoff(int attempts) {
+		Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+		return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+	}
+}
@@ -0,0 +1,97 @@
+package com.superestoque.estoque.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.entities.enums.EmailType;
+import com.superestoque.estoque.repositories.OutboxEmailRepository;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+import jakarta.mail.MessagingException;
+import jakarta.transaction.Transactional;
+
+/**
+ * Grava os e-mails na tabela de saída, na transação de quem chama, e monta o
+ * envio a partir da linha gravada. Quem envia é o
+ * {@link EmailOutboxDispatcher}.
+ */
+@Service
+public class EmailOutboxService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EmailOutboxService.class);
+
+	private final OutboxEmailRepository repository;
+
+	private final EmailService emailService;
+
+	private final ObjectMapper objectMapper;
+
+	public EmailOutboxService(OutboxEmailRepository repository, EmailService emailService,
+			ObjectMapper objectMapper) {
+		this.repository = repository;
+		this.emailService = emailService;
+		this.objectMapper = objectMapper;
+	}
+
+	@Transactional
+	public void enqueuePasswordReset(User user, String token) {
+		ObjectNode payload = objectMapper.createObjectNode();
+		payload.put("name", user.getName());
+		payload.put("email", user.getEmail());
+		payload.put("token", token);
+		enqueue(EmailType.PASSWORD_RESET, payload);
+	}
+
+	@Transactional
+	public void enqueueCriticalStockDigest(Long companyId, List<ProductSnapshot> products) {
+		ObjectNode payload = objectMapper.createObjectNode();
+		payload.put("companyId", companyId);
+		ArrayNode items = payload.putArray("products");
+		for (ProductSnapshot product : products) {
+			items.addObject().put("id", product.getId()).put("name", product.getName())
+					.put("photoHash", product.getPhotoHash()).put("quantity", product.getQuantity())
+					.put("criticalQuantity", product.getCriticalQuantity());
+		}
+		enqueue(EmailType.CRITICAL_STOCK_DIGEST, payload);
+	}
+
+	/**
+	 * Envia o e-mail da linha. Qualquer exceção deixa a linha para uma nova
+	 * tentativa.
+	 */
+	public void deliver(OutboxEmail email) throws MessagingException, JsonProcessingException {
+		JsonNode payload = objectMapper.readTree(email.getPayload());
+		switch (email.getType()) {
+		case PASSWORD_RESET -> emailService.sendPasswordResetEmail(payload.get("name").asText(),
+				payload.get("email").asText(), payload.get("token").asText());
+		case CRITICAL_STOCK_DIGEST -> {
+			Long companyId = payload.get("companyId").asLong();
+			List<ProductSnapshot> products = new ArrayList<>();
+			for (JsonNode item : payload.get("products")) {
+				products.add(new ProductSnapshot(item.get("id").asLong(), companyId, item.get("name").asText(),
+						item.get("photoHash").isNull() ? null : item.get("photoHash").asText(),
+						item.get("quantity").asInt(), item.get("criticalQuantity").asInt(), null, null, Set.of()));
+			}
+			emailService.sendCriticalStockDigest(companyId, products);
+		}
+		}
+	}
+
+	private void enqueue(EmailType type, ObjectNode payload) {
+		OutboxEmail email = repository.save(new OutboxEmail(type, payload.toString(), Instant.now()));
+		LOG.info("E-mail {} {} gravado na fila de envio", type, email.getId());
+	}
+}
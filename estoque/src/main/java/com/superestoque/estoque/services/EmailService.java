@@ -1,19 +1,22 @@
 package com.superestoque.estoque.services;
 
-import java.util.Base64;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import com.superestoque.estoque.entities.Product;
-import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.events.ProductSnapshot;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
 @Service
@@ -21,166 +24,105 @@ public class EmailService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(EmailService.class);
 
+	private static final int THUMBNAIL_SIZE = 64;
+
+	private final EmailTemplate criticalStockDigest = EmailTemplate.page("critical-stock-digest.html");
+
+	private final EmailTemplate criticalStockRow = EmailTemplate.fragment("critical-stock-row.html");
+
+	private final EmailTemplate passwordReset = EmailTemplate.page("password-reset.html");
+
 	private final JavaMailSender javaMailSender;
 
-	public EmailService(JavaMailSender javaMailSender) {
+	private final ImageStorageService imageStorageService;
+
+	private final ThumbnailService thumbnailService;
+
+	private final UserRepository userRepository;
+
+	public EmailService(JavaMailSender javaMailSender, ImageStorageService imageStorageService,
+			ThumbnailService thumbnailService, UserRepository userRepository) {
 		this.javaMailSender = javaMailSender;
+		this.imageStorageService = imageStorageService;
+		this.thumbnailService = thumbnailService;
+		this.userRepository = userRepository;
 	}
 
-	@Async("taskExecutor")
-	public void sendEmailProduct(Product product) {
-		try {
-			Set<String> adminEmails = product.getCompany().getUsers().stream()
-					.filter(user -> user.getRoles().stream()
-							.anyMatch(role -> role.getAuthority().equalsIgnoreCase("ROLE_ADMIN")))
-					.map(User::getEmail).collect(Collectors.toSet());
-
-			String[] recipients = adminEmails.toArray(new String[0]);
-
-			String productDetails = """
-					<h2>Atenção!</h2>
-					<p>O produto <strong>%s</strong> entrou em quantidade crítica no estoque.</p>
-					<p><strong>Quantidade Atual:</strong> %d</p>
-					<p><strong>Quantidade Crítica:</strong> %d</p>
-					<p><strong>Descrição:</strong> %s</p>
-					<div class="product-image">
-					    <img src="data:image/png;base64,%s" alt="Imagem do Produto">
-					</div>
-					<a href="http://137.131.180.24" class="button">Ver Estoque</a>
-					""".formatted(product.getName(), product.getQuantity(), product.getCritical_quantity(),
-					product.getDescription(), Base64.getEncoder().encodeToString(product.getPhoto()));
-
-			String htmlContent = getEmailTemplate("Produto em Quantidade Crítica", productDetails);
-
-			MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-			helper.setTo(recipients);
-			helper.setSubject("Produto com quantidade crítica");
-			helper.setText(htmlContent, true);
-
-			javaMailSender.send(mimeMessage);
-			LOG.info("E-mail enviado com sucesso");
-		} catch (Exception e) {
-			LOG.error("Erro ao tentar enviar email {}", e.getLocalizedMessage());
+	/**
+	 * Um único e-mail por empresa com todos os produtos em estoque crítico
+	 * acumulados desde o último resumo. As miniaturas vão como partes
+	 * {@code cid:} da mensagem, uma por foto.
+	 */
+	public void sendCriticalStockDigest(Long companyId, List<ProductSnapshot> products) throws MessagingException {
+		String[] recipients = userRepository.findEmailsByCompanyIdAndAuthority(companyId, "ROLE_ADMIN").stream()
+				.distinct().toArray(String[]::new);
+		if (recipients.length == 0) {
+			LOG.warn("Empresa {} sem administradores para receber o resumo de estoque crítico", companyId);
+			return;
 		}
-	}
 
-	@Async("taskExecutor")
-	public void sendPasswordResetEmail(User user, String token) {
-		try {
-			String resetLink = "https://superestoque.me/newPass?token=" + token;
-
-			String resetDetails = """
-					<p>Olá, %s!</p>
-					<p>Recebemos um pedido para redefinir sua senha.</p>
-					<p>Se você não solicitou essa alteração, por favor ignore este e-mail.</p>
-					<p>Caso contrário, clique no link abaixo para redefinir sua senha:</p>
-					<a href="%s" class="button">Redefinir Senha</a>
-					<p>Este link expira em 15 minutos.</p>
-					""".formatted(user.getName(), resetLink);
-
-			String htmlContent = getEmailTemplate("Redefinição de Senha", resetDetails);
-
-			MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-			helper.setTo(user.getEmail());
-			helper.setSubject("Redefinição de Senha");
-			helper.setText(htmlContent, true);
-
-			javaMailSender.send(mimeMessage);
-			LOG.info("E-mail de redefinição de senha enviado para {}", user.getEmail());
-		} catch (Exception e) {
-			LOG.error("Erro ao enviar e-mail de redefinição de senha", e);
+		Map<String, Path> images = new LinkedHashMap<>();
+		StringBuilder rows = new StringBuilder(products.size() * 200);
+		for (ProductSnapshot product : products) {
+			criticalStockRow.render(rows, Map.of("image", productThumbnail(product, images), "name", product.getName(),
+					"quantity", product.getQuantity(), "criticalQuantity", product.getCriticalQuantity()));
+		}
+		String htmlContent = criticalStockDigest
+				.render(Map.of("title", "Produtos em Quantidade Crítica", "count", products.size(), "rows", rows));
+
+		MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+		helper.setTo(recipients);
+		helper.setSubject("Produtos com quantidade crítica");
+		helper.setText(htmlContent, true);
+		for (Map.Entry<String, Path> image : images.entrySet()) {
+			helper.addInline(image.getKey(), new FileSystemResource(image.getValue()), "image/jpeg");
 		}
+
+		javaMailSender.send(mimeMessage);
+		LOG.info("Resumo de estoque crítico com {} produtos enviado para a empresa {}", products.size(), companyId);
+	}
+
+	public void sendPasswordResetEmail(String name, String email, String token) throws MessagingException {
+		String resetLink = "https://superestoque.me/newPass?token=" + token;
+
+		String htmlContent = passwordReset
+				.render(Map.of("title", "Redefinição de Senha", "name", name, "link", resetLink));
+
+		MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+		helper.setTo(email);
+		helper.setSubject("Redefinição de Senha");
+		helper.setText(htmlContent, true);
+
+		javaMailSender.send(mimeMessage);
+		LOG.info("E-mail de redefinição de senha enviado para {}", email);
 	}
 
-	private String getEmailTemplate(String title, String bodyContent) {
-		return """
-				<!DOCTYPE html>
-				<html lang="pt-br">
-				<head>
-				<meta charset="UTF-8">
-				<meta name="viewport" content="width=device-width, initial-scale=1.0">
-				<style>
-				    body {
-				        font-family: 'Arial', sans-serif;
-				        margin: 0;
-				        padding: 0;
-				        background-color: #eaf4fc;
-				    }
-				    .email-container {
-				        background-color: #ffffff;
-				        margin: 20px auto;
-				        max-width: 600px;
-				        border-radius: 8px;
-				        box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);
-				        overflow: hidden;
-				    }
-
-				    .header {
-				        background-color: #408bd6;
-				        color: #ffffff;
-				        padding: 20px;
-				        text-align: center;
-				    }
-				    .header h1 {
-				        font-size: 24px;
-				        margin: 0;
-				    }
-
-				    .content {
-				        padding: 20px;
-				        color: #333333;
-				    }
-				    .content h2 {
-				        font-size: 20px;
-				        margin-top: 0;
-				    }
-				    .content p {
-				        margin: 10px 0;
-				        font-size: 16px;
-				    }
-
-				    .button {
-				        display: inline-block;
-				        margin: 20px auto;
-				        background-color: #408bd6;
-				        color: #ffffff;
-				        text-decoration: none;
-				        padding: 10px 20px;
-				        border-radius: 5px;
-				        font-size: 16px;
-				        text-align: center;
-				    }
-				    .button:hover {
-				        background-color: #3072b3;
-				    }
-
-				    .footer {
-				        text-align: center;
-				        font-size: 12px;
-				        color: #777777;
-				        margin: 20px 0;
-				        padding-bottom: 10px;
-				    }
-				</style>
-				</head>
-				<body>
-				    <div class="email-container">
-				        <div class="header">
-				            <h1>%s</h1>
-				        </div>
-				        <div class="content">
-				            %s
-				        </div>
-				        <div class="footer">
-				            <p>Gerenciador de Estoque e Pedidos</p>
-				            <p>Agilidade e precisão no seu estoque</p>
-				        </div>
-				    </div>
-				</body>
-				</html>
-				""".formatted(title, bodyContent);
+	/**
+	 * Referência {@code cid:} para a miniatura da foto. Produtos com a mesma
+	 * foto usam a mesma parte da mensagem.
+	 */
+	private String productThumbnail(ProductSnapshot product, Map<String, Path> images) {
+		String hash = product.getPhotoHash();
+		if (hash == null) {
+			return "";
+		}
+		String contentId = "img-" + hash;
+		if (!images.containsKey(contentId)) {
+			try {
+				thumbnailService.createRenditions(hash);
+				Optional<Path> rendition = imageStorageService.findRendition(hash, THUMBNAIL_SIZE);
+				if (rendition.isEmpty()) {
+					return "";
+				}
+				images.put(contentId, rendition.get());
+			} catch (RuntimeException e) {
+				LOG.warn("Miniatura da imagem {} indisponível para o e-mail", hash);
+				return "";
+			}
+		}
+		return "<img src=\"cid:%s\" width=\"%d\" alt=\"Imagem do Produto\">".formatted(contentId, THUMBNAIL_SIZE);
 	}
 
-}
\ No newline at end of file
+}
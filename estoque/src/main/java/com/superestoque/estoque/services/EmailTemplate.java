@@ -0,0 +1,131 @@
+package com.superestoque.estoque.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Template de e-mail lido do classpath e dividido em trechos fixos e variáveis
+ * uma única vez. {@code {{nome}}} recebe o valor escapado para HTML e
+ * {@code {{{nome}}}} recebe o valor sem alteração, para conteúdo já montado.
+ */
+final class EmailTemplate {
+
+	private static final String PATH = "templates/email/";
+	private static final String LAYOUT = "layout.html";
+	private static final String CONTENT = "{{{content}}}";
+
+	// espaço reservado para cada valor que não é texto já montado
+	private static final int VALUE_ESTIMATE = 32;
+
+	private final String[] literals;
+	private final String[] names;
+	private final boolean[] escaped;
+	private final int literalLength;
+
+	private EmailTemplate(String[] literals, String[] names, boolean[] escaped) {
+		this.literals = literals;
+		this.names = names;
+		this.escaped = escaped;
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.literalLength = length;
+	}
+
+	/**
+	 * Página completa: o conteúdo de {@code name} entra no lugar de
+	 * {@code {{{content}}}} do layout antes da compilação.
+	 */
+	static EmailTemplate page(String name) {
+		return compile(read(LAYOUT).replace(CONTENT, read(name)));
+	}
+
+	static EmailTemplate fragment(String name) {
+		return compile(read(name));
+	}
+
+	static EmailTemplate compile(String source) {
+		List<String> literals = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		List<Boolean> escaped = new ArrayList<>();
+		int position = 0;
+		int start;
+		while ((start = source.indexOf("{{", position)) >= 0) {
+			boolean raw = source.startsWith("{{{", start);
+			String close = raw ? "}}}" : "}}";
+			int nameStart = start + (raw ? 3 : 2);
+			int end = source.indexOf(close, nameStart);
+			if (end < 0) {
+				throw new IllegalArgumentException("Variável sem fechamento no template, posição " + start);
+			}
+			literals.add(source.substring(position, start));
+			names.add(source.substring(nameStart, end).trim());
+			escaped.add(!raw);
+			position = end + close.length();
+		}
+		literals.add(source.substring(position));
+
+		boolean[] escapedArray = new boolean[escaped.size()];
+		for (int i = 0; i < escapedArray.length; i++) {
+			escapedArray[i] = escaped.get(i);
+		}
+		return new EmailTemplate(literals.toArray(String[]::new), names.toArray(String[]::new), escapedArray);
+	}
+
+	/**
+	 * Monta o template em um buffer já do tamanho do resultado: os trechos
+	 * fixos mais o texto já montado, como as linhas do resumo. Com threads
+	 * virtuais cada envio roda em uma thread nova, então um buffer por thread
+	 * não seria reaproveitado.
+	 */
+	String render(Map<String, ?> values) {
+		int capacity = literalLength;
+		for (int i = 0; i < names.length; i++) {
+			capacity += !escaped[i] && values.get(names[i]) instanceof CharSequence sequence ? sequence.length()
+					: VALUE_ESTIMATE;
+		}
+		StringBuilder out = new StringBuilder(capacity);
+		render(out, values);
+		return out.toString();
+	}
+
+	/**
+	 * Monta o template no buffer de quem chama, para trechos repetidos.
+	 */
+	void render(StringBuilder out, Map<String, ?> values) {
+		for (int i = 0; i < names.length; i++) {
+			out.append(literals[i]);
+			Object value = values.get(names[i]);
+			if (value == null) {
+				throw new IllegalArgumentException("Valor ausente para a variável " + names[i] + " do template");
+			}
+			if (escaped[i]) {
+				out.append(HtmlUtils.htmlEscape(value.toString(), "UTF-8"));
+			} else if (value instanceof CharSequence sequence) {
+				out.append(sequence);
+			} else {
+				out.append(value);
+			}
+		}
+		out.append(literals[names.length]);
+	}
+
+	private static String read(String name) {
+		try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream(PATH + name)) {
+			if (in == null) {
+				throw new IllegalStateException("Template de e-mail não encontrado: " + name);
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
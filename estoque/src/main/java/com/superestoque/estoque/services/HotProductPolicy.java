@@ -0,0 +1,105 @@
+package com.superestoque.estoque.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockMovementRepository;
+
+/**
+ * Decide quais produtos usam estoque em faixas. A cada janela conta, no livro
+ * de movimentações, os lançamentos de cada produto feitos por todas as
+ * instâncias: acima de {@code stock.shards.hot-threshold} o produto é
+ * dividido; um produto dividido que fica abaixo de um quarto desse limite
+ * volta ao modo normal. Como a contagem é a mesma em todas, uma instância não
+ * desfaz o que outra acabou de decidir. Desligado, não conta nada.
+ */
+@Component
+public class HotProductPolicy {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HotProductPolicy.class);
+
+	private static final int CHUNK = 1000;
+
+	// produtos movimentados por esta instância na janela, candidatos a dividir
+	private volatile Set<Long> writes = ConcurrentHashMap.newKeySet();
+
+	private final StockShardService shardService;
+
+	private final ProductRepository productRepository;
+
+	private final StockMovementRepository movementRepository;
+
+	private final int hotThreshold;
+
+	private final int shards;
+
+	private final long windowMs;
+
+	private final boolean enabled;
+
+	public HotProductPolicy(StockShardService shardService, ProductRepository productRepository,
+			StockMovementRepository movementRepository, @Value("${stock.shards.hot-threshold:600}") int hotThreshold,
+			@Value("${stock.shards.count:8}") int shards, @Value("${stock.shards.window-ms:60000}") long windowMs,
+			@Value("${stock.shards.enabled:false}") boolean enabled) {
+		this.shardService = shardService;
+		this.productRepository = productRepository;
+		this.movementRepository = movementRepository;
+		this.hotThreshold = hotThreshold;
+		this.shards = shards;
+		this.windowMs = windowMs;
+		this.enabled = enabled;
+	}
+
+	public void record(Long productId) {
+		if (!enabled) {
+			return;
+		}
+		writes.add(productId);
+	}
+
+	@Scheduled(fixedDelayString = "${stock.shards.window-ms:60000}", initialDelayString = "${stock.shards.window-ms:60000}")
+	public void evaluate() {
+		if (!enabled) {
+			return;
+		}
+		Set<Long> window = writes;
+		writes = ConcurrentHashMap.newKeySet();
+		Instant since = Instant.now().minusMillis(windowMs);
+		try {
+			for (Long productId : busy(window, since, hotThreshold)) {
+				shardService.shard(productId, shards);
+			}
+			List<Long> sharded = productRepository.findShardedIds();
+			Set<Long> active = busy(sharded, since, hotThreshold / 4);
+			for (Long productId : sharded) {
+				if (!active.contains(productId)) {
+					shardService.consolidate(productId);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOG.error("Erro ao avaliar os produtos com estoque em faixas", e);
+		}
+	}
+
+	private Set<Long> busy(Collection<Long> productIds, Instant since, long minimum) {
+		Set<Long> busy = new HashSet<>();
+		List<Long> ids = new ArrayList<>(productIds);
+		for (int i = 0; i < ids.size(); i += CHUNK) {
+			busy.addAll(movementRepository.findBusyProductIds(ids.subList(i, Math.min(i + CHUNK, ids.size())), since,
+					minimum));
+		}
+		return busy;
+	}
+}
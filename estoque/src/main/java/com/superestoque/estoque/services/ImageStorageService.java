@@ -0,0 +1,228 @@
+package com.superestoque.estoque.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+/**
+ * Armazena imagens em disco endereçadas pelo SHA-256 do conteúdo. Imagens
+ * iguais enviadas por produtos ou empresas diferentes ocupam um único arquivo.
+ */
+@Service
+public class ImageStorageService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ImageStorageService.class);
+
+	private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+	private final Path root;
+
+	private final long maxPixels;
+
+	public ImageStorageService(@Value("${storage.images.dir}") String directory,
+			@Value("${storage.images.max-pixels:40000000}") long maxPixels) {
+		this.root = Paths.get(directory).toAbsolutePath().normalize();
+		this.maxPixels = maxPixels;
+	}
+
+	/**
+	 * Imagem enviada por um usuário: recusa dimensões acima do limite antes de
+	 * gravar, já que as miniaturas decodificam a imagem inteira em memória.
+	 */
+	public String storeUpload(byte[] content) {
+		checkDimensions(content);
+		return store(content);
+	}
+
+	/**
+	 * Confere largura e altura pelo cabeçalho, sem decodificar a imagem.
+	 * Conteúdo em formato desconhecido passa; só não ganha miniaturas.
+	 */
+	public void checkDimensions(byte[] content) {
+		try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) {
+				return;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+					throw new ValidMultiFormDataException("Imagem com dimensões acima do permitido.");
+				}
+			} finally {
+				reader.dispose();
+			}
+		} catch (IOException e) {
+			throw new ValidMultiFormDataException("Imagem inválida.");
+		}
+	}
+
+	public String store(byte[] content) {
+		String hash = sha256(content);
+		Path target = resolve(hash);
+		if (Files.exists(target)) {
+			LOG.info("Imagem {} já armazenada, reaproveitando arquivo existente", hash);
+			return hash;
+		}
+		write(target, content);
+		LOG.info("Imagem {} armazenada com {} bytes", hash, content.length);
+		return hash;
+	}
+
+	public void storeRendition(String hash, int size, byte[] content) {
+		write(resolveRendition(hash, size), content);
+		LOG.info("Miniatura {}px da imagem {} armazenada com {} bytes", size, hash, content.length);
+	}
+
+	/**
+	 * Marca a imagem como sem miniaturas possíveis (recusada ou em formato não
+	 * suportado), para que o conteúdo não seja lido de novo a cada acesso.
+	 */
+	public void markUnrenderable(String hash) {
+		write(resolveUnrenderable(hash), new byte[0]);
+		LOG.info("Imagem {} marcada como sem miniaturas", hash);
+	}
+
+	public boolean isUnrenderable(String hash) {
+		return isValid(hash) && Files.exists(resolveUnrenderable(hash));
+	}
+
+	public Optional<Path> find(String hash) {
+		if (!isValid(hash)) {
+			return Optional.empty();
+		}
+		Path path = resolve(hash);
+		return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+	}
+
+	public Optional<Path> findRendition(String hash, int size) {
+		if (!isValid(hash)) {
+			return Optional.empty();
+		}
+		Path path = resolveRendition(hash, size);
+		return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+	}
+
+	public byte[] read(String hash) {
+		Path path = find(hash).orElseThrow(() -> new ResourceNotFoundException("Imagem não encontrada."));
+		try {
+			return Files.readAllBytes(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao ler imagem " + hash, e);
+		}
+	}
+
+	public String contentType(Path path) {
+		byte[] header = new byte[12];
+		int read;
+		try (InputStream in = Files.newInputStream(path)) {
+			read = in.readNBytes(header, 0, header.length);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao ler imagem " + path.getFileName(), e);
+		}
+		if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+			return "image/png";
+		}
+		if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+			return "image/jpeg";
+		}
+		if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F') {
+			return "image/gif";
+		}
+		if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+				&& header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+			return "image/webp";
+		}
+		return "application/octet-stream";
+	}
+
+	/**
+	 * URL pública e imutável da imagem; o conteúdo nunca muda para um mesmo hash.
+	 */
+	public static String url(String hash) {
+		return hash == null ? null : "/images/" + hash;
+	}
+
+	public static String url(String hash, int size) {
+		return hash == null ? null : "/images/" + hash + "?size=" + size;
+	}
+
+	static String sha256(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isValid(String hash) {
+		return hash != null && HASH_PATTERN.matcher(hash).matches();
+	}
+
+	private Path resolve(String hash) {
+		return root.resolve(hash.substring(0, 2)).resolve(hash);
+	}
+
+	private Path resolveRendition(String hash, int size) {
+		return root.resolve(hash.substring(0, 2)).resolve(hash + "-" + size + ".jpg");
+	}
+
+	private Path resolveUnrenderable(String hash) {
+		return root.resolve(hash.substring(0, 2)).resolve(hash + ".norendition");
+	}
+
+	private static void write(Path target, byte[] content) {
+		try {
+			Files.createDirectories(target.getParent());
+			Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+			try {
+				Files.write(temp, content);
+				moveIntoPlace(temp, target);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao armazenar imagem " + target.getFileName(), e);
+		}
+	}
+
+	private static void moveIntoPlace(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (FileAlreadyExistsException e) {
+			// outra requisição gravou o mesmo conteúdo primeiro
+		} catch (AtomicMoveNotSupportedException e) {
+			try {
+				Files.move(temp, target);
+			} catch (FileAlreadyExistsException ignored) {
+				// outra requisição gravou o mesmo conteúdo primeiro
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.superestoque.estoque.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.superestoque.estoque.entities.dto.CategoryValueDTO;
+import com.superestoque.estoque.entities.dto.InventoryDashboardDTO;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+/**
+ * Indicadores do estoque por empresa mantidos em memória. Cada empresa é
+ * carregada do banco no primeiro acesso e depois só recebe as diferenças dos
+ * eventos de produto, então a consulta não depende do tamanho do catálogo. Uma
+ * reconciliação periódica recarrega os agregados e corrige desvios, sem contar
+ * de novo os eventos que a recarga já viu ({@link CompanyStateCache}).
+ */
+@Service
+public class InventoryDashboardService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(InventoryDashboardService.class);
+
+	// valor do estoque de cada produto, somando as faixas dos produtos divididos
+	private static final String PRODUCT_VALUES = "SELECT p.id, p.critical_quantity, " + StockShardService.TOTAL_QUANTITY
+			+ " AS quantity, CASE WHEN p.stock_shards = 0 THEN p.stock_value ELSE p.unit_value * ("
+			+ StockShardService.TOTAL_QUANTITY + ") END AS stock_value FROM tb_product p WHERE p.company_id = ?";
+
+	static final String TOTALS = "SELECT COUNT(*) AS products, "
+			+ "COALESCE(SUM(CASE WHEN t.quantity <= t.critical_quantity THEN 1 ELSE 0 END), 0) AS critical, "
+			+ "COALESCE(SUM(t.stock_value), 0) AS stock_value FROM (" + PRODUCT_VALUES + ") t";
+
+	static final String CATEGORY_VALUES = "SELECT pc.category_id, COALESCE(SUM(t.stock_value), 0) AS stock_value FROM ("
+			+ PRODUCT_VALUES + ") t JOIN tb_product_category pc ON pc.product_id = t.id GROUP BY pc.category_id";
+
+	private final CompanyStateCache<CompanyAggregate> aggregates;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final AuthService authService;
+
+	private final CategoryService categoryService;
+
+	public InventoryDashboardService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			AuthService authService, CategoryService categoryService) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.aggregates = new CompanyStateCache<>(jdbcTemplate, transactionManager, "os indicadores do estoque",
+				this::load, CompanyAggregate::apply);
+		this.authService = authService;
+		this.categoryService = categoryService;
+	}
+
+	public InventoryDashboardDTO dashboard() {
+		Long companyId = authService.principal().getCompanyId();
+		CompanyAggregate aggregate = aggregates.get(companyId);
+		List<CategoryValueDTO> categories = categoryService.findAllCategory().stream()
+				.map(category -> new CategoryValueDTO(category.getId(), category.getName(),
+						fromCents(aggregate.categoryValue(category.getId()))))
+				.toList();
+		return new InventoryDashboardDTO(fromCents(aggregate.stockValue.sum()), aggregate.products.sum(),
+				aggregate.critical.sum(), categories);
+	}
+
+	/**
+	 * Aplica a diferença entre o estado anterior e o novo do produto.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		aggregates.apply(event);
+	}
+
+	@Scheduled(fixedDelayString = "${dashboard.reconcile-ms:600000}", initialDelayString = "${dashboard.reconcile-ms:600000}")
+	public void reconcile() {
+		aggregates.reconcile();
+	}
+
+	// os totais e os valores por categoria vêm da mesma transação de leitura
+	private CompanyAggregate load(Long companyId) {
+		CompanyAggregate aggregate = new CompanyAggregate();
+		Map<String, Object> totals = jdbcTemplate.queryForMap(TOTALS, companyId);
+		aggregate.products.add(((Number) totals.get("products")).longValue());
+		aggregate.critical.add(((Number) totals.get("critical")).longValue());
+		aggregate.stockValue.add(toCents((BigDecimal) totals.get("stock_value")));
+		for (Map<String, Object> row : jdbcTemplate.queryForList(CATEGORY_VALUES, companyId)) {
+			aggregate.categoryAdder(((Number) row.get("category_id")).longValue())
+					.add(toCents((BigDecimal) row.get("stock_value")));
+		}
+		LOG.info("Indicadores do estoque da empresa {} carregados do banco", companyId);
+		return aggregate;
+	}
+
+	private static long toCents(BigDecimal value) {
+		return value == null ? 0 : value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+	}
+
+	private static BigDecimal fromCents(long cents) {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	private static final class CompanyAggregate {
+
+		private final LongAdder products = new LongAdder();
+		private final LongAdder critical = new LongAdder();
+		private final LongAdder stockValue = new LongAdder();
+		private final Map<Long, LongAdder> categories = new ConcurrentHashMap<>();
+
+		private void apply(ProductChangedEvent event) {
+			apply(event.getBefore(), -1);
+			apply(event.getAfter(), 1);
+		}
+
+		private void apply(ProductSnapshot snapshot, int sign) {
+			if (snapshot == null) {
+				return;
+			}
+			long value = toCents(snapshot.getStockValue());
+			products.add(sign);
+			if (snapshot.isCritical()) {
+				critical.add(sign);
+			}
+			stockValue.add(sign * value);
+			snapshot.getCategoryIds().forEach(categoryId -> categoryAdder(categoryId).add(sign * value));
+		}
+
+		private LongAdder categoryAdder(Long categoryId) {
+			return categories.computeIfAbsent(categoryId, id -> new LongAdder());
+		}
+
+		private long categoryValue(Long categoryId) {
+			LongAdder adder = categories.get(categoryId);
+			return adder == null ? 0 : adder.sum();
+		}
+	}
+}
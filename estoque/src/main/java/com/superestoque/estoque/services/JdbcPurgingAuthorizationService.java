@@ -0,0 +1,121 @@
+package com.superestoque.estoque.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Autorizações OAuth2 no banco, compartilhadas entre as instâncias. As linhas
+ * em que todos os tokens já venceram são removidas periodicamente, em lotes,
+ * para não segurar a tabela por muito tempo.
+ */
+public class JdbcPurgingAuthorizationService extends JdbcOAuth2AuthorizationService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(JdbcPurgingAuthorizationService.class);
+
+	private static final String SCHEMA = "org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql";
+
+	private static final String EXPIRES_INDEX = "CREATE INDEX idx_oauth2_authorization_access_expires "
+			+ "ON oauth2_authorization (access_token_expires_at)";
+
+	static final String SELECT_EXPIRED = "SELECT id FROM oauth2_authorization "
+			+ "WHERE (access_token_expires_at IS NULL OR access_token_expires_at < ?) "
+			+ "AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?) "
+			+ "AND (authorization_code_expires_at IS NULL OR authorization_code_expires_at < ?) LIMIT ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final int batchSize;
+
+	public JdbcPurgingAuthorizationService(JdbcTemplate jdbcTemplate,
+			RegisteredClientRepository registeredClientRepository, int batchSize) {
+		super(jdbcTemplate, registeredClientRepository);
+		this.jdbcTemplate = jdbcTemplate;
+		this.batchSize = batchSize;
+		OAuth2AuthorizationRowMapper rowMapper = new OAuth2AuthorizationRowMapper(registeredClientRepository);
+		rowMapper.setObjectMapper(objectMapper());
+		setAuthorizationRowMapper(rowMapper);
+	}
+
+	/**
+	 * Grava sem o principal do cliente, que leva os dados do usuário e não
+	 * passa pela allowlist do Jackson do Spring Security na leitura. O fluxo de
+	 * senha não usa esse atributo depois do login.
+	 */
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		super.save(OAuth2Authorization.from(authorization)
+				.attributes(attributes -> attributes.remove(Principal.class.getName())).build());
+	}
+
+	// ids de usuário e empresa vão como Long nas claims do token
+	private static ObjectMapper objectMapper() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModules(
+				SecurityJackson2Modules.getModules(JdbcPurgingAuthorizationService.class.getClassLoader()));
+		objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+		objectMapper.addMixIn(Long.class, ClaimValueMixin.class);
+		return objectMapper;
+	}
+
+	/**
+	 * Cria a tabela com o script do Spring Authorization Server quando ela
+	 * ainda não existe; ela não é uma entidade JPA.
+	 */
+	public void createTableIfMissing() {
+		try {
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization WHERE 1 = 0", Integer.class);
+		} catch (DataAccessException e) {
+			new ResourceDatabasePopulator(new ClassPathResource(SCHEMA),
+					new ByteArrayResource(EXPIRES_INDEX.getBytes(StandardCharsets.UTF_8)))
+					.execute(jdbcTemplate.getDataSource());
+			LOG.info("Tabela oauth2_authorization criada");
+		}
+	}
+
+	/**
+	 * Remove as autorizações vencidas, {@code batchSize} por vez, até não
+	 * sobrar nenhuma. Retorna quantas foram removidas.
+	 */
+	@Scheduled(fixedDelayString = "${security.authorizations.purge-ms:60000}", initialDelayString = "${security.authorizations.purge-ms:60000}")
+	public int purgeExpired() {
+		Timestamp now = Timestamp.from(Instant.now());
+		int removed = 0;
+		List<String> ids;
+		do {
+			ids = jdbcTemplate.queryForList(SELECT_EXPIRED, String.class, now, now, now, batchSize);
+			if (!ids.isEmpty()) {
+				jdbcTemplate.batchUpdate("DELETE FROM oauth2_authorization WHERE id = ?",
+						ids.stream().map(id -> new Object[] { id }).toList());
+				removed += ids.size();
+			}
+		} while (ids.size() == batchSize);
+		if (removed > 0) {
+			LOG.info("{} autorizações vencidas removidas", removed);
+		}
+		return removed;
+	}
+
+	@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+	private abstract static class ClaimValueMixin {
+	}
+}
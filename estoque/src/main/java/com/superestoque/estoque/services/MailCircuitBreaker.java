@@ -0,0 +1,81 @@
+package com.superestoque.estoque.services;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Disjuntor do servidor SMTP. Depois de {@code threshold} falhas de conexão
+ * seguidas, recusa os envios por {@code openMs}; passado esse tempo, deixa uma
+ * única tentativa passar e volta ao normal se ela der certo. Quem recebe a
+ * permissão chama {@link #release()} ao terminar, para que uma tentativa sem
+ * resultado de conexão não prenda o disjuntor meio aberto.
+ */
+class MailCircuitBreaker {
+
+	enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int threshold;
+	private final long openMs;
+	private final LongSupplier clock;
+
+	private State state = State.CLOSED;
+	private int failures;
+	private long openedAt;
+	private boolean trialInFlight;
+	private Thread trialOwner;
+
+	MailCircuitBreaker(int threshold, long openMs, LongSupplier clock) {
+		this.threshold = threshold;
+		this.openMs = openMs;
+		this.clock = clock;
+	}
+
+	synchronized boolean allowRequest() {
+		if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+			state = State.HALF_OPEN;
+			trialInFlight = false;
+		}
+		if (state == State.HALF_OPEN) {
+			if (trialInFlight) {
+				return false;
+			}
+			trialInFlight = true;
+			trialOwner = Thread.currentThread();
+			return true;
+		}
+		return state == State.CLOSED;
+	}
+
+	synchronized void recordSuccess() {
+		state = State.CLOSED;
+		failures = 0;
+		trialInFlight = false;
+		trialOwner = null;
+	}
+
+	synchronized void recordFailure() {
+		failures++;
+		if (state == State.HALF_OPEN || failures >= threshold) {
+			state = State.OPEN;
+			openedAt = clock.getAsLong();
+			trialInFlight = false;
+			trialOwner = null;
+		}
+	}
+
+	/**
+	 * Fim do envio que pediu a permissão, na mesma thread. Se era a tentativa e
+	 * ela terminou sem sucesso nem falha de conexão, libera a próxima.
+	 */
+	synchronized void release() {
+		if (trialOwner == Thread.currentThread()) {
+			trialInFlight = false;
+			trialOwner = null;
+		}
+	}
+
+	synchronized State getState() {
+		return state;
+	}
+}
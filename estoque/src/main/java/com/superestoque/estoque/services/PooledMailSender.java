@@ -0,0 +1,270 @@
+package com.superestoque.estoque.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Envia os e-mails por um conjunto fixo de sessões SMTP que ficam abertas e
+ * autenticadas entre um envio e outro. As mensagens entram numa fila; cada
+ * sessão tem uma thread que retira até {@code batchSize} mensagens de uma vez
+ * e as envia pela mesma conexão. Quem chama espera o resultado da sua
+ * mensagem; se o tempo acabar antes de uma sessão pegá-la, a mensagem é
+ * retirada e não sai mais, e o atraso conta como falha para o disjuntor. Com o
+ * disjuntor aberto o envio falha na hora, sem ocupar a fila.
+ */
+public class PooledMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PooledMailSender.class);
+
+	private final BlockingQueue<PendingMessage> queue;
+
+	private final MailCircuitBreaker circuitBreaker;
+
+	private final int poolSize;
+
+	private final int batchSize;
+
+	private final long idleMs;
+
+	private final long sendTimeoutMs;
+
+	private final List<Thread> workers = new ArrayList<>();
+
+	private volatile boolean running = true;
+
+	public PooledMailSender(int poolSize, int batchSize, int queueCapacity, long idleMs, long sendTimeoutMs,
+			int failureThreshold, long openMs) {
+		this.poolSize = poolSize;
+		this.batchSize = batchSize;
+		this.idleMs = idleMs;
+		this.sendTimeoutMs = sendTimeoutMs;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.circuitBreaker = new MailCircuitBreaker(failureThreshold, openMs, System::currentTimeMillis);
+	}
+
+	@Override
+	protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+		if (!circuitBreaker.allowRequest()) {
+			throw new MailSendException("Servidor de e-mail indisponível, envio suspenso temporariamente.");
+		}
+		try {
+			send(mimeMessages, originalMessages);
+		} finally {
+			circuitBreaker.release();
+		}
+	}
+
+	private void send(MimeMessage[] mimeMessages, Object[] originalMessages) {
+		startWorkers();
+		Map<Object, PendingMessage> pendingMessages = new LinkedHashMap<>();
+		for (int i = 0; i < mimeMessages.length; i++) {
+			PendingMessage pending = new PendingMessage(mimeMessages[i]);
+			if (!queue.offer(pending)) {
+				pending.result.completeExceptionally(new MessagingException("Fila de envio de e-mails cheia."));
+			}
+			pendingMessages.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], pending);
+		}
+		Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+		long deadline = System.currentTimeMillis() + sendTimeoutMs;
+		boolean timedOut = false;
+		for (Map.Entry<Object, PendingMessage> entry : pendingMessages.entrySet()) {
+			Exception failure = await(entry.getValue(), deadline);
+			if (failure != null) {
+				failedMessages.put(entry.getKey(), failure);
+				timedOut |= failure instanceof SendTimeoutException;
+			}
+		}
+		if (timedOut) {
+			circuitBreaker.recordFailure();
+		}
+		if (!failedMessages.isEmpty()) {
+			throw new MailSendException(failedMessages);
+		}
+	}
+
+	/**
+	 * Espera o resultado até {@code deadline}. Esgotado o prazo, tira a
+	 * mensagem da fila; se uma sessão já está enviando, espera essa tentativa,
+	 * limitada pelos tempos da conexão SMTP.
+	 */
+	private Exception await(PendingMessage pending, long deadline) {
+		try {
+			try {
+				pending.result.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				return null;
+			} catch (TimeoutException e) {
+				if (pending.claim()) {
+					queue.remove(pending);
+					return new SendTimeoutException();
+				}
+			}
+			pending.result.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+			return null;
+		} catch (ExecutionException e) {
+			return (Exception) e.getCause();
+		} catch (TimeoutException e) {
+			return new SendTimeoutException();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return e;
+		}
+	}
+
+	MailCircuitBreaker.State getCircuitState() {
+		return circuitBreaker.getState();
+	}
+
+	@Override
+	public void destroy() {
+		running = false;
+		synchronized (workers) {
+			workers.forEach(Thread::interrupt);
+		}
+	}
+
+	private void startWorkers() {
+		synchronized (workers) {
+			while (workers.size() < poolSize && running) {
+				Thread worker = new Thread(this::work, "SmtpSession-" + workers.size());
+				worker.setDaemon(true);
+				worker.start();
+				workers.add(worker);
+			}
+		}
+	}
+
+	/**
+	 * Laço de uma sessão. A conexão é aberta no primeiro lote e fechada depois
+	 * de {@code idleMs} sem mensagens, antes que o servidor a derrube.
+	 */
+	private void work() {
+		Transport transport = null;
+		try {
+			while (running) {
+				PendingMessage first = queue.poll(idleMs, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					transport = close(transport);
+					continue;
+				}
+				List<PendingMessage> batch = new ArrayList<>(batchSize);
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				transport = sendBatch(transport, batch);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			close(transport);
+		}
+	}
+
+	private Transport sendBatch(Transport transport, List<PendingMessage> batch) {
+		try {
+			if (transport == null || !transport.isConnected()) {
+				close(transport);
+				transport = connectTransport();
+			}
+		} catch (MessagingException e) {
+			LOG.error("Não foi possível conectar ao servidor de e-mail: {}", e.getMessage());
+			circuitBreaker.recordFailure();
+			batch.forEach(pending -> pending.result.completeExceptionally(e));
+			return null;
+		}
+		for (int i = 0; i < batch.size(); i++) {
+			PendingMessage pending = batch.get(i);
+			if (!pending.claim()) {
+				// quem enviou desistiu por tempo
+				continue;
+			}
+			try {
+				send(transport, pending.message);
+				pending.result.complete(null);
+				circuitBreaker.recordSuccess();
+			} catch (SendFailedException e) {
+				// destinatário recusado; a conexão continua boa
+				pending.result.completeExceptionally(e);
+			} catch (MessagingException e) {
+				LOG.error("Conexão com o servidor de e-mail perdida: {}", e.getMessage());
+				circuitBreaker.recordFailure();
+				batch.subList(i, batch.size()).forEach(failed -> failed.result.completeExceptionally(e));
+				return close(transport);
+			}
+		}
+		LOG.info("Lote de {} e-mails enviado pela sessão {}", batch.size(), Thread.currentThread().getName());
+		return transport;
+	}
+
+	private static void send(Transport transport, MimeMessage message) throws MessagingException {
+		if (message.getSentDate() == null) {
+			message.setSentDate(new Date());
+		}
+		String messageId = message.getMessageID();
+		message.saveChanges();
+		if (messageId != null) {
+			message.setHeader("Message-ID", messageId);
+		}
+		Address[] addresses = message.getAllRecipients();
+		transport.sendMessage(message, addresses != null ? addresses : new Address[0]);
+	}
+
+	private static Transport close(Transport transport) {
+		if (transport != null) {
+			try {
+				transport.close();
+			} catch (MessagingException e) {
+				LOG.warn("Erro ao fechar a conexão com o servidor de e-mail: {}", e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A sessão e quem espera disputam a mensagem: quem chegar primeiro decide
+	 * se ela é enviada ou abandonada.
+	 */
+	private static final class PendingMessage {
+
+		private final MimeMessage message;
+		private final CompletableFuture<Void> result = new CompletableFuture<>();
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private PendingMessage(MimeMessage message) {
+			this.message = message;
+		}
+
+		private boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+	}
+
+	private static final class SendTimeoutException extends MessagingException {
+
+		private static final long serialVersionUID = 1L;
+
+		private SendTimeoutException() {
+			super("Tempo esgotado aguardando o envio.");
+		}
+	}
+}
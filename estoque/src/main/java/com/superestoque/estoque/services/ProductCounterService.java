@@ -0,0 +1,123 @@
+package com.superestoque.estoque.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.superestoque.estoque.repositories.ProductRepository;
+
+@Service
+public class ProductCounterService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProductCounterService.class);
+
+	private final ProductRepository repository;
+
+	private final Duration ttl;
+
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+	public ProductCounterService(ProductRepository repository,
+			@Value("${products.counter.ttl-seconds:300}") long ttlSeconds) {
+		this.repository = repository;
+		this.ttl = Duration.ofSeconds(ttlSeconds);
+	}
+
+	public long countByCompany(Long companyId) {
+		return get(key(companyId, null), () -> repository.countByCompanyId(companyId));
+	}
+
+	public long countByCompanyAndCategory(Long companyId, Long categoryId) {
+		if (categoryId == null) {
+			return countByCompany(companyId);
+		}
+		return get(key(companyId, categoryId),
+				() -> repository.countByCompanyIdAndCategoryId(companyId, categoryId));
+	}
+
+	public void productCreated(Long companyId, Collection<Long> categoryIds) {
+		afterCommit(() -> {
+			add(key(companyId, null), 1);
+			categoryIds.forEach(categoryId -> add(key(companyId, categoryId), 1));
+		});
+	}
+
+	public void productsCreated(Long companyId, long count, Map<Long, Long> perCategory) {
+		afterCommit(() -> {
+			add(key(companyId, null), count);
+			perCategory.forEach((categoryId, delta) -> add(key(companyId, categoryId), delta));
+		});
+	}
+
+	public void productDeleted(Long companyId, Collection<Long> categoryIds) {
+		afterCommit(() -> {
+			add(key(companyId, null), -1);
+			categoryIds.forEach(categoryId -> add(key(companyId, categoryId), -1));
+		});
+	}
+
+	public void categoriesChanged(Long companyId, Collection<Long> removed, Collection<Long> added) {
+		afterCommit(() -> {
+			removed.forEach(categoryId -> add(key(companyId, categoryId), -1));
+			added.forEach(categoryId -> add(key(companyId, categoryId), 1));
+		});
+	}
+
+	private long get(String key, LongSupplier loader) {
+		Counter counter = counters.get(key);
+		if (counter == null || counter.isExpired(ttl)) {
+			counter = new Counter(loader.getAsLong());
+			counters.put(key, counter);
+			LOG.info("Contador de produtos {} recarregado do banco com {} itens", key, counter.value.get());
+		}
+		return counter.value.get();
+	}
+
+	private void add(String key, long delta) {
+		Counter counter = counters.get(key);
+		if (counter != null) {
+			counter.value.addAndGet(delta);
+		}
+	}
+
+	private static String key(Long companyId, Long categoryId) {
+		return categoryId == null ? companyId + ":*" : companyId + ":" + categoryId;
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	private static final class Counter {
+
+		private final AtomicLong value;
+		private final long loadedAt = System.nanoTime();
+
+		private Counter(long value) {
+			this.value = new AtomicLong(value);
+		}
+
+		private boolean isExpired(Duration ttl) {
+			return System.nanoTime() - loadedAt > ttl.toNanos();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.superestoque.estoque.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+/**
+ * Posição opaca da paginação por cursor, formada pelo par (nome, id) do último
+ * produto entregue. O cliente só repassa o token recebido em {@code nextCursor}.
+ */
+final class ProductCursor {
+
+	private static final String SEPARATOR = ":";
+
+	private final Long id;
+	private final String name;
+
+	private ProductCursor(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	static ProductCursor of(Product product) {
+		return new ProductCursor(product.getId(), product.getName());
+	}
+
+	static ProductCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int index = raw.indexOf(SEPARATOR);
+			return new ProductCursor(Long.valueOf(raw.substring(0, index)), raw.substring(index + 1));
+		} catch (RuntimeException e) {
+			throw new ValidMultiFormDataException("Cursor de paginação inválido.");
+		}
+	}
+
+	String encode() {
+		String raw = id + SEPARATOR + name;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	Long getId() {
+		return id;
+	}
+
+	String getName() {
+		return name;
+	}
+}
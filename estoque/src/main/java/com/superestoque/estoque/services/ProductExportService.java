@@ -0,0 +1,234 @@
+package com.superestoque.estoque.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+/**
+ * Exporta o estoque da empresa em CSV ou NDJSON, no mesmo formato aceito pela
+ * importação. As linhas são lidas aos poucos, com fetch size, e escritas
+ * direto na saída, sem carregar os produtos na memória nem as fotos.
+ */
+@Service
+public class ProductExportService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProductExportService.class);
+
+	public static final String CSV = "csv";
+	public static final String NDJSON = "ndjson";
+
+	private static final String MYSQL = "MySQL";
+
+	// uma linha por par produto/categoria, em ordem de produto, para agrupar as
+	// categorias sem guardar mais de um produto por vez; produtos em faixas somam
+	// as faixas à quantidade da linha
+	private static final String SELECT_PRODUCTS = "SELECT p.id, p.name, " + StockShardService.TOTAL_QUANTITY
+			+ " AS quantity, p.stock_shards, p.description, p.critical_quantity, p.unit_value, p.stock_value, pc.category_id "
+			+ "FROM tb_product p LEFT JOIN tb_product_category pc ON pc.product_id = p.id "
+			+ "WHERE p.company_id = ? ORDER BY p.id, pc.category_id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final AuthService authService;
+
+	private final int fetchSize;
+
+	public ProductExportService(DataSource dataSource, ObjectMapper objectMapper, AuthService authService,
+			@Value("${products.export.fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.fetchSize = fetchSize;
+		this.objectMapper = objectMapper;
+		this.authService = authService;
+	}
+
+	/**
+	 * Valida o pedido e resolve a empresa ainda na thread da requisição; a
+	 * escrita acontece depois, na thread assíncrona que envia a resposta.
+	 */
+	public StreamingResponseBody export(String format) {
+		if (!CSV.equals(format) && !NDJSON.equals(format)) {
+			throw new ValidMultiFormDataException("Formato inválido. Use csv ou ndjson.");
+		}
+		Long companyId = authService.principal().getCompanyId();
+		return out -> write(companyId, format, out);
+	}
+
+	void write(Long companyId, String format, OutputStream out) {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+		boolean csv = CSV.equals(format);
+		RowWriter rowWriter = new RowWriter(writer, csv);
+		try {
+			if (csv) {
+				writer.write(String.join(",", ProductImportService.COLUMNS) + ",id,stock_value\n");
+			}
+			jdbcTemplate.query(con -> prepare(con, companyId), rowWriter);
+			rowWriter.flushCurrent();
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		LOG.info("Exportados {} produtos da empresa {} em {}", rowWriter.count, companyId, format);
+	}
+
+	/**
+	 * Fetch size só no comando da exportação. Sem {@code useCursorFetch} na
+	 * URL, o driver do MySQL só deixa de carregar o resultado inteiro com
+	 * {@code Integer.MIN_VALUE}, lendo as linhas conforme chegam.
+	 */
+	private PreparedStatement prepare(Connection con, Long companyId) throws SQLException {
+		PreparedStatement ps = con.prepareStatement(SELECT_PRODUCTS, ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY);
+		ps.setFetchSize(MYSQL.equals(con.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize);
+		ps.setLong(1, companyId);
+		return ps;
+	}
+
+	private void writeCsv(Writer writer, ExportedProduct product) throws IOException {
+		writer.write(csvField(product.name));
+		writer.write(',');
+		writer.write(String.valueOf(product.quantity));
+		writer.write(',');
+		writer.write(csvField(product.description));
+		writer.write(',');
+		writer.write(String.valueOf(product.criticalQuantity));
+		writer.write(',');
+		writer.write(plain(product.unitValue));
+		writer.write(',');
+		writer.write(product.categories.stream().map(String::valueOf).collect(Collectors.joining("|")));
+		writer.write(',');
+		writer.write(String.valueOf(product.id));
+		writer.write(',');
+		writer.write(plain(product.stockValue));
+		writer.write('\n');
+	}
+
+	private void writeJson(Writer writer, ExportedProduct product) throws IOException {
+		ObjectNode node = objectMapper.createObjectNode();
+		node.put("id", product.id);
+		node.put("name", product.name);
+		node.put("quantity", product.quantity);
+		node.put("description", product.description);
+		node.put("critical_quantity", product.criticalQuantity);
+		node.put("unit_value", product.unitValue);
+		node.put("stock_value", product.stockValue);
+		product.categories.forEach(node.putArray("categories")::add);
+		writer.write(objectMapper.writeValueAsString(node));
+		writer.write('\n');
+	}
+
+	static String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return "\"" + value.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ") + "\"";
+	}
+
+	private static String plain(BigDecimal value) {
+		return value == null ? "" : value.toPlainString();
+	}
+
+	private final class RowWriter implements RowCallbackHandler {
+
+		private final Writer writer;
+		private final boolean csv;
+		private ExportedProduct current;
+		private long count;
+
+		private RowWriter(Writer writer, boolean csv) {
+			this.writer = writer;
+			this.csv = csv;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			long id = rs.getLong("id");
+			if (current == null || current.id != id) {
+				flushCurrent();
+				int quantity = rs.getInt("quantity");
+				BigDecimal unitValue = rs.getBigDecimal("unit_value");
+				BigDecimal stockValue = rs.getBigDecimal("stock_value");
+				if (rs.getInt("stock_shards") > 0) {
+					stockValue = unitValue.multiply(new BigDecimal(quantity));
+				}
+				current = new ExportedProduct(id, rs.getString("name"), quantity, rs.getString("description"),
+						rs.getInt("critical_quantity"), unitValue, stockValue);
+			}
+			long categoryId = rs.getLong("category_id");
+			if (!rs.wasNull()) {
+				current.categories.add(categoryId);
+			}
+		}
+
+		private void flushCurrent() {
+			if (current == null) {
+				return;
+			}
+			try {
+				if (csv) {
+					writeCsv(writer, current);
+				} else {
+					writeJson(writer, current);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			count++;
+			current = null;
+		}
+	}
+
+	private static final class ExportedProduct {
+
+		private final long id;
+		private final String name;
+		private final int quantity;
+		private final String description;
+		private final int criticalQuantity;
+		private final BigDecimal unitValue;
+		private final BigDecimal stockValue;
+		private final List<Long> categories = new ArrayList<>();
+
+		private ExportedProduct(long id, String name, int quantity, String description, int criticalQuantity,
+				BigDecimal unitValue, BigDecimal stockValue) {
+			this.id = id;
+			this.name = name;
+			this.quantity = quantity;
+			this.description = description;
+			this.criticalQuantity = criticalQuantity;
+			this.unitValue = unitValue;
+			this.stockValue = stockValue;
+		}
+	}
+}
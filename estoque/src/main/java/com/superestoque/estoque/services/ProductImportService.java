@@ -0,0 +1,361 @@
+package com.superestoque.estoque.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.Category;
+import com.superestoque.estoque.entities.dto.ProductDTO;
+import com.superestoque.estoque.entities.dto.ProductImportReportDTO;
+import com.superestoque.estoque.repositories.CategoryRepository;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+/**
+ * Importação em massa de produtos a partir de CSV ou NDJSON, um produto por
+ * linha. O arquivo é lido em fluxo e gravado em lotes JDBC, cada lote na sua
+ * própria transação.
+ */
+@Service
+public class ProductImportService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+	public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	static final int BATCH_SIZE = 1000;
+
+	static final List<String> COLUMNS = List.of("name", "quantity", "description", "critical_quantity", "unit_value",
+			"categories");
+
+	private static final String INSERT_PRODUCT = "INSERT INTO tb_product (name, quantity, description, critical_quantity, company_id, unit_value, stock_value) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PRODUCT_CATEGORY = "INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final AuthService authService;
+
+	private final CategoryRepository categoryRepository;
+
+	private final ProductCounterService counterService;
+
+	private final ObjectMapper objectMapper;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			AuthService authService, CategoryRepository categoryRepository, ProductCounterService counterService,
+			ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.authService = authService;
+		this.categoryRepository = categoryRepository;
+		this.counterService = counterService;
+		this.objectMapper = objectMapper;
+		this.eventPublisher = eventPublisher;
+	}
+
+	public ProductImportReportDTO importProducts(InputStream body, String contentType) {
+		boolean csv = isCsv(contentType);
+		Long companyId = authService.principal().getCompanyId();
+		Set<Long> companyCategories = categoryRepository.findByCompanyId(companyId).stream().map(Category::getId)
+				.collect(Collectors.toSet());
+
+		ProductImportReportDTO report = new ProductImportReportDTO();
+		List<ImportRow> chunk = new ArrayList<>(BATCH_SIZE);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+			long number = 0;
+			Map<String, Integer> header = null;
+			if (csv) {
+				header = readHeader(reader.readLine());
+				number++;
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				number++;
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					ImportRow row = csv ? parseCsv(number, line, header) : parseJson(number, line);
+					validate(row, companyCategories);
+					chunk.add(row);
+				} catch (ValidMultiFormDataException e) {
+					report.addError(number, e.getMessage());
+				}
+				if (chunk.size() == BATCH_SIZE) {
+					write(companyId, chunk, report);
+					chunk.clear();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao ler o arquivo de importação.", e);
+		}
+		write(companyId, chunk, report);
+
+		LOG.info("Importação da empresa {} concluída: {} produtos gravados e {} linhas rejeitadas", companyId,
+				report.getImported(), report.getFailed());
+		return report;
+	}
+
+	private static boolean isCsv(String contentType) {
+		MediaType type;
+		try {
+			type = MediaType.parseMediaType(contentType);
+		} catch (RuntimeException e) {
+			type = null;
+		}
+		if (type != null && TEXT_CSV.includes(type)) {
+			return true;
+		}
+		if (type != null && MediaType.APPLICATION_NDJSON.includes(type)) {
+			return false;
+		}
+		throw new ValidMultiFormDataException("Formato não suportado. Envie text/csv ou application/x-ndjson.");
+	}
+
+	private void write(Long companyId, List<ImportRow> chunk, ProductImportReportDTO report) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> insert(companyId, chunk));
+			report.addImported(chunk.size());
+		} catch (DataAccessException e) {
+			LOG.error("Erro ao gravar lote de {} produtos da empresa {}", chunk.size(), companyId, e);
+			chunk.forEach(row -> report.addError(row.line, "Erro ao gravar o produto."));
+		}
+	}
+
+	private void insert(Long companyId, List<ImportRow> chunk) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ProductDTO product = chunk.get(i).product;
+						ps.setString(1, product.getName());
+						ps.setInt(2, product.getQuantity());
+						ps.setString(3, product.getDescription());
+						ps.setInt(4, product.getCritical_quantity());
+						ps.setLong(5, companyId);
+						ps.setBigDecimal(6, product.getUnitValue());
+						ps.setBigDecimal(7, product.getUnitValue().multiply(new BigDecimal(product.getQuantity())));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return chunk.size();
+					}
+				}, keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		List<Object[]> links = new ArrayList<>();
+		Map<Long, Long> perCategory = new HashMap<>();
+		List<ProductSnapshot> created = new ArrayList<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Number productId = (Number) keys.get(i).values().iterator().next();
+			ImportRow row = chunk.get(i);
+			for (Long categoryId : row.categories) {
+				links.add(new Object[] { productId.longValue(), categoryId });
+				perCategory.merge(categoryId, 1L, Long::sum);
+			}
+			created.add(new ProductSnapshot(productId.longValue(), companyId, row.product.getName(), null,
+					row.product.getQuantity(), row.product.getCritical_quantity(), row.product.getUnitValue(),
+					row.product.getUnitValue().multiply(new BigDecimal(row.product.getQuantity())), row.categories));
+		}
+		jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY, links);
+		counterService.productsCreated(companyId, chunk.size(), perCategory);
+		created.forEach(snapshot -> eventPublisher.publishEvent(ProductChangedEvent.created(snapshot)));
+	}
+
+	private static void validate(ImportRow row, Set<Long> companyCategories) {
+		ProductService.validProduct(row.product);
+		if (row.categories.isEmpty()) {
+			throw new ValidMultiFormDataException("O produto deve conter ao menos uma categoria.");
+		}
+		String missing = row.categories.stream().filter(id -> !companyCategories.contains(id))
+				.map(String::valueOf).collect(Collectors.joining(", "));
+		if (!missing.isEmpty()) {
+			throw new ValidMultiFormDataException("Categorias não encontradas: " + missing + ".");
+		}
+	}
+
+	private static Map<String, Integer> readHeader(String line) {
+		if (line == null) {
+			throw new ValidMultiFormDataException("Arquivo vazio.");
+		}
+		List<String> names = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line);
+		Map<String, Integer> header = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			header.put(names.get(i).trim().toLowerCase(), i);
+		}
+		for (String column : COLUMNS) {
+			if (!header.containsKey(column)) {
+				throw new ValidMultiFormDataException("Coluna obrigatória ausente: " + column + ".");
+			}
+		}
+		return header;
+	}
+
+	private static ImportRow parseCsv(long line, String text, Map<String, Integer> header) {
+		List<String> values = splitCsv(text);
+		ProductDTO product = new ProductDTO();
+		product.setName(column(values, header, "name"));
+		product.setQuantity(parseInt(column(values, header, "quantity"), "quantidade"));
+		product.setDescription(column(values, header, "description"));
+		product.setCritical_quantity(parseInt(column(values, header, "critical_quantity"), "quantidade crítica"));
+		product.setUnitValue(parseDecimal(column(values, header, "unit_value")));
+		Set<Long> categories = new LinkedHashSet<>();
+		String ids = column(values, header, "categories");
+		if (ids != null) {
+			for (String id : ids.split("\\|")) {
+				if (!id.isBlank()) {
+					categories.add(parseLong(id));
+				}
+			}
+		}
+		return new ImportRow(line, product, categories);
+	}
+
+	private ImportRow parseJson(long line, String text) {
+		JsonNode node;
+		try {
+			node = objectMapper.readTree(text);
+		} catch (JsonProcessingException e) {
+			throw new ValidMultiFormDataException("JSON inválido.");
+		}
+		if (!node.isObject()) {
+			throw new ValidMultiFormDataException("JSON inválido.");
+		}
+		ProductDTO product = new ProductDTO();
+		product.setName(text(node, "name"));
+		product.setQuantity(parseInt(text(node, "quantity"), "quantidade"));
+		product.setDescription(text(node, "description"));
+		product.setCritical_quantity(parseInt(text(node, "critical_quantity"), "quantidade crítica"));
+		product.setUnitValue(parseDecimal(text(node, "unit_value")));
+		Set<Long> categories = new LinkedHashSet<>();
+		for (JsonNode id : node.path("categories")) {
+			categories.add(parseLong(id.asText()));
+		}
+		return new ImportRow(line, product, categories);
+	}
+
+	/**
+	 * Separa uma linha CSV por vírgulas, respeitando campos entre aspas e aspas
+	 * duplicadas dentro deles.
+	 */
+	static List<String> splitCsv(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					current.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		values.add(current.toString());
+		return values;
+	}
+
+	private static String column(List<String> values, Map<String, Integer> header, String name) {
+		int index = header.get(name);
+		return index < values.size() ? values.get(index) : null;
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private static int parseInt(String value, String field) {
+		if (value == null || value.isBlank()) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new ValidMultiFormDataException("O campo " + field + " deve ser um número inteiro.");
+		}
+	}
+
+	private static BigDecimal parseDecimal(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return new BigDecimal(value.trim());
+		} catch (NumberFormatException e) {
+			throw new ValidMultiFormDataException("O valor unitário deve ser um número.");
+		}
+	}
+
+	private static Long parseLong(String value) {
+		try {
+			return Long.valueOf(value.trim());
+		} catch (NumberFormatException e) {
+			throw new ValidMultiFormDataException("Categoria inválida: " + value + ".");
+		}
+	}
+
+	private static final class ImportRow {
+
+		private final long line;
+		private final ProductDTO product;
+		private final Set<Long> categories;
+
+		private ImportRow(long line, ProductDTO product, Set<Long> categories) {
+			this.line = line;
+			this.product = product;
+			this.categories = categories;
+		}
+	}
+}
@@ -1,24 +1,36 @@
 package com.superestoque.estoque.services;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import com.superestoque.estoque.entities.Category;
-import com.superestoque.estoque.entities.Company;
 import com.superestoque.estoque.entities.Product;
-import com.superestoque.estoque.entities.User;
-import com.superestoque.estoque.entities.dto.CategoryDTO;
-import com.superestoque.estoque.entities.dto.CompanyDTO;
+import com.superestoque.estoque.entities.dto.CursorPageDTO;
 import com.superestoque.estoque.entities.dto.ProductDTO;
 import com.superestoque.estoque.repositories.ProductRepository;
 import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
 import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
 
 import jakarta.transaction.Transactional;
@@ -28,6 +40,8 @@ public class ProductService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ProductService.class);
 
+	private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
 	private final ProductRepository repository;
 
 	private final CompanyService companyService;
@@ -36,48 +50,122 @@ public class ProductService {
 
 	private final CategoryService categoryService;
 
-	private final EmailService emailService;
+	private final ProductCounterService counterService;
+
+	private final ImageStorageService imageStorageService;
+
+	private final ThumbnailService thumbnailService;
+
+	private final StockMovementService stockMovementService;
+
+	private final StockShardService stockShardService;
+
+	private final ApplicationEventPublisher eventPublisher;
 
 	public ProductService(ProductRepository repository, CompanyService companyService, AuthService authService,
-			CategoryService categoryService, EmailService emailService) {
+			CategoryService categoryService, ProductCounterService counterService,
+			ImageStorageService imageStorageService, ThumbnailService thumbnailService,
+			StockMovementService stockMovementService, StockShardService stockShardService,
+			ApplicationEventPublisher eventPublisher) {
 		this.repository = repository;
 		this.companyService = companyService;
 		this.authService = authService;
 		this.categoryService = categoryService;
-		this.emailService = emailService;
+		this.counterService = counterService;
+		this.imageStorageService = imageStorageService;
+		this.thumbnailService = thumbnailService;
+		this.stockMovementService = stockMovementService;
+		this.stockShardService = stockShardService;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Transactional
 	public Page<ProductDTO> findAllProductByCompanyIdPaged(Pageable pageable, Long categoryId, String productName) {
-		User user = authService.authenticated();
-		Long companyId = user.getCompany().getId();
+		Long companyId = authService.principal().getCompanyId();
 
-		Page<Product> products = repository.findByCompanyIdAndCategoryId(companyId, categoryId, productName, pageable);
+		List<Long> ids;
+		long total;
+		if (productName == null) {
+			ids = repository.findIdSliceByCompanyIdAndCategoryId(companyId, categoryId, null, stable(pageable))
+					.getContent();
+			total = counterService.countByCompanyAndCategory(companyId, categoryId);
+		} else {
+			Page<Long> page = repository.findIdsByCompanyIdAndCategoryId(companyId, categoryId, productName,
+					stable(pageable));
+			ids = page.getContent();
+			total = page.getTotalElements();
+		}
+		List<ProductDTO> products = toDtoInOrder(ids);
 
 	    LOG.info("Retornando página " + pageable.getPageNumber() +
 	             " de produtos filtrados pela empresa " + companyId +
 	             (categoryId != null ? " e pela categoria " + categoryId : "") +
 	             (productName != null ? " e pelo nome " + productName : ""));
 
-		return products.map(product -> new ProductDTO(product, product.getCategories()));
+		return new PageImpl<>(products, pageable, total);
+	}
+
+	@Transactional
+	public Slice<ProductDTO> findAllProductSliceByCompanyId(Pageable pageable, Long categoryId, String productName) {
+		Long companyId = authService.principal().getCompanyId();
+
+		Slice<Long> ids = repository.findIdSliceByCompanyIdAndCategoryId(companyId, categoryId, productName,
+				stable(pageable));
+		LOG.info("Retornando fatia {} de produtos da empresa {} sem contagem", pageable.getPageNumber(), companyId);
+		return new SliceImpl<>(toDtoInOrder(ids.getContent()), pageable, ids.hasNext());
+	}
+
+	@Transactional
+	public CursorPageDTO<ProductDTO> findAllProductByCompanyIdAfter(String after, int size, Long categoryId,
+			String productName) {
+		Long companyId = authService.principal().getCompanyId();
+		int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+		Limit limit = Limit.of(pageSize + 1);
+
+		ProductCursor cursor = after == null || after.isBlank() ? null : ProductCursor.decode(after);
+		List<Long> ids;
+		List<Product> products;
+		// produtos removidos entre as duas consultas somem da página; se a página
+		// inteira sumiu, a mesma posição é lida de novo
+		do {
+			ids = cursor == null ? repository.findFirstIdsByCompanyId(companyId, categoryId, productName, limit)
+					: repository.findIdsByCompanyIdAfter(companyId, cursor.getName(), cursor.getId(), categoryId,
+							productName, limit);
+			products = findWithCategoriesInOrder(ids.size() > pageSize ? ids.subList(0, pageSize) : ids);
+		} while (products.isEmpty() && !ids.isEmpty());
+
+		boolean hasNext = ids.size() > pageSize;
+		stockShardService.loadTotals(products);
+		// o último produto lido marca a posição: os ids depois dele na página
+		// foram removidos
+		String nextCursor = hasNext ? ProductCursor.of(products.get(products.size() - 1)).encode() : null;
+
+		LOG.info("Retornando {} produtos por cursor da empresa {}", products.size(), companyId);
+		return new CursorPageDTO<>(
+				products.stream().map(product -> new ProductDTO(product, product.getCategories())).toList(), pageSize,
+				nextCursor);
 	}
 
 	@Transactional
 	public ProductDTO findById(Long id) {
 		Optional<Product> obj = repository.findById(id);
 		Product product = obj.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado."));
+		stockShardService.loadTotals(List.of(product));
 		LOG.info("Produto {} retornado com sucesso", product.getName());
 		return new ProductDTO(product, product.getCategories());
 	}
 
 	@Transactional
 	public void deleteById(Long id) {
-		User user = authService.authenticated();
-		if (!repository.existsById(id)) {
-			throw new ResourceNotFoundException("Produto não encontrado");
-		}
-		repository.deleteById(id);
-		LOG.info("Produto deletado com sucesso pelo usuário {}", user.getEmail());
+		AuthenticatedUser user = authService.principal();
+		Product product = repository.findById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado"));
+		stockShardService.loadTotal(product);
+		ProductSnapshot before = ProductSnapshot.of(product);
+		repository.delete(product);
+		counterService.productDeleted(user.getCompanyId(), before.getCategoryIds());
+		eventPublisher.publishEvent(ProductChangedEvent.deleted(before));
+		LOG.info("Produto deletado com sucesso pelo usuário {}", user.getUsername());
 	}
 
 	@Transactional
@@ -85,6 +173,8 @@ public class ProductService {
 		Product product = new Product();
 		copyInsertDtoToEntity(product, entity, categories);
 		repository.save(product);
+		counterService.productCreated(product.getCompany().getId(), categoryIds(product));
+		eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(product)));
 		LOG.info("Produto {} criado com sucesso.", product.getName());
 		return new ProductDTO(product, product.getCategories());
 	}
@@ -93,56 +183,98 @@ public class ProductService {
 	public ProductDTO updateProduct(Long id, ProductDTO entity, List<Long> categories) {
 		Optional<Product> obj = repository.findById(id);
 		Product product = obj.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado."));
+		if (entity.getVersion() != null && entity.getVersion() != product.getVersion()) {
+			throw new ObjectOptimisticLockingFailureException(Product.class, id);
+		}
+		stockShardService.lockTotal(product);
+		ProductSnapshot before = ProductSnapshot.of(product);
+		int previousQuantity = product.getQuantity();
+		Set<Long> previousCategories = categoryIds(product);
 		updateData(product, entity, categories);
-		product = repository.save(product);
+		product = repository.saveAndFlush(product);
+		stockShardService.resetShards(product);
+		stockMovementService.registerEdit(product, previousQuantity);
+		Set<Long> currentCategories = categoryIds(product);
+		counterService.categoriesChanged(product.getCompany().getId(),
+				previousCategories.stream().filter(categoryId -> !currentCategories.contains(categoryId)).toList(),
+				currentCategories.stream().filter(categoryId -> !previousCategories.contains(categoryId)).toList());
+		eventPublisher.publishEvent(new ProductChangedEvent(before, ProductSnapshot.of(product)));
 		LOG.info("Atualizado dados do produto {} com sucesso.", id);
 		return new ProductDTO(product);
 	}
 
+	private static Pageable stable(Pageable pageable) {
+		Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id"))
+				: pageable.getSort();
+		return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+	}
+
+	private List<ProductDTO> toDtoInOrder(List<Long> ids) {
+		List<Product> products = findWithCategoriesInOrder(ids);
+		stockShardService.loadTotals(products);
+		return products.stream().map(product -> new ProductDTO(product, product.getCategories())).toList();
+	}
+
+	private static Set<Long> categoryIds(Product product) {
+		return product.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+	}
+
+	private List<Product> findWithCategoriesInOrder(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Integer> positions = new HashMap<>();
+		for (int i = 0; i < ids.size(); i++) {
+			positions.put(ids.get(i), i);
+		}
+		return repository.findWithCategoriesByIdIn(ids).stream()
+				.sorted(Comparator.comparing(product -> positions.get(product.getId()))).toList();
+	}
+
+	private String storePhoto(byte[] photo) {
+		String hash = imageStorageService.storeUpload(photo);
+		thumbnailService.generate(hash);
+		return hash;
+	}
+
 	private void copyInsertDtoToEntity(Product product, ProductDTO dto, List<Long> categories) {
 		validProduct(dto);
 		product.setName(dto.getName());
 		product.setQuantity(dto.getQuantity());
 		product.setDescription(dto.getDescription());
-		product.setPhoto(dto.getPhoto());
+		if (dto.getPhoto() != null && dto.getPhoto().length > 0) {
+			product.setPhotoHash(storePhoto(dto.getPhoto()));
+		}
 		product.setCritical_quantity(dto.getCritical_quantity());
-		CompanyDTO company = companyService.findById();
-		product.setCompany(new Company(company));
+		product.setCompany(companyService.getReference());
 		product.setUnitValue(dto.getUnitValue());
 		product.calculateStockValue();
 		if (categories.size() < 1) {
 			throw new ValidMultiFormDataException("O produto deve conter ao menos uma categoria.");
-		} else {
-			for (Long id : categories) {
-				CategoryDTO category = categoryService.findById(id);
-				product.getCategories().add(new Category(category));
-			}
 		}
+		product.getCategories().addAll(categoryService.findAllOwnedById(categories));
 	}
 
 	private void updateData(Product product, ProductDTO entity, List<Long> categories) {
 		validProduct(entity);
 		product.setName(entity.getName());
 		if (entity.getPhoto() != null && entity.getPhoto().length > 0) {
-			product.setPhoto(entity.getPhoto());
+			product.setPhotoHash(storePhoto(entity.getPhoto()));
 		}
 		product.setQuantity(entity.getQuantity());
 		product.setDescription(entity.getDescription());
 		product.setUnitValue(entity.getUnitValue());
 		product.setCritical_quantity(entity.getCritical_quantity());
-		product.getCategories().clear();
 		if (categories.isEmpty()) {
 			throw new ValidMultiFormDataException("O produto deve conter ao menos uma categoria.");
 		}
-		for (Long id : categories) {
-			CategoryDTO category = categoryService.findById(id);
-			product.getCategories().add(new Category(category));
-		}
+		Set<Category> resolved = categoryService.findAllOwnedById(categories);
+		product.getCategories().clear();
+		product.getCategories().addAll(resolved);
 		product.calculateStockValue();
-		checkQuantity(product);
 	}
 
-	private void validProduct(ProductDTO product) {
+	static void validProduct(ProductDTO product) {
 		if (product.getName() == null || product.getName().isBlank()) {
 			throw new ValidMultiFormDataException("O campo nome é obrigatório.");
 		}
@@ -151,7 +283,7 @@ public class ProductService {
 			throw new ValidMultiFormDataException("O campo quantidade deve ser maior ou igual a um.");
 		}
 
-		if (product.getDescription().length() < 4) {
+		if (product.getDescription() == null || product.getDescription().length() < 4) {
 			throw new ValidMultiFormDataException("O campo descrição deve conter entre no mínimo 4 caracteres.");
 		}
 
@@ -165,10 +297,4 @@ public class ProductService {
 			throw new ValidMultiFormDataException("O valor do estoque deve ser maior ou igual a um.");
 		}
 	}
-
-	private void checkQuantity(Product product) {
-		if (product.getQuantity() <= product.getCritical_quantity()) {
-			emailService.sendEmailProduct(product);
-		}
-	}
 }
\ No newline at end of file
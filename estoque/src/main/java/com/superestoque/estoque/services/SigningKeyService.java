@@ -0,0 +1,307 @@
+package com.superestoque.estoque.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.superestoque.estoque.entities.SigningKey;
+import com.superestoque.estoque.repositories.SigningKeyRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Chaves de assinatura dos tokens guardadas no banco, as mesmas em todas as
+ * instâncias. Uma chave nova é publicada para verificação assim que criada,
+ * mas só passa a assinar depois de {@code activationDelayMs}, tempo para as
+ * outras instâncias a carregarem. A chave substituída continua verificando
+ * por {@code overlapMs} e depois é removida. A chave privada é cifrada com
+ * AES-GCM, usando uma chave derivada de {@code security.jwk.secret} por PBKDF2
+ * com um salt aleatório por chave.
+ */
+@Service
+public class SigningKeyService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SigningKeyService.class);
+
+	private static final String CIPHER = "AES/GCM/NoPadding";
+	private static final int IV_LENGTH = 12;
+
+	private static final String KDF = "PBKDF2WithHmacSHA256";
+	private static final int KDF_ITERATIONS = 210_000;
+	private static final int SALT_LENGTH = 16;
+
+	// sem o prefixo: chave gravada antes do PBKDF2, cifrada com o SHA-256 do
+	// segredo; só é lida, e a próxima rotação a substitui
+	private static final String FORMAT = "pbkdf2:";
+
+	private final SigningKeyRepository repository;
+
+	private final char[] secret;
+
+	private final SecretKeySpec legacySecret;
+
+	// chave AES por salt; o PBKDF2 é caro de propósito e o refresh lê todas as
+	// chaves a cada rodada
+	private final Map<String, SecretKeySpec> derived = new ConcurrentHashMap<>();
+
+	private final long rotationMs;
+
+	private final long overlapMs;
+
+	private final long activationDelayMs;
+
+	private final LongSupplier clock;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private volatile JWKSet signingKeys = new JWKSet();
+
+	private volatile JWKSet verificationKeys = new JWKSet();
+
+	@Autowired
+	public SigningKeyService(SigningKeyRepository repository, @Value("${security.jwk.secret:}") String secret,
+			@Value("${security.client-secret}") String clientSecret,
+			@Value("${security.jwk.rotation-ms:2592000000}") long rotationMs,
+			@Value("${security.jwk.overlap-ms:172800000}") long overlapMs,
+			@Value("${security.jwk.activation-delay-ms:300000}") long activationDelayMs) {
+		this(repository, secret, clientSecret, rotationMs, overlapMs, activationDelayMs, System::currentTimeMillis);
+	}
+
+	SigningKeyService(SigningKeyRepository repository, String secret, String clientSecret, long rotationMs,
+			long overlapMs, long activationDelayMs, LongSupplier clock) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalStateException("Segredo das chaves de assinatura (JWK_SECRET) não configurado.");
+		}
+		if (secret.equals(clientSecret)) {
+			throw new IllegalStateException(
+					"Segredo das chaves de assinatura (JWK_SECRET) não pode ser igual ao segredo do cliente.");
+		}
+		this.repository = repository;
+		this.secret = secret.toCharArray();
+		this.legacySecret = new SecretKeySpec(sha256(secret), "AES");
+		this.rotationMs = rotationMs;
+		this.overlapMs = overlapMs;
+		this.activationDelayMs = activationDelayMs;
+		this.clock = clock;
+	}
+
+	/**
+	 * Só a chave ativa, para assinar.
+	 */
+	public JWKSource<SecurityContext> signingSource() {
+		return (selector, context) -> selector.select(signingKeys);
+	}
+
+	/**
+	 * Chaves públicas ainda válidas, para verificar e publicar em
+	 * {@code /oauth2/jwks}.
+	 */
+	public JWKSource<SecurityContext> verificationSource() {
+		return (selector, context) -> selector.select(verificationKeys);
+	}
+
+	@PostConstruct
+	public void init() {
+		refresh();
+	}
+
+	/**
+	 * Recarrega as chaves do banco, cria a próxima quando a atual passou do
+	 * período de rotação e remove as que já saíram da janela de verificação.
+	 */
+	@Scheduled(fixedDelayString = "${security.jwk.refresh-ms:60000}", initialDelayString = "${security.jwk.refresh-ms:60000}")
+	public void refresh() {
+		Instant now = Instant.ofEpochMilli(clock.getAsLong());
+		List<SigningKey> keys = discardUnreadableLegacy(repository.findAllByOrderByGenerationAsc());
+		if (keys.isEmpty()) {
+			keys = create(1, now, now);
+		} else {
+			SigningKey latest = keys.get(keys.size() - 1);
+			if (isLegacy(latest) || !latest.getCreatedAt().plusMillis(rotationMs).isAfter(now)) {
+				keys = create(latest.getGeneration() + 1, now, now.plusMillis(activationDelayMs));
+			}
+		}
+
+		RSAKey signing = null;
+		List<JWK> verification = new ArrayList<>();
+		List<SigningKey> expired = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i++) {
+			SigningKey key = keys.get(i);
+			Instant retiresAt = i + 1 < keys.size() ? keys.get(i + 1).getActivatesAt() : null;
+			if (retiresAt != null && !retiresAt.plusMillis(overlapMs).isAfter(now)) {
+				expired.add(key);
+				continue;
+			}
+			RSAKey rsaKey = toJwk(key);
+			verification.add(rsaKey.toPublicJWK());
+			if (!key.getActivatesAt().isAfter(now) && (retiresAt == null || retiresAt.isAfter(now))) {
+				signing = rsaKey;
+			}
+		}
+		if (signing == null) {
+			throw new IllegalStateException("Nenhuma chave de assinatura ativa.");
+		}
+		if (!expired.isEmpty()) {
+			repository.deleteAllInBatch(expired);
+			LOG.info("{} chaves de assinatura vencidas removidas", expired.size());
+		}
+		signingKeys = new JWKSet(signing);
+		verificationKeys = new JWKSet(verification);
+	}
+
+	/**
+	 * Chaves antigas que o segredo atual não abre foram cifradas com outro
+	 * segredo, como o antigo padrão igual ao segredo do cliente, e não são
+	 * confiáveis: são removidas. No formato atual, o erro continua impedindo a
+	 * subida.
+	 */
+	private List<SigningKey> discardUnreadableLegacy(List<SigningKey> keys) {
+		List<SigningKey> unreadable = keys.stream().filter(key -> isLegacy(key) && !canDecrypt(key)).toList();
+		if (unreadable.isEmpty()) {
+			return keys;
+		}
+		repository.deleteAllInBatch(unreadable);
+		LOG.warn("{} chaves de assinatura antigas cifradas com outro segredo removidas", unreadable.size());
+		return repository.findAllByOrderByGenerationAsc();
+	}
+
+	private static boolean isLegacy(SigningKey key) {
+		return !key.getPrivateKey().startsWith(FORMAT);
+	}
+
+	private boolean canDecrypt(SigningKey key) {
+		try {
+			decrypt(key.getPrivateKey());
+			return true;
+		} catch (GeneralSecurityException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	private List<SigningKey> create(long generation, Instant now, Instant activatesAt) {
+		KeyPair keyPair = generateRsaKey();
+		SigningKey key = new SigningKey(UUID.randomUUID().toString(), generation,
+				Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+				encrypt(keyPair.getPrivate().getEncoded()), now, activatesAt);
+		try {
+			repository.saveAndFlush(key);
+			LOG.info("Chave de assinatura {} criada, ativa a partir de {}", generation, activatesAt);
+		} catch (DataIntegrityViolationException e) {
+			LOG.info("Chave de assinatura {} já criada por outra instância", generation);
+		}
+		return repository.findAllByOrderByGenerationAsc();
+	}
+
+	private RSAKey toJwk(SigningKey key) {
+		try {
+			KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+			RSAPublicKey publicKey = (RSAPublicKey) keyFactory
+					.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+			RSAPrivateKey privateKey = (RSAPrivateKey) keyFactory
+					.generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getPrivateKey())));
+			return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(key.getId()).build();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Não foi possível ler a chave de assinatura " + key.getId(), e);
+		}
+	}
+
+	// salt, IV e texto cifrado, em Base64 depois do prefixo do formato
+	private String encrypt(byte[] value) {
+		try {
+			byte[] salt = new byte[SALT_LENGTH];
+			random.nextBytes(salt);
+			byte[] iv = new byte[IV_LENGTH];
+			random.nextBytes(iv);
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.ENCRYPT_MODE, derive(salt), new GCMParameterSpec(128, iv));
+			byte[] encrypted = cipher.doFinal(value);
+			return FORMAT + Base64.getEncoder().encodeToString(ByteBuffer
+					.allocate(salt.length + iv.length + encrypted.length).put(salt).put(iv).put(encrypted).array());
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private byte[] decrypt(String value) throws GeneralSecurityException {
+		if (!value.startsWith(FORMAT)) {
+			byte[] bytes = Base64.getDecoder().decode(value);
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.DECRYPT_MODE, legacySecret, new GCMParameterSpec(128, bytes, 0, IV_LENGTH));
+			return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+		}
+		byte[] bytes = Base64.getDecoder().decode(value.substring(FORMAT.length()));
+		Cipher cipher = Cipher.getInstance(CIPHER);
+		cipher.init(Cipher.DECRYPT_MODE, derive(Arrays.copyOf(bytes, SALT_LENGTH)),
+				new GCMParameterSpec(128, bytes, SALT_LENGTH, IV_LENGTH));
+		int offset = SALT_LENGTH + IV_LENGTH;
+		return cipher.doFinal(bytes, offset, bytes.length - offset);
+	}
+
+	private SecretKeySpec derive(byte[] salt) {
+		return derived.computeIfAbsent(Base64.getEncoder().encodeToString(salt), key -> {
+			PBEKeySpec spec = new PBEKeySpec(secret, salt, KDF_ITERATIONS, 256);
+			try {
+				return new SecretKeySpec(SecretKeyFactory.getInstance(KDF).generateSecret(spec).getEncoded(), "AES");
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				spec.clearPassword();
+			}
+		});
+	}
+
+	private static byte[] sha256(String value) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static KeyPair generateRsaKey() {
+		try {
+			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+			keyPairGenerator.initialize(2048);
+			return keyPairGenerator.generateKeyPair();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
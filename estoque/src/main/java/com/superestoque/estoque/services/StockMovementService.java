@@ -0,0 +1,146 @@
+package com.superestoque.estoque.services;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.StockMovement;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockMovementRepository;
+import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+import jakarta.transaction.Transactional;
+
+@Service
+public class StockMovementService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StockMovementService.class);
+
+	private static final String ERROR_NOTFOUND_MESSAGE = "Produto não encontrado.";
+
+	private final StockMovementRepository repository;
+
+	private final ProductRepository productRepository;
+
+	private final UserRepository userRepository;
+
+	private final AuthService authService;
+
+	private final ObjectProvider<StockWriteBehindService> writeBehind;
+
+	private final StockShardService shardService;
+
+	private final HotProductPolicy hotProductPolicy;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	public StockMovementService(StockMovementRepository repository, ProductRepository productRepository,
+			UserRepository userRepository, AuthService authService,
+			ObjectProvider<StockWriteBehindService> writeBehind, StockShardService shardService,
+			HotProductPolicy hotProductPolicy, ApplicationEventPublisher eventPublisher) {
+		this.repository = repository;
+		this.productRepository = productRepository;
+		this.userRepository = userRepository;
+		this.authService = authService;
+		this.writeBehind = writeBehind;
+		this.shardService = shardService;
+		this.hotProductPolicy = hotProductPolicy;
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Aplica a movimentação direto no banco ({@code quantity = quantity + delta})
+	 * e registra o lançamento, sem ler e regravar o produto inteiro. Com
+	 * {@code stock.write-behind.enabled} a movimentação só é acumulada e gravada
+	 * depois; o retorno vem sem id.
+	 */
+	@Transactional
+	public StockMovementDTO register(Long productId, StockMovementDTO dto) {
+		AuthenticatedUser user = authService.principal();
+		int delta = delta(dto);
+		StockWriteBehindService accumulator = writeBehind.getIfAvailable();
+		if (accumulator != null) {
+			return accumulator.submit(productId, user, dto.getType(), delta, dto.getReason());
+		}
+		if (shardService.addQuantity(productId, user.getCompanyId(), delta) == 0) {
+			if (!productRepository.existsByIdAndCompanyId(productId, user.getCompanyId())) {
+				throw new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE);
+			}
+			throw new ValidMultiFormDataException("Estoque insuficiente para a saída.");
+		}
+		Product product = productRepository.findById(productId)
+				.orElseThrow(() -> new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE));
+		shardService.loadTotal(product);
+		hotProductPolicy.record(productId);
+		ProductSnapshot after = ProductSnapshot.of(product);
+		eventPublisher.publishEvent(new ProductChangedEvent(after.withQuantity(after.getQuantity() - delta), after));
+		StockMovement movement = repository.save(new StockMovement(null, product,
+				userRepository.getReferenceById(user.getId()), dto.getType(), delta, product.getQuantity(),
+				dto.getReason(), Instant.now()));
+		LOG.info("Movimentação {} de {} no produto {} registrada pelo usuário {}", dto.getType(), delta, productId,
+				user.getUsername());
+		return new StockMovementDTO(movement, user.getUsername());
+	}
+
+	/**
+	 * Registra como ajuste a mudança de quantidade feita pela edição completa do
+	 * produto, para que o livro continue fechando com o saldo.
+	 */
+	@Transactional
+	public void registerEdit(Product product, int previousQuantity) {
+		int delta = product.getQuantity() - previousQuantity;
+		if (delta == 0) {
+			return;
+		}
+		AuthenticatedUser user = authService.principal();
+		repository.save(new StockMovement(null, product, userRepository.getReferenceById(user.getId()),
+				MovementType.ADJUST, delta, product.getQuantity(), "Edição do produto", Instant.now()));
+	}
+
+	@Transactional
+	public Page<StockMovementDTO> findByProduct(Long productId, Pageable pageable) {
+		Long companyId = authService.principal().getCompanyId();
+		if (!productRepository.existsByIdAndCompanyId(productId, companyId)) {
+			throw new ResourceNotFoundException(ERROR_NOTFOUND_MESSAGE);
+		}
+		return repository.findByProductId(productId, companyId, pageable);
+	}
+
+	private static int delta(StockMovementDTO dto) {
+		if (dto.getType() == null) {
+			throw new ValidMultiFormDataException("O campo tipo é obrigatório.");
+		}
+		if (dto.getReason() != null && dto.getReason().length() > 255) {
+			throw new ValidMultiFormDataException("O campo motivo deve conter no máximo 255 caracteres.");
+		}
+		switch (dto.getType()) {
+		case IN:
+		case OUT:
+			if (dto.getQuantity() < 1) {
+				throw new ValidMultiFormDataException("O campo quantidade deve ser maior ou igual a um.");
+			}
+			return dto.getType() == MovementType.IN ? dto.getQuantity() : -dto.getQuantity();
+		default:
+			if (dto.getQuantity() == 0) {
+				throw new ValidMultiFormDataException("O ajuste deve ter quantidade diferente de zero.");
+			}
+			if (dto.getReason() == null || dto.getReason().isBlank()) {
+				throw new ValidMultiFormDataException("Informe o motivo do ajuste.");
+			}
+			return dto.getQuantity();
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.superestoque.estoque.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.ProductStockShard;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.ProductStockShardRepository;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Estoque dividido em faixas para produtos muito movimentados. A linha do
+ * produto continua guardando uma parte da quantidade; as entradas caem em uma
+ * faixa sorteada e as saídas procuram, em ordem de faixa, uma faixa (ou a
+ * linha do produto) que cubra a quantidade sozinha. Nenhuma parte fica
+ * negativa, então o total também não.
+ */
+@Service
+public class StockShardService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StockShardService.class);
+
+	/**
+	 * Quantidade total do produto {@code p} em SQL, somando as faixas só do
+	 * próprio produto, para as consultas que leem o estoque direto do banco.
+	 */
+	static final String TOTAL_QUANTITY = "p.quantity + COALESCE((SELECT SUM(s.quantity) FROM tb_product_stock_shard s WHERE s.product_id = p.id), 0)";
+
+	static final String SHARD_VERSION = "COALESCE((SELECT SUM(s.version) FROM tb_product_stock_shard s WHERE s.product_id = p.id), 0)";
+
+	/**
+	 * Versão do estoque do produto {@code p}, a mesma de
+	 * {@link Product#getStockVersion()}.
+	 */
+	static final String STOCK_VERSION = "p.version + " + SHARD_VERSION;
+
+	private final ProductStockShardRepository repository;
+
+	private final ProductRepository productRepository;
+
+	public StockShardService(ProductStockShardRepository repository, ProductRepository productRepository) {
+		this.repository = repository;
+		this.productRepository = productRepository;
+	}
+
+	/**
+	 * Soma {@code delta} ao estoque do produto. Retorna 0 quando o produto não
+	 * existe na empresa ou quando a saída deixaria o estoque negativo.
+	 */
+	@Transactional
+	public int addQuantity(Long productId, Long companyId, int delta) {
+		Integer shards = productRepository.findStockShardsByIdAndCompanyId(productId, companyId);
+		if (shards == null) {
+			return 0;
+		}
+		if (shards == 0) {
+			return productRepository.addQuantity(productId, companyId, delta);
+		}
+		if (delta >= 0) {
+			if (repository.addQuantity(productId, ThreadLocalRandom.current().nextInt(shards), delta) == 1) {
+				return 1;
+			}
+			// faixas removidas por uma consolidação concorrente
+			return productRepository.addQuantity(productId, companyId, delta);
+		}
+		// o UPDATE recusado mantém o bloqueio da linha até o fim da transação;
+		// com todas as saídas na mesma ordem, duas não esperam uma pela outra
+		for (int shard = 0; shard < shards; shard++) {
+			if (repository.addQuantity(productId, shard, delta) == 1) {
+				return 1;
+			}
+		}
+		if (productRepository.addQuantity(productId, companyId, delta) == 1) {
+			return 1;
+		}
+		return drain(productId, companyId, delta);
+	}
+
+	/**
+	 * Carrega nos produtos divididos a soma das faixas, do cache de curta
+	 * duração.
+	 */
+	public void loadTotals(Collection<Product> products) {
+		for (Product product : products) {
+			if (product.getStockShards() > 0) {
+				product.setShardQuantity(repository.sumCachedByProductId(product.getId()).intValue());
+			}
+		}
+	}
+
+	/**
+	 * Carrega a soma atual das faixas e das suas versões, sem cache, para quem
+	 * precisa do saldo exato logo depois de uma escrita.
+	 */
+	public void loadTotal(Product product) {
+		if (product.getStockShards() > 0) {
+			load(product, repository.findByProductId(product.getId()));
+		}
+	}
+
+	/**
+	 * Bloqueia as faixas e carrega a soma, antes de uma edição que vai
+	 * substituir a quantidade.
+	 */
+	@Transactional
+	public void lockTotal(Product product) {
+		if (product.getStockShards() > 0) {
+			load(product, repository.findForUpdateByProductId(product.getId()));
+		}
+	}
+
+	/**
+	 * Zera as faixas depois que a quantidade total foi gravada na linha do
+	 * produto.
+	 */
+	@Transactional
+	public void resetShards(Product product) {
+		if (product.getStockShards() > 0) {
+			repository.resetByProductId(product.getId());
+		}
+	}
+
+	@Transactional
+	public void shard(Long productId, int shards) {
+		if (productRepository.enableShards(productId, shards) == 0) {
+			return;
+		}
+		Product product = productRepository.getReferenceById(productId);
+		repository.saveAll(IntStream.range(0, shards).mapToObj(shard -> new ProductStockShard(null, product, shard, 0))
+				.toList());
+		LOG.info("Estoque do produto {} dividido em {} faixas", productId, shards);
+	}
+
+	@Transactional
+	public void consolidate(Long productId) {
+		List<ProductStockShard> shards = repository.findForUpdateByProductId(productId);
+		int quantity = shards.stream().mapToInt(ProductStockShard::getQuantity).sum();
+		long shardVersion = shards.stream().mapToLong(ProductStockShard::getVersion).sum();
+		repository.deleteByProductId(productId);
+		productRepository.foldShards(productId, quantity, shardVersion);
+		LOG.info("Faixas de estoque do produto {} consolidadas", productId);
+	}
+
+	private static void load(Product product, List<ProductStockShard> shards) {
+		product.setShardQuantity(shards.stream().mapToInt(ProductStockShard::getQuantity).sum());
+		product.setShardVersion(shards.stream().mapToLong(ProductStockShard::getVersion).sum());
+	}
+
+	/**
+	 * Nenhuma parte cobre a saída sozinha: bloqueia as faixas em ordem, passa
+	 * tudo para a linha do produto e tenta de novo ali. Se mesmo assim faltar
+	 * estoque, quem chamou lança a exceção e a transação desfaz a transferência.
+	 */
+	private int drain(Long productId, Long companyId, int delta) {
+		int quantity = repository.findForUpdateByProductId(productId).stream().mapToInt(ProductStockShard::getQuantity)
+				.sum();
+		if (quantity == 0) {
+			return 0;
+		}
+		repository.resetByProductId(productId);
+		return productRepository.addQuantity(productId, companyId, quantity + delta);
+	}
+}
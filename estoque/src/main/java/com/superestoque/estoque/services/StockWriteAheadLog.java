@@ -0,0 +1,302 @@
+package com.superestoque.estoque.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.superestoque.estoque.entities.enums.MovementType;
+
+/**
+ * Log local de movimentações ainda não gravadas no banco, dividido em
+ * segmentos. Cada movimentação vira uma linha; a sincronização com o disco é
+ * feita em grupo, uma chamada a {@code force} cobre todas as linhas escritas
+ * até ali.
+ */
+class StockWriteAheadLog implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StockWriteAheadLog.class);
+
+	private static final String PREFIX = "stock-wal-";
+	private static final String SUFFIX = ".log";
+
+	// no Windows um diretório não abre como arquivo; lá o NTFS já registra a criação
+	private static final boolean SYNC_DIR = !System.getProperty("os.name").toLowerCase().startsWith("windows");
+
+	private final Path dir;
+
+	// locks explícitos: escrita e sincronização bloqueiam em disco e, dentro
+	// de synchronized, prenderiam a thread virtual à portadora
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final ReentrantLock syncLock = new ReentrantLock();
+
+	private final List<Path> closedSegments = new ArrayList<>();
+
+	private FileChannel channel;
+	private Path currentSegment;
+	private long nextSegment;
+
+	private long lastSeq;
+	private volatile long written;
+	private long synced;
+
+	StockWriteAheadLog(Path dir) {
+		this.dir = dir;
+		try {
+			Files.createDirectories(dir);
+			closedSegments.addAll(segments());
+			nextSegment = closedSegments.stream().mapToLong(StockWriteAheadLog::segmentNumber).max().orElse(0) + 1;
+			openSegment();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível abrir o log de estoque em " + dir, e);
+		}
+	}
+
+	/**
+	 * Lê as entradas dos segmentos que já existiam na abertura do log. Uma linha
+	 * incompleta no fim de um segmento é de uma escrita que nunca foi confirmada
+	 * e é ignorada.
+	 */
+	List<Entry> readExisting() {
+		List<Entry> entries = new ArrayList<>();
+		for (Path segment : closedSegments) {
+			try (Stream<String> lines = Files.lines(segment, StandardCharsets.UTF_8)) {
+				lines.forEach(line -> {
+					try {
+						entries.add(Entry.parse(line));
+					} catch (RuntimeException e) {
+						LOG.warn("Linha inválida ignorada no log de estoque {}: {}", segment, line);
+					}
+				});
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		entries.sort(Comparator.comparingLong(Entry::getSeq));
+		return entries;
+	}
+
+	void startAfter(long seq) {
+		writeLock.lock();
+		try {
+			lastSeq = Math.max(lastSeq, seq);
+			written = lastSeq;
+			synced = lastSeq;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	Entry append(Long productId, Long companyId, Long userId, MovementType type, int delta, String reason) {
+		writeLock.lock();
+		try {
+			Entry entry = new Entry(lastSeq + 1, productId, companyId, userId, type, delta, reason, Instant.now());
+			ByteBuffer buffer = ByteBuffer.wrap((entry.format() + "\n").getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			lastSeq = entry.getSeq();
+			written = lastSeq;
+			return entry;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao gravar o log de estoque.", e);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Garante que a entrada {@code seq} já está no disco. Quem chega enquanto
+	 * outra thread sincroniza aproveita a mesma chamada.
+	 */
+	void sync(long seq) {
+		syncLock.lock();
+		try {
+			if (synced >= seq) {
+				return;
+			}
+			long target = written;
+			channel.force(false);
+			synced = target;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao sincronizar o log de estoque.", e);
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Fecha o segmento atual e abre outro. Devolve todos os segmentos fechados
+	 * que ainda não foram descartados.
+	 */
+	List<Path> rotate() {
+		writeLock.lock();
+		syncLock.lock();
+		try {
+			channel.force(false);
+			synced = written;
+			channel.close();
+			closedSegments.add(currentSegment);
+			openSegment();
+			return new ArrayList<>(closedSegments);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao trocar o segmento do log de estoque.", e);
+		} finally {
+			syncLock.unlock();
+			writeLock.unlock();
+		}
+	}
+
+	void discard(List<Path> segments) {
+		writeLock.lock();
+		try {
+			for (Path segment : segments) {
+				try {
+					Files.deleteIfExists(segment);
+				} catch (IOException e) {
+					LOG.warn("Não foi possível remover o segmento {} do log de estoque", segment, e);
+				}
+				closedSegments.remove(segment);
+			}
+			try {
+				syncDir();
+			} catch (IOException e) {
+				LOG.warn("Não foi possível sincronizar o diretório do log de estoque {}", dir, e);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		writeLock.lock();
+		syncLock.lock();
+		try {
+			channel.force(false);
+			channel.close();
+		} finally {
+			syncLock.unlock();
+			writeLock.unlock();
+		}
+	}
+
+	private void openSegment() throws IOException {
+		currentSegment = dir.resolve(PREFIX + nextSegment++ + SUFFIX);
+		channel = FileChannel.open(currentSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		// sem isso o arquivo novo pode sumir numa queda, com as entradas já confirmadas
+		syncDir();
+	}
+
+	private void syncDir() throws IOException {
+		if (SYNC_DIR) {
+			try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+				directory.force(true);
+			}
+		}
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+					.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+					.sorted(Comparator.comparingLong(StockWriteAheadLog::segmentNumber)).toList();
+		}
+	}
+
+	private static long segmentNumber(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+	}
+
+	static final class Entry {
+
+		private final long seq;
+		private final Long productId;
+		private final Long companyId;
+		private final Long userId;
+		private final MovementType type;
+		private final int delta;
+		private final String reason;
+		private final Instant moment;
+
+		Entry(long seq, Long productId, Long companyId, Long userId, MovementType type, int delta, String reason,
+				Instant moment) {
+			this.seq = seq;
+			this.productId = productId;
+			this.companyId = companyId;
+			this.userId = userId;
+			this.type = type;
+			this.delta = delta;
+			this.reason = reason;
+			this.moment = moment;
+		}
+
+		private String format() {
+			String encodedReason = reason == null ? ""
+					: Base64.getEncoder().encodeToString(reason.getBytes(StandardCharsets.UTF_8));
+			return seq + ";" + productId + ";" + companyId + ";" + userId + ";" + type + ";" + delta + ";"
+					+ moment.toEpochMilli() + ";" + encodedReason;
+		}
+
+		private static Entry parse(String line) {
+			String[] fields = line.split(";", -1);
+			if (fields.length != 8) {
+				throw new IllegalArgumentException("Número de campos inválido.");
+			}
+			String reason = fields[7].isEmpty() ? null
+					: new String(Base64.getDecoder().decode(fields[7]), StandardCharsets.UTF_8);
+			return new Entry(Long.parseLong(fields[0]), Long.valueOf(fields[1]), Long.valueOf(fields[2]),
+					Long.valueOf(fields[3]), MovementType.valueOf(fields[4]), Integer.parseInt(fields[5]), reason,
+					Instant.ofEpochMilli(Long.parseLong(fields[6])));
+		}
+
+		long getSeq() {
+			return seq;
+		}
+
+		Long getProductId() {
+			return productId;
+		}
+
+		Long getCompanyId() {
+			return companyId;
+		}
+
+		Long getUserId() {
+			return userId;
+		}
+
+		MovementType getType() {
+			return type;
+		}
+
+		int getDelta() {
+			return delta;
+		}
+
+		String getReason() {
+			return reason;
+		}
+
+		Instant getMoment() {
+			return moment;
+		}
+	}
+}
@@ -0,0 +1,478 @@
+package com.superestoque.estoque.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.StockWalCheckpoint;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockWalCheckpointRepository;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Modo opcional de movimentação em que as variações de estoque são acumuladas
+ * em memória e gravadas no log local antes da resposta. A cada intervalo o
+ * acumulado de cada produto vira um único UPDATE, junto com os lançamentos do
+ * livro e o checkpoint do log, na mesma transação. Ao subir, as entradas do
+ * log depois do checkpoint são recarregadas.
+ * <p>
+ * O saldo em memória é o da linha do produto, a única parte que o UPDATE
+ * consome; as faixas não entram na conta da saída. Outras escritas no banco
+ * não passam por aqui, então o UPDATE só aplica a variação se a linha não
+ * ficar negativa. Quando o acumulado é recusado, as entradas são aplicadas uma
+ * a uma e as que ainda falham vão para {@code tb_stock_movement_dead_letter}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "stock.write-behind", name = "enabled", havingValue = "true")
+public class StockWriteBehindService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StockWriteBehindService.class);
+
+	private static final int STRIPES = 64;
+
+	private static final String SELECT_PRODUCT = "SELECT p.quantity AS row_quantity, " + StockShardService.TOTAL_QUANTITY
+			+ " AS quantity, p.company_id FROM tb_product p WHERE p.id = ?";
+
+	private static final String UPDATE_QUANTITY = "UPDATE tb_product SET stock_value = unit_value * (quantity + ?), "
+			+ "quantity = quantity + ?, version = version + 1 WHERE id = ? AND quantity + ? >= 0";
+
+	private static final String INSERT_MOVEMENT = "INSERT INTO tb_stock_movement "
+			+ "(product_id, user_id, type, quantity, resulting_quantity, reason, moment) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String INSERT_DEAD_LETTER = "INSERT INTO tb_stock_movement_dead_letter "
+			+ "(node_id, seq, product_id, company_id, user_id, type, quantity, reason, moment, error, failed_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+	private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final StockWalCheckpointRepository checkpointRepository;
+
+	private final ProductRepository productRepository;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final StockWriteAheadLog wal;
+
+	private final String nodeId;
+
+	private final long flushIntervalMs;
+
+	private final int recheckBelow;
+
+	private ScheduledExecutorService flusher;
+
+	public StockWriteBehindService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			StockWalCheckpointRepository checkpointRepository, ProductRepository productRepository,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${stock.write-behind.wal-dir:./wal}") String walDir,
+			@Value("${stock.write-behind.node-id:local}") String nodeId,
+			@Value("${stock.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+			@Value("${stock.write-behind.recheck-below:10}") int recheckBelow) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.checkpointRepository = checkpointRepository;
+		this.productRepository = productRepository;
+		this.eventPublisher = eventPublisher;
+		this.wal = new StockWriteAheadLog(Path.of(walDir));
+		this.nodeId = nodeId;
+		this.flushIntervalMs = flushIntervalMs;
+		this.recheckBelow = recheckBelow;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	@PostConstruct
+	void start() {
+		recover();
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "StockFlusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() throws IOException {
+		if (flusher != null) {
+			flusher.shutdown();
+		}
+		flushQuietly();
+		wal.close();
+	}
+
+	/**
+	 * Recarrega as entradas do log que ainda não chegaram ao banco. Os segmentos
+	 * antigos só são apagados depois do próximo flush bem-sucedido.
+	 */
+	void recover() {
+		long checkpoint = checkpointRepository.findById(nodeId).map(StockWalCheckpoint::getLastSeq).orElse(0L);
+		long lastSeq = checkpoint;
+		int replayed = 0;
+		for (StockWriteAheadLog.Entry entry : wal.readExisting()) {
+			lastSeq = Math.max(lastSeq, entry.getSeq());
+			if (entry.getSeq() > checkpoint) {
+				Pending p = pending.computeIfAbsent(entry.getProductId(), id -> new Pending());
+				p.companyId = entry.getCompanyId();
+				p.entries.add(entry);
+				replayed++;
+			}
+		}
+		wal.startAfter(lastSeq);
+		if (replayed > 0) {
+			LOG.warn("Recuperadas {} movimentações de estoque do log local ainda não gravadas no banco", replayed);
+		}
+	}
+
+	/**
+	 * Acumula a variação e só retorna depois que ela está no disco. O saldo
+	 * devolvido é o previsto; o lançamento ganha id quando for gravado no banco.
+	 * Uma saída que deixaria pouco estoque confere antes o saldo no banco.
+	 */
+	public StockMovementDTO submit(Long productId, AuthenticatedUser user, MovementType type, int delta,
+			String reason) {
+		ReentrantLock lock = stripe(productId);
+		StockWriteAheadLog.Entry entry;
+		long expected;
+		lock.lock();
+		try {
+			Pending p = pending.computeIfAbsent(productId, id -> new Pending());
+			boolean loaded = p.base == null;
+			if (loaded) {
+				load(productId, p);
+			}
+			if (p.companyId == null || !p.companyId.equals(user.getCompanyId())) {
+				throw new ResourceNotFoundException("Produto não encontrado.");
+			}
+			expected = p.available() + delta;
+			// com um flush em andamento o banco já pode conter parte do acumulado
+			if (!loaded && delta < 0 && expected < recheckBelow && p.inFlight.isEmpty()) {
+				read(productId, p);
+				expected = p.available() + delta;
+			}
+			if (expected < 0) {
+				throw new ValidMultiFormDataException("Estoque insuficiente para a saída.");
+			}
+			entry = wal.append(productId, user.getCompanyId(), user.getId(), type, delta, reason);
+			p.entries.add(entry);
+			expected += p.shards;
+		} finally {
+			lock.unlock();
+		}
+		try {
+			wal.sync(entry.getSeq());
+		} catch (RuntimeException e) {
+			discard(productId, entry, e);
+		}
+		return new StockMovementDTO(null, productId, type, delta, (int) expected, reason, user.getUsername(),
+				entry.getMoment());
+	}
+
+	/**
+	 * Aplica o acumulado de cada produto em um UPDATE e grava os lançamentos e o
+	 * checkpoint na mesma transação. Em caso de erro as entradas voltam para a
+	 * fila e os segmentos do log são mantidos. Entradas recusadas pelo banco
+	 * ficam guardadas em {@code tb_stock_movement_dead_letter}.
+	 */
+	public void flush() {
+		flushLock.lock();
+		try {
+			Map<Long, Pending> batch = new HashMap<>();
+			List<Path> segments;
+			lockAll();
+			try {
+				segments = wal.rotate();
+				pending.forEach((productId, p) -> {
+					if (!p.entries.isEmpty()) {
+						p.inFlight = p.entries;
+						p.entries = new ArrayList<>();
+						batch.put(productId, p);
+					}
+				});
+			} finally {
+				unlockAll();
+			}
+			if (batch.isEmpty()) {
+				wal.discard(segments);
+				return;
+			}
+			Map<Long, Integer> totals = new HashMap<>();
+			batch.forEach((productId, p) -> totals.put(productId, p.inFlightDelta()));
+			Map<Long, int[]> applied;
+			try {
+				applied = transactionTemplate.execute(status -> apply(batch, totals));
+			} catch (RuntimeException e) {
+				batch.forEach((productId, p) -> {
+					ReentrantLock lock = stripe(productId);
+					lock.lock();
+					try {
+						p.entries.addAll(0, p.inFlight);
+						p.inFlight = Collections.emptyList();
+					} finally {
+						lock.unlock();
+					}
+				});
+				throw e;
+			}
+			batch.forEach((productId, p) -> {
+				ReentrantLock lock = stripe(productId);
+				lock.lock();
+				try {
+					int[] quantities = applied.get(productId);
+					p.base = quantities == null ? null : (long) quantities[2];
+					p.shards = quantities == null ? 0 : quantities[0] - quantities[2];
+					p.inFlight = Collections.emptyList();
+					if (p.entries.isEmpty() || quantities == null) {
+						pending.remove(productId);
+					}
+				} finally {
+					lock.unlock();
+				}
+			});
+			wal.discard(segments);
+			LOG.info("Gravadas no banco as movimentações acumuladas de {} produtos", applied.size());
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	long pendingDelta(Long productId) {
+		Pending p = pending.get(productId);
+		return p == null ? 0 : p.entries.stream().mapToLong(StockWriteAheadLog.Entry::getDelta).sum();
+	}
+
+	private Map<Long, int[]> apply(Map<Long, Pending> batch, Map<Long, Integer> totals) {
+		List<Long> ids = new ArrayList<>(batch.keySet());
+		List<Object[]> updates = new ArrayList<>();
+		long lastSeq = 0;
+		for (Long id : ids) {
+			int total = totals.get(id);
+			updates.add(new Object[] { total, total, id, total });
+			for (StockWriteAheadLog.Entry entry : batch.get(id).inFlight) {
+				lastSeq = Math.max(lastSeq, entry.getSeq());
+			}
+		}
+		int[] counts = jdbcTemplate.batchUpdate(UPDATE_QUANTITY, updates);
+
+		// acumulado recusado: cada entrada é tentada sozinha, na ordem em que foi aceita
+		Map<Long, List<StockWriteAheadLog.Entry>> applied = new HashMap<>();
+		List<StockWriteAheadLog.Entry> refused = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			Long id = ids.get(i);
+			List<StockWriteAheadLog.Entry> entries = batch.get(id).inFlight;
+			if (counts[i] > 0) {
+				applied.put(id, entries);
+				continue;
+			}
+			List<StockWriteAheadLog.Entry> accepted = new ArrayList<>();
+			for (StockWriteAheadLog.Entry entry : entries) {
+				int delta = entry.getDelta();
+				if (jdbcTemplate.update(UPDATE_QUANTITY, delta, delta, id, delta) > 0) {
+					accepted.add(entry);
+				} else {
+					refused.add(entry);
+				}
+			}
+			applied.put(id, accepted);
+		}
+
+		String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+		Map<Long, int[]> quantities = new HashMap<>();
+		Map<Long, Long> shardVersions = new HashMap<>();
+		jdbcTemplate.query("SELECT p.id, " + StockShardService.TOTAL_QUANTITY
+				+ " AS quantity, p.critical_quantity, p.quantity AS row_quantity, " + StockShardService.SHARD_VERSION
+				+ " AS shard_version FROM tb_product p WHERE p.id IN ("
+				+ placeholders + ")",
+				rs -> {
+					quantities.put(rs.getLong("id"), new int[] { rs.getInt("quantity"), rs.getInt("critical_quantity"),
+							rs.getInt("row_quantity") });
+					shardVersions.put(rs.getLong("id"), rs.getLong("shard_version"));
+				}, ids.toArray());
+
+		if (!refused.isEmpty()) {
+			park(refused, quantities.keySet());
+		}
+
+		Map<Long, Integer> appliedTotals = new HashMap<>();
+		List<Object[]> movements = new ArrayList<>();
+		quantities.forEach((id, values) -> {
+			List<StockWriteAheadLog.Entry> entries = applied.get(id);
+			if (entries.isEmpty()) {
+				return;
+			}
+			int total = entries.stream().mapToInt(StockWriteAheadLog.Entry::getDelta).sum();
+			appliedTotals.put(id, total);
+			int running = values[0] - total;
+			for (StockWriteAheadLog.Entry entry : entries) {
+				running += entry.getDelta();
+				movements.add(new Object[] { id, entry.getUserId(), entry.getType().name(), entry.getDelta(), running,
+						entry.getReason(), Timestamp.from(entry.getMoment()) });
+			}
+		});
+		jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements);
+		for (Product product : productRepository.findWithCategoriesByIdIn(appliedTotals.keySet())) {
+			int quantity = quantities.get(product.getId())[0];
+			product.setShardVersion(shardVersions.get(product.getId()));
+			ProductSnapshot after = ProductSnapshot.of(product).withQuantity(quantity);
+			eventPublisher.publishEvent(
+					new ProductChangedEvent(after.withQuantity(quantity - appliedTotals.get(product.getId())), after));
+		}
+
+		StockWalCheckpoint checkpoint = checkpointRepository.findById(nodeId)
+				.orElseGet(() -> new StockWalCheckpoint(nodeId, 0));
+		checkpoint.setLastSeq(Math.max(checkpoint.getLastSeq(), lastSeq));
+		checkpointRepository.save(checkpoint);
+		return quantities;
+	}
+
+	/**
+	 * Guarda as entradas recusadas pelo banco na mesma transação do
+	 * checkpoint: se a gravação falhar, o checkpoint não passa delas e o flush
+	 * tenta de novo.
+	 */
+	private void park(List<StockWriteAheadLog.Entry> refused, Set<Long> existing) {
+		Timestamp now = Timestamp.from(Instant.now());
+		List<Object[]> deadLetters = new ArrayList<>();
+		for (StockWriteAheadLog.Entry entry : refused) {
+			String error = existing.contains(entry.getProductId()) ? "Estoque insuficiente." : "Produto não encontrado.";
+			deadLetters.add(new Object[] { nodeId, entry.getSeq(), entry.getProductId(), entry.getCompanyId(),
+					entry.getUserId(), entry.getType().name(), entry.getDelta(), entry.getReason(),
+					Timestamp.from(entry.getMoment()), error, now });
+		}
+		jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER, deadLetters);
+		LOG.warn("{} movimentações recusadas pelo banco guardadas em tb_stock_movement_dead_letter", refused.size());
+	}
+
+	private void load(Long productId, Pending p) {
+		read(productId, p);
+		if (p.base == null) {
+			pending.remove(productId);
+			throw new ResourceNotFoundException("Produto não encontrado.");
+		}
+	}
+
+	/**
+	 * Saldo atual da linha do produto, sem o acumulado que ainda não foi
+	 * gravado.
+	 */
+	private void read(Long productId, Pending p) {
+		jdbcTemplate.query(SELECT_PRODUCT, rs -> {
+			p.base = rs.getLong("row_quantity");
+			p.shards = rs.getLong("quantity") - p.base;
+			p.companyId = rs.getLong("company_id");
+		}, productId);
+	}
+
+	/**
+	 * A entrada não chegou ao disco: sai da fila para não ser gravada depois de
+	 * o erro ter sido devolvido. Se o flush já a levou, ela segue para o banco.
+	 */
+	private void discard(Long productId, StockWriteAheadLog.Entry entry, RuntimeException e) {
+		ReentrantLock lock = stripe(productId);
+		lock.lock();
+		try {
+			Pending p = pending.get(productId);
+			if (p != null && p.entries.remove(entry)) {
+				throw e;
+			}
+		} finally {
+			lock.unlock();
+		}
+		LOG.warn("Falha ao sincronizar o log local; a movimentação {} já estava sendo gravada no banco", entry.getSeq(), e);
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			LOG.error("Erro ao gravar as movimentações acumuladas; nova tentativa no próximo intervalo", e);
+		}
+	}
+
+	private ReentrantLock stripe(Long productId) {
+		return stripes[Math.floorMod(productId.hashCode(), STRIPES)];
+	}
+
+	private void lockAll() {
+		for (ReentrantLock lock : stripes) {
+			lock.lock();
+		}
+	}
+
+	private void unlockAll() {
+		for (int i = STRIPES - 1; i >= 0; i--) {
+			stripes[i].unlock();
+		}
+	}
+
+	/**
+	 * Estado de um produto: saldo da linha conhecido no último flush, o que está
+	 * nas faixas, entradas ainda não
+	 * enviadas e as que estão sendo gravadas agora. Protegido pelo lock da faixa
+	 * do produto.
+	 */
+	private static final class Pending {
+
+		private Long base;
+		private long shards;
+		private Long companyId;
+		private List<StockWriteAheadLog.Entry> entries = new ArrayList<>();
+		private List<StockWriteAheadLog.Entry> inFlight = Collections.emptyList();
+
+		private long available() {
+			long total = base;
+			for (StockWriteAheadLog.Entry entry : inFlight) {
+				total += entry.getDelta();
+			}
+			for (StockWriteAheadLog.Entry entry : entries) {
+				total += entry.getDelta();
+			}
+			return total;
+		}
+
+		private int inFlightDelta() {
+			return inFlight.stream().mapToInt(StockWriteAheadLog.Entry::getDelta).sum();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.superestoque.estoque.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+/**
+ * Gera, fora da thread da requisição, miniaturas JPEG de tamanho fixo para as
+ * imagens do armazenamento. A listagem usa a menor rendição útil e o original
+ * só é baixado quando o cliente pede. Cada imagem tem no máximo uma geração
+ * em andamento por nó, e as que não podem ter miniaturas ficam marcadas no
+ * armazenamento e não são lidas de novo.
+ */
+@Service
+public class ThumbnailService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ThumbnailService.class);
+
+	public static final List<Integer> SIZES = List.of(64, 256, 1024);
+
+	public static final int LISTING_SIZE = 256;
+
+	private static final float JPEG_QUALITY = 0.85f;
+
+	private final ImageStorageService imageStorageService;
+
+	private final Executor imageExecutor;
+
+	// hashes com geração na fila ou em andamento neste nó
+	private final Set<String> generating = ConcurrentHashMap.newKeySet();
+
+	public ThumbnailService(ImageStorageService imageStorageService,
+			@Qualifier("imageExecutor") Executor imageExecutor) {
+		this.imageStorageService = imageStorageService;
+		this.imageExecutor = imageExecutor;
+	}
+
+	/**
+	 * Agenda a geração fora da thread atual. Não faz nada se a imagem já está
+	 * sendo gerada ou foi marcada como sem miniaturas; com a fila cheia, a
+	 * próxima chamada tenta de novo.
+	 */
+	public void generate(String hash) {
+		if (imageStorageService.isUnrenderable(hash) || !generating.add(hash)) {
+			return;
+		}
+		try {
+			imageExecutor.execute(() -> {
+				try {
+					createRenditions(hash);
+				} catch (RuntimeException e) {
+					LOG.error("Erro ao gerar miniaturas da imagem {}", hash, e);
+				} finally {
+					generating.remove(hash);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			generating.remove(hash);
+			LOG.warn("Fila de miniaturas cheia, imagem {} fica para o próximo acesso", hash);
+		}
+	}
+
+	public void createRenditions(String hash) {
+		if (imageStorageService.isUnrenderable(hash)) {
+			return;
+		}
+		List<Integer> missing = SIZES.stream()
+				.filter(size -> imageStorageService.findRendition(hash, size).isEmpty()).toList();
+		if (missing.isEmpty()) {
+			return;
+		}
+		byte[] content = imageStorageService.read(hash);
+		try {
+			imageStorageService.checkDimensions(content);
+		} catch (ValidMultiFormDataException e) {
+			LOG.warn("Imagem {} recusada, miniaturas não geradas: {}", hash, e.getMessage());
+			imageStorageService.markUnrenderable(hash);
+			return;
+		}
+		BufferedImage original = decode(content);
+		if (original == null) {
+			LOG.warn("Imagem {} em formato não suportado, miniaturas não geradas", hash);
+			imageStorageService.markUnrenderable(hash);
+			return;
+		}
+		for (int size : missing) {
+			imageStorageService.storeRendition(hash, size, encode(scale(original, size)));
+		}
+	}
+
+	public static boolean isSupported(int size) {
+		return SIZES.contains(size);
+	}
+
+	private static BufferedImage decode(byte[] content) {
+		try {
+			return ImageIO.read(new ByteArrayInputStream(content));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reduz pela metade enquanto possível antes do passo final, o que evita o
+	 * serrilhado da interpolação bilinear em reduções grandes.
+	 */
+	static BufferedImage scale(BufferedImage source, int size) {
+		double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+		int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+		int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+		BufferedImage current = source;
+		int currentWidth = source.getWidth();
+		int currentHeight = source.getHeight();
+		do {
+			currentWidth = Math.max(width, currentWidth / 2);
+			currentHeight = Math.max(height, currentHeight / 2);
+			current = draw(current, currentWidth, currentHeight);
+		} while (currentWidth != width || currentHeight != height);
+		return current;
+	}
+
+	private static BufferedImage draw(BufferedImage source, int width, int height) {
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.setColor(Color.WHITE);
+			graphics.fillRect(0, 0, width, height);
+			graphics.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return target;
+	}
+
+	private static byte[] encode(BufferedImage image) {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionQuality(JPEG_QUALITY);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+			writer.setOutput(stream);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Erro ao gerar miniatura", e);
+		} finally {
+			writer.dispose();
+		}
+		return out.toByteArray();
+	}
+}
@@ -44,15 +44,19 @@ public class UserService implements UserDetailsService {
 
 	private final PasswordResetTokenRepository passwordResetTokenRepository;
 
-	private final EmailService emailService;
+	private final EmailOutboxService emailOutboxService;
+
+	private final ImageStorageService imageStorageService;
 
 	public UserService(UserRepository repository, RoleRepository roleRepository, AuthService authService,
-			PasswordResetTokenRepository passwordResetTokenRepository, EmailService emailService) {
+			PasswordResetTokenRepository passwordResetTokenRepository, EmailOutboxService emailOutboxService,
+			ImageStorageService imageStorageService) {
 		this.repository = repository;
 		this.roleRepository = roleRepository;
 		this.authService = authService;
 		this.passwordResetTokenRepository = passwordResetTokenRepository;
-		this.emailService = emailService;
+		this.emailOutboxService = emailOutboxService;
+		this.imageStorageService = imageStorageService;
 	}
 
 	@Transactional
@@ -113,6 +117,7 @@ public class UserService implements UserDetailsService {
 		}
 		repository.save(user);
 		LOG.info("Atualizado senha do usuário {} com sucesso.", email);
+		authService.invalidate();
 	}
 
 	@Transactional
@@ -122,6 +127,7 @@ public class UserService implements UserDetailsService {
 		updateUserRole(user, roleId);
 		repository.save(user);
 		LOG.info("Atualizado perfil do usuário {} para o perfil {} com sucesso.", id, roleId);
+		authService.invalidate();
 	}
 
 	@Transactional
@@ -133,18 +139,30 @@ public class UserService implements UserDetailsService {
 			user.setPassword(passwordEncoder.encode(entity.getPassword()));
 		}
 		if (entity.getPhoto() != null && entity.getPhoto().length > 0) {
-			user.setPhoto(entity.getPhoto());
+			user.setPhotoHash(imageStorageService.storeUpload(entity.getPhoto()));
 		}
+		authService.invalidate();
 	}
 
 	@Transactional
 	public UserPhoto getUserPhoto(String email) {
 		Optional<User> obj = repository.getByEmail(email);
 		User user = obj.orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado."));
-		UserPhoto entity = new UserPhoto(user.getPhoto());
+		byte[] photo = user.getPhotoHash() == null ? null : imageStorageService.read(user.getPhotoHash());
+		UserPhoto entity = new UserPhoto(photo);
 		return entity;
 	}
 
+	@Transactional
+	public String findAvatarHash(String email) {
+		Optional<User> obj = repository.getByEmail(email);
+		User user = obj.orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado."));
+		if (user.getPhotoHash() == null) {
+			throw new ResourceNotFoundException("Usuário sem foto.");
+		}
+		return user.getPhotoHash();
+	}
+
 	@Transactional
 	public void generatePasswordResetToken(String email) {
 		LOG.info("Gerando token de recuperação de senha para o usuário {}", email);
@@ -162,7 +180,7 @@ public class UserService implements UserDetailsService {
 		passwordResetTokenRepository.save(passwordResetToken);
 		LOG.info("Enviando token de recuperação de senha para o usuário {}", email);
 
-		emailService.sendPasswordResetEmail(user, token);
+		emailOutboxService.enqueuePasswordReset(user, token);
 	}
 
 	@Transactional
@@ -189,7 +207,9 @@ public class UserService implements UserDetailsService {
 		user.setName(dto.getName());
 		user.setPassword(passwordEncoder.encode(dto.getPassword()));
 		user.setEmail(dto.getEmail());
-		user.setPhoto(dto.getPhoto());
+		if (dto.getPhoto() != null && dto.getPhoto().length > 0) {
+			user.setPhotoHash(imageStorageService.storeUpload(dto.getPhoto()));
+		}
 		for (Long id : roles) {
 			Role roleEntity = roleRepository.getReferenceById(id);
 			user.getRoles().add(roleEntity);
@@ -202,10 +222,11 @@ public class UserService implements UserDetailsService {
 	}
 
 	private void updateUserRole(User user, Long roleId) {
-		Optional<Role> obj = roleRepository.findById(roleId);
-		Role role = obj.orElseThrow(() -> new ResourceNotFoundException("Role não encontrada."));
+		if (!roleRepository.existsById(roleId)) {
+			throw new ResourceNotFoundException("Role não encontrada.");
+		}
 		user.getRoles().clear();
-		user.getRoles().add(role);
+		user.getRoles().add(roleRepository.getReferenceById(roleId));
 	}
 
 	private void validUser(UserInsertDTO user) {
@@ -0,0 +1,44 @@
+package com.superestoque.estoque.services.events;
+
+/**
+ * Publicado em toda criação, edição, remoção ou movimentação de estoque de um
+ * produto. {@code before} é nulo na criação e {@code after} na remoção. Os
+ * ouvintes recebem o evento só depois do commit.
+ */
+public final class ProductChangedEvent {
+
+	private final ProductSnapshot before;
+	private final ProductSnapshot after;
+
+	public ProductChangedEvent(ProductSnapshot before, ProductSnapshot after) {
+		if (before == null && after == null) {
+			throw new IllegalArgumentException("O evento precisa de ao menos um estado do produto.");
+		}
+		this.before = before;
+		this.after = after;
+	}
+
+	public static ProductChangedEvent created(ProductSnapshot after) {
+		return new ProductChangedEvent(null, after);
+	}
+
+	public static ProductChangedEvent deleted(ProductSnapshot before) {
+		return new ProductChangedEvent(before, null);
+	}
+
+	public ProductSnapshot getBefore() {
+		return before;
+	}
+
+	public ProductSnapshot getAfter() {
+		return after;
+	}
+
+	public Long getCompanyId() {
+		return after != null ? after.getCompanyId() : before.getCompanyId();
+	}
+
+	public Long getProductId() {
+		return after != null ? after.getId() : before.getId();
+	}
+}
@@ -0,0 +1,106 @@
+package com.superestoque.estoque.services.events;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.superestoque.estoque.entities.Category;
+import com.superestoque.estoque.entities.Product;
+
+/**
+ * Cópia imutável dos campos de um produto que interessam aos agregados e
+ * alertas, tirada dentro da transação que alterou o produto. A versão
+ * permite descartar eventos que chegam fora de ordem.
+ */
+public final class ProductSnapshot {
+
+	private final Long id;
+	private final Long companyId;
+	private final String name;
+	private final String photoHash;
+	private final int quantity;
+	private final int criticalQuantity;
+	private final BigDecimal unitValue;
+	private final BigDecimal stockValue;
+	private final Set<Long> categoryIds;
+	private final long version;
+
+	public ProductSnapshot(Long id, Long companyId, String name, String photoHash, int quantity, int criticalQuantity,
+			BigDecimal unitValue, BigDecimal stockValue, Set<Long> categoryIds) {
+		this(id, companyId, name, photoHash, quantity, criticalQuantity, unitValue, stockValue, categoryIds, 0);
+	}
+
+	public ProductSnapshot(Long id, Long companyId, String name, String photoHash, int quantity, int criticalQuantity,
+			BigDecimal unitValue, BigDecimal stockValue, Set<Long> categoryIds, long version) {
+		this.id = id;
+		this.companyId = companyId;
+		this.name = name;
+		this.photoHash = photoHash;
+		this.quantity = quantity;
+		this.criticalQuantity = criticalQuantity;
+		this.unitValue = unitValue;
+		this.stockValue = stockValue;
+		this.categoryIds = Set.copyOf(categoryIds);
+		this.version = version;
+	}
+
+	public static ProductSnapshot of(Product product) {
+		return new ProductSnapshot(product.getId(), product.getCompany().getId(), product.getName(),
+				product.getPhotoHash(), product.getQuantity(), product.getCritical_quantity(), product.getUnitValue(),
+				product.getStockValue(), product.getCategories().stream().map(Category::getId).collect(Collectors.toSet()),
+				product.getStockVersion());
+	}
+
+	/**
+	 * O mesmo produto com outra quantidade e o valor do estoque recalculado.
+	 */
+	public ProductSnapshot withQuantity(int quantity) {
+		BigDecimal value = unitValue == null ? stockValue : unitValue.multiply(new BigDecimal(quantity));
+		return new ProductSnapshot(id, companyId, name, photoHash, quantity, criticalQuantity, unitValue, value,
+				categoryIds, version);
+	}
+
+	public boolean isCritical() {
+		return quantity <= criticalQuantity;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPhotoHash() {
+		return photoHash;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public int getCriticalQuantity() {
+		return criticalQuantity;
+	}
+
+	public BigDecimal getUnitValue() {
+		return unitValue;
+	}
+
+	public BigDecimal getStockValue() {
+		return stockValue;
+	}
+
+	public Set<Long> getCategoryIds() {
+		return categoryIds;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+}
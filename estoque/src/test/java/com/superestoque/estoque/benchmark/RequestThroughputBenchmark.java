@@ -0,0 +1,104 @@
+package com.superestoque.estoque.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/**
+ * Vazão de GET /products/{id} com muitos clientes simultâneos, cada um
+ * mandando a próxima requisição assim que recebe a resposta. Não roda com os
+ * testes; para comparar os dois modos em Java 21:
+ *
+ * <pre>
+ * mvn test -Pjava21 -Dtest=RequestThroughputBenchmark -Dvirtual.threads=false
+ * mvn test -Pjava21 -Dtest=RequestThroughputBenchmark
+ * </pre>
+ *
+ * Clientes e duração: {@code -Dbenchmark.clients=1000 -Dbenchmark.seconds=30}.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class RequestThroughputBenchmark {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RequestThroughputBenchmark.class);
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${security.client-id}")
+	private String clientId;
+
+	@Value("${security.client-secret}")
+	private String clientSecret;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Test
+	void measureThroughput() throws Exception {
+		int clients = Integer.getInteger("benchmark.clients", 1000);
+		int seconds = Integer.getInteger("benchmark.seconds", 30);
+		HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/2"))
+				.header("Authorization", "Bearer " + accessToken(http)).timeout(Duration.ofSeconds(60)).GET().build();
+
+		LongAdder completed = new LongAdder();
+		LongAdder errors = new LongAdder();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		List<CompletableFuture<Void>> loops = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			loops.add(loop(http, request, deadline, completed, errors));
+		}
+		CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).get(seconds + 120L, TimeUnit.SECONDS);
+
+		LOG.info("Threads {}: {} clientes, {} requisições em {} s ({} req/s), {} erros",
+				virtualThreads ? "virtuais" : "de plataforma", clients, completed.sum(), seconds,
+				completed.sum() / seconds, errors.sum());
+		Assertions.assertTrue(completed.sum() > 0);
+	}
+
+	private static CompletableFuture<Void> loop(HttpClient http, HttpRequest request, long deadline,
+			LongAdder completed, LongAdder errors) {
+		if (System.nanoTime() >= deadline) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).handle((response, error) -> {
+			if (error == null && response.statusCode() == 200) {
+				completed.increment();
+			} else {
+				errors.increment();
+			}
+			return null;
+		}).thenCompose(ignored -> loop(http, request, deadline, completed, errors));
+	}
+
+	private String accessToken(HttpClient http) throws Exception {
+		String form = "grant_type=password&username=alex.brown@ifpe.com&password=123456";
+		String basic = Base64.getEncoder()
+				.encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth2/token"))
+				.header("Authorization", "Basic " + basic).header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form)).build();
+		String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+		return new JacksonJsonParser().parseMap(body).get("access_token").toString();
+	}
+}
@@ -6,19 +6,25 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.config.CacheConfig;
 import com.superestoque.estoque.entities.dto.CategoryDTO;
 import com.superestoque.estoque.token.TokenUtil;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 
 @SpringBootTest
@@ -35,6 +41,12 @@ class CategoryControllerIT {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	private String adminUsername;
 	private String operatorUsername;
 	private String password;
@@ -64,6 +76,39 @@ class CategoryControllerIT {
 		result.andExpect(jsonPath("$").isArray());
 	}
 
+	// sem transação de teste: o cache só é preenchido após o commit
+	@Test
+	@Transactional(Transactional.TxType.NOT_SUPPORTED)
+	void findAllShouldBeServedFromCacheOnSecondCall() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		try {
+			mockMvc.perform(get("/categories").header("Authorization", "Bearer " + accessToken))
+					.andExpect(status().isOk());
+			statistics.clear();
+
+			mockMvc.perform(get("/categories").header("Authorization", "Bearer " + accessToken))
+					.andExpect(status().isOk()).andExpect(jsonPath("$").isArray());
+
+			Assertions.assertEquals(0, statistics.getPrepareStatementCount(), statistics.toString());
+			mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:" + CacheConfig.CATEGORIES)
+					.param("tag", "result:hit").header("Authorization", "Bearer " + accessToken))
+					.andExpect(status().isOk()).andExpect(jsonPath("$.measurements[0].value").value(1.0));
+		} finally {
+			cacheManager.getCache(CacheConfig.CATEGORIES).clear();
+		}
+	}
+
+	@Test
+	void cacheMetricsShouldReturnForbiddenWhenAuthenticatedAsOperator() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		ResultActions result = mockMvc.perform(
+				get("/actuator/caches").header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isForbidden());
+	}
+
 	@Test
 	void findAllShouldReturnUnauthorizedWhenNoTokenProvided() throws Exception {
 		ResultActions result = mockMvc.perform(get("/categories").contentType(MediaType.APPLICATION_JSON));
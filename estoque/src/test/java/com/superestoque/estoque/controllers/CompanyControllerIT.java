@@ -1,6 +1,8 @@
 package com.superestoque.estoque.controllers;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
@@ -57,6 +60,30 @@ class CompanyControllerIT {
 		result.andExpect(jsonPath("$.name").isNotEmpty());
 	}
 
+	@Test
+	void searchUserMyCompanyShouldReturnPagedProjectionWithoutPhotoBytes() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/company/users/search").param("role", "OPERATOR")
+				.param("size", "1").param("sort", "name").header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1));
+		result.andExpect(jsonPath("$.content[0].email").value("maria.green@ifpe.com"));
+		result.andExpect(jsonPath("$.content[0].photo").doesNotExist());
+		result.andExpect(jsonPath("$.content[0].roles").doesNotExist());
+	}
+
+	@Test
+	void searchUserMyCompanyShouldReturnForbiddenWhenOperatorAuthenticated() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		ResultActions result = mockMvc
+				.perform(get("/company/users/search").header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isForbidden());
+	}
+
 	@Test
 	void getMyCompanyShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
 		ResultActions result = mockMvc.perform(get("/company").contentType(MediaType.APPLICATION_JSON));
@@ -91,6 +118,26 @@ class CompanyControllerIT {
 		result.andExpect(status().isOk());
 		result.andExpect(jsonPath("$.id").isNotEmpty());
 		result.andExpect(jsonPath("$.name").value("New Company Name"));
+		result.andExpect(jsonPath("$.photoUrl").value(startsWith("/images/")));
+		result.andExpect(jsonPath("$.photo").doesNotExist());
+	}
+
+	@Test
+	void getLogoShouldRedirectToImmutableImageUrl() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		MockMultipartFile photo = new MockMultipartFile("photo", "photo.jpg", "image/jpeg",
+				"fake-image-data".getBytes());
+		mockMvc.perform(MockMvcRequestBuilders.multipart("/company/{id}", existingId).file(photo)
+				.param("name", "New Company Name").header("Authorization", "Bearer " + accessToken)
+				.contentType(MediaType.MULTIPART_FORM_DATA).with(request -> {
+					request.setMethod("PUT");
+					return request;
+				}));
+
+		ResultActions result = mockMvc.perform(get("/company/logo").header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isFound());
+		result.andExpect(header().string(HttpHeaders.LOCATION, startsWith("/images/")));
 	}
 
 	@Test
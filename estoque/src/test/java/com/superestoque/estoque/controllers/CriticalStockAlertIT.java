@@ -0,0 +1,197 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.services.CriticalStockAlertService;
+import com.superestoque.estoque.services.EmailOutboxService;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+import com.superestoque.estoque.token.TokenUtil;
+
+@SpringBootTest(properties = { "email.outbox.poll-ms=3600000", "spring.datasource.url=jdbc:h2:mem:criticalalerts" })
+@AutoConfigureMockMvc
+class CriticalStockAlertIT {
+
+	// seed: produtos 1 e 2 da empresa 1, produto 4 da empresa 2
+	private static final int LOW_QUANTITY = 1;
+	private static final int QUANTITY = 100;
+	private static final int OTHER_COMPANY_QUANTITY = 3;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private CriticalStockAlertService service;
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM tb_critical_stock_alert");
+		jdbcTemplate.update("DELETE FROM tb_email_outbox");
+		jdbcTemplate.update("DELETE FROM tb_stock_movement");
+		setQuantity(1L, LOW_QUANTITY);
+		setQuantity(2L, QUANTITY);
+		setQuantity(4L, OTHER_COMPANY_QUANTITY);
+	}
+
+	@Test
+	void movementShouldRecordAlertInItsTransaction() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, "alex.brown@ifpe.com", "123456");
+
+		mockMvc.perform(post("/products/{id}/movements", 2L).header("Authorization", "Bearer " + accessToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new StockMovementDTO(MovementType.OUT, 95, null))))
+				.andExpect(status().isCreated());
+
+		Assertions.assertEquals(List.of(2L), pendingAlerts());
+	}
+
+	@Test
+	void sendDigestsShouldGroupAlertsIntoOneEmailPerCompanyOrderedByDeficit() throws Exception {
+		setQuantity(2L, 0);
+		setQuantity(4L, 0);
+		for (int quantity = 5; quantity > 0; quantity--) {
+			service.onProductChanged(new ProductChangedEvent(snapshot(1L, 1L, quantity + 1), snapshot(1L, 1L, quantity)));
+		}
+		service.onProductChanged(ProductChangedEvent.created(snapshot(2L, 1L, 0)));
+		service.onProductChanged(ProductChangedEvent.created(snapshot(4L, 2L, 0)));
+
+		service.sendDigests();
+
+		List<JsonNode> digests = digests();
+		Assertions.assertEquals(2, digests.size());
+		JsonNode company = digests.stream().filter(digest -> digest.get("companyId").asLong() == 1L).findFirst()
+				.orElseThrow();
+		Assertions.assertEquals(2L, company.get("products").get(0).get("id").asLong());
+		Assertions.assertEquals(1L, company.get("products").get(1).get("id").asLong());
+		Assertions.assertEquals(LOW_QUANTITY, company.get("products").get(1).get("quantity").asInt());
+		Assertions.assertTrue(pendingAlerts().isEmpty());
+	}
+
+	@Test
+	void sendDigestsShouldSkipProductsAlreadyAlertedWithinWindow() throws Exception {
+		service.onProductChanged(ProductChangedEvent.created(snapshot(1L, 1L, LOW_QUANTITY)));
+		service.sendDigests();
+
+		service.onProductChanged(new ProductChangedEvent(snapshot(1L, 1L, 2), snapshot(1L, 1L, LOW_QUANTITY)));
+		service.sendDigests();
+
+		Assertions.assertEquals(1, digests().size());
+	}
+
+	@Test
+	void sendDigestsShouldAlertAgainAfterWindow() throws Exception {
+		service.onProductChanged(ProductChangedEvent.created(snapshot(1L, 1L, LOW_QUANTITY)));
+		service.sendDigests();
+		jdbcTemplate.update("UPDATE tb_critical_stock_alert SET alerted_at = ?",
+				Timestamp.from(Instant.now().minusSeconds(7200)));
+
+		service.onProductChanged(new ProductChangedEvent(snapshot(1L, 1L, 2), snapshot(1L, 1L, LOW_QUANTITY)));
+		service.sendDigests();
+
+		Assertions.assertEquals(2, digests().size());
+	}
+
+	@Test
+	void sendDigestsShouldDropProductsThatLeftCriticalStock() throws Exception {
+		service.onProductChanged(ProductChangedEvent.created(snapshot(1L, 1L, LOW_QUANTITY)));
+		service.onProductChanged(new ProductChangedEvent(snapshot(1L, 1L, LOW_QUANTITY), snapshot(1L, 1L, 50)));
+		service.onProductChanged(new ProductChangedEvent(snapshot(2L, 1L, QUANTITY), snapshot(2L, 1L, 5)));
+		service.onProductChanged(ProductChangedEvent.deleted(snapshot(2L, 1L, 5)));
+		// saiu do estoque crítico sem evento: o resumo confere o estado no banco
+		service.onProductChanged(new ProductChangedEvent(snapshot(4L, 2L, 3), snapshot(4L, 2L, 0)));
+
+		service.sendDigests();
+
+		Assertions.assertTrue(digests().isEmpty());
+		Assertions.assertTrue(pendingAlerts().isEmpty());
+	}
+
+	@Test
+	void sendDigestsShouldKeepAlertsPendingWhenEnqueueFails() throws Exception {
+		EmailOutboxService failing = Mockito.mock(EmailOutboxService.class);
+		Mockito.doThrow(new IllegalStateException("banco indisponível")).when(failing)
+				.enqueueCriticalStockDigest(ArgumentMatchers.anyLong(), ArgumentMatchers.anyList());
+		CriticalStockAlertService failingService = new CriticalStockAlertService(jdbcTemplate, transactionManager,
+				failing, 3600000L, 500);
+		service.onProductChanged(ProductChangedEvent.created(snapshot(1L, 1L, LOW_QUANTITY)));
+
+		failingService.sendDigests();
+
+		Assertions.assertEquals(List.of(1L), pendingAlerts());
+		service.sendDigests();
+		Assertions.assertEquals(1, digests().size());
+	}
+
+	@Test
+	void sendDigestsShouldClaimInBatches() throws Exception {
+		setQuantity(2L, 0);
+		CriticalStockAlertService smallBatches = new CriticalStockAlertService(jdbcTemplate, transactionManager,
+				Mockito.mock(EmailOutboxService.class), 3600000L, 1);
+		service.onProductChanged(ProductChangedEvent.created(snapshot(1L, 1L, LOW_QUANTITY)));
+		service.onProductChanged(ProductChangedEvent.created(snapshot(2L, 1L, 0)));
+
+		smallBatches.sendDigests();
+
+		Assertions.assertTrue(pendingAlerts().isEmpty());
+	}
+
+	private List<Long> pendingAlerts() {
+		return jdbcTemplate.queryForList(
+				"SELECT product_id FROM tb_critical_stock_alert WHERE pending = TRUE ORDER BY product_id", Long.class);
+	}
+
+	private List<JsonNode> digests() throws Exception {
+		List<JsonNode> digests = new ArrayList<>();
+		for (String payload : jdbcTemplate.queryForList(
+				"SELECT payload FROM tb_email_outbox WHERE type = 'CRITICAL_STOCK_DIGEST'", String.class)) {
+			digests.add(objectMapper.readTree(payload));
+		}
+		return digests;
+	}
+
+	private void setQuantity(Long productId, int quantity) {
+		jdbcTemplate.update("UPDATE tb_product SET quantity = ? WHERE id = ?", quantity, productId);
+	}
+
+	private static ProductSnapshot snapshot(Long id, Long companyId, int quantity) {
+		return new ProductSnapshot(id, companyId, "Produto " + id, null, quantity, 10, BigDecimal.ONE,
+				new BigDecimal(quantity), Set.of(1L));
+	}
+}
@@ -0,0 +1,57 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.superestoque.estoque.token.TokenUtil;
+
+import jakarta.transaction.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class DashboardControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	private String operatorUsername;
+	private String password;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		operatorUsername = "maria.green@ifpe.com";
+		password = "123456";
+	}
+
+	@Test
+	void dashboardShouldReturnCompanyIndicatorsWhenAuthenticated() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/dashboard").header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.productCount").value(2));
+		result.andExpect(jsonPath("$.criticalCount").value(1));
+		result.andExpect(jsonPath("$.totalStockValue").value(559.0));
+		result.andExpect(jsonPath("$.categories[?(@.id == 1)].stockValue").value(100.0));
+		result.andExpect(jsonPath("$.categories[?(@.id == 2)].stockValue").value(459.0));
+	}
+
+	@Test
+	void dashboardShouldReturnUnauthorizedWhenNoTokenProvided() throws Exception {
+		mockMvc.perform(get("/dashboard")).andExpect(status().isUnauthorized());
+	}
+}
@@ -0,0 +1,153 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.superestoque.estoque.services.ImageStorageService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ImageStorageService imageStorageService;
+
+	private byte[] image;
+	private String existingHash;
+	private String nonExistingHash;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		image = new byte[] { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4, 5, 6, 7, 8 };
+		existingHash = imageStorageService.store(image);
+		nonExistingHash = "0".repeat(64);
+	}
+
+	@Test
+	void getImageShouldReturnImageWithStrongEtagWithoutAuthentication() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType("image/png"));
+		result.andExpect(content().bytes(image));
+		result.andExpect(header().string(HttpHeaders.ETAG, "\"" + existingHash + "\""));
+		result.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+	}
+
+	@Test
+	void getImageShouldReturnNotModifiedWhenEtagMatches() throws Exception {
+		ResultActions result = mockMvc
+				.perform(get("/images/{hash}", existingHash).header(HttpHeaders.IF_NONE_MATCH, "\"" + existingHash + "\""));
+
+		result.andExpect(status().isNotModified());
+		result.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void getImageShouldReturnPartialContentWhenRangeRequested() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).header(HttpHeaders.RANGE, "bytes=8-11"));
+
+		result.andExpect(status().isPartialContent());
+		result.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-11/16"));
+		result.andExpect(content().bytes(new byte[] { 1, 2, 3, 4 }));
+	}
+
+	@Test
+	void getImageShouldReturnSuffixRange() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).header(HttpHeaders.RANGE, "bytes=-2"));
+
+		result.andExpect(status().isPartialContent());
+		result.andExpect(content().bytes(new byte[] { 7, 8 }));
+	}
+
+	@Test
+	void getImageShouldReturnRangeNotSatisfiableWhenRangeOutOfBounds() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).header(HttpHeaders.RANGE, "bytes=100-"));
+
+		result.andExpect(status().isRequestedRangeNotSatisfiable());
+		result.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"));
+	}
+
+	@Test
+	void getImageShouldReturnThumbnailWhenSizeRequested() throws Exception {
+		byte[] thumbnail = new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 9 };
+		imageStorageService.storeRendition(existingHash, 64, thumbnail);
+
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).param("size", "64"));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType("image/jpeg"));
+		result.andExpect(content().bytes(thumbnail));
+		result.andExpect(header().string(HttpHeaders.ETAG, "\"" + existingHash + "-64\""));
+	}
+
+	@Test
+	void getImageShouldReturnOriginalWithoutLongCacheWhenThumbnailIsPending() throws Exception {
+		byte[] png = uniquePng();
+		String hash = imageStorageService.store(png);
+
+		ResultActions result = mockMvc.perform(get("/images/{hash}", hash).param("size", "1024"));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().bytes(png));
+		result.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+		result.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"));
+	}
+
+	@Test
+	void getImageShouldReturnOriginalWithLongCacheWhenImageHasNoThumbnails() throws Exception {
+		imageStorageService.markUnrenderable(existingHash);
+
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).param("size", "256"));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().bytes(image));
+		result.andExpect(header().string(HttpHeaders.ETAG, "\"" + existingHash + "\""));
+		result.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+	}
+
+	@Test
+	void getImageShouldReturnUnprocessableEntityWhenSizeIsNotSupported() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", existingHash).param("size", "500"));
+
+		result.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void getImageShouldReturnNotFoundWhenHashDoesNotExist() throws Exception {
+		ResultActions result = mockMvc.perform(get("/images/{hash}", nonExistingHash));
+
+		result.andExpect(status().isNotFound());
+	}
+
+	// conteúdo novo a cada execução, para não encontrar miniaturas de execuções
+	// anteriores no diretório de imagens
+	private static byte[] uniquePng() throws Exception {
+		BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(0, 0, ThreadLocalRandom.current().nextInt());
+		image.setRGB(1, 0, ThreadLocalRandom.current().nextInt());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
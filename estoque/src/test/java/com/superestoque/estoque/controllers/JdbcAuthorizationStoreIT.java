@@ -0,0 +1,87 @@
+package com.superestoque.estoque.controllers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.superestoque.estoque.services.JdbcPurgingAuthorizationService;
+import com.superestoque.estoque.token.TokenUtil;
+
+@SpringBootTest(properties = { "security.authorizations.store=jdbc", "security.authorizations.purge-batch-size=2",
+		"spring.datasource.url=jdbc:h2:mem:authorizations" })
+@AutoConfigureMockMvc
+class JdbcAuthorizationStoreIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OAuth2AuthorizationService authorizationService;
+
+	private String adminUsername;
+	private String password;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		adminUsername = "alex.brown@ifpe.com";
+		password = "123456";
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM oauth2_authorization");
+	}
+
+	@Test
+	void loginShouldStoreAuthorizationInDatabase() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		OAuth2Authorization authorization = authorizationService.findByToken(accessToken,
+				OAuth2TokenType.ACCESS_TOKEN);
+
+		Assertions.assertNotNull(authorization);
+		Assertions.assertEquals(accessToken, authorization.getAccessToken().getToken().getTokenValue());
+		Assertions.assertEquals(1, count());
+	}
+
+	@Test
+	void purgeExpiredShouldRemoveOnlyExpiredAuthorizationsInBatches() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		}
+		String valid = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		String validId = authorizationService.findByToken(valid, OAuth2TokenType.ACCESS_TOKEN).getId();
+		jdbcTemplate.update(
+				"UPDATE oauth2_authorization SET access_token_issued_at = ?, access_token_expires_at = ? WHERE id <> ?",
+				Timestamp.from(Instant.now().minusSeconds(120)), Timestamp.from(Instant.now().minusSeconds(60)),
+				validId);
+
+		int removed = ((JdbcPurgingAuthorizationService) authorizationService).purgeExpired();
+
+		Assertions.assertEquals(5, removed);
+		Assertions.assertEquals(1, count());
+		Assertions.assertNotNull(authorizationService.findByToken(valid, OAuth2TokenType.ACCESS_TOKEN));
+	}
+
+	private int count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization", Integer.class);
+	}
+}
@@ -1,10 +1,18 @@
 package com.superestoque.estoque.controllers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.charset.StandardCharsets;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +21,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import com.superestoque.estoque.entities.Company;
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.services.CriticalStockIndex;
 import com.superestoque.estoque.token.TokenUtil;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 
 @SpringBootTest
@@ -31,6 +46,15 @@ class ProductControllerIT {
 	@Autowired
 	private TokenUtil tokenUtil;
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private CriticalStockIndex criticalStockIndex;
+
 	private String adminUsername;
 	private String operatorUsername;
 	private String password;
@@ -64,6 +88,25 @@ class ProductControllerIT {
 		result.andExpect(status().isUnauthorized());
 	}
 
+	@Test
+	void findCriticalProductsShouldReturnProductsBelowCriticalQuantity() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+		criticalStockIndex.reconcile();
+
+		ResultActions result = mockMvc.perform(get("/products/critical").param("limit", "5")
+				.header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.length()").value(1));
+		result.andExpect(jsonPath("$[0].id").value(existingId));
+		result.andExpect(jsonPath("$[0].shortage").value(9));
+	}
+
+	@Test
+	void findCriticalProductsShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
+		mockMvc.perform(get("/products/critical")).andExpect(status().isUnauthorized());
+	}
+
 	@Test
 	void findAllProductsPagedByGroupShouldReturnPageWhenAuthenticatedAsOperator() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
@@ -75,6 +118,55 @@ class ProductControllerIT {
 		result.andExpect(jsonPath("$.content").isArray());
 	}
 
+	@Test
+	void findAllProductsPagedByGroupShouldReturnTotalFromCounters() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/products").param("size", "1")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(2));
+		result.andExpect(jsonPath("$.content.length()").value(1));
+	}
+
+	@Test
+	void findAllProductsSlicedByGroupShouldReturnSliceWithoutTotal() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/products").param("count", "false").param("size", "1")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content.length()").value(1));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.last").value(false));
+	}
+
+	@Test
+	void findAllProductsByCursorShouldReturnNextCursorWhenMoreProductsExist() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/products").param("after", "").param("size", "1")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content.length()").value(1));
+		result.andExpect(jsonPath("$.content[0].id").value(1L));
+		result.andExpect(jsonPath("$.hasNext").value(true));
+		result.andExpect(jsonPath("$.nextCursor").isNotEmpty());
+	}
+
+	@Test
+	void findAllProductsByCursorShouldReturnUnprocessableEntityWhenCursorIsInvalid() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc.perform(get("/products").param("after", "%%%")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isUnprocessableEntity());
+	}
+
 	@Test
 	void findByIdShouldReturnProductWhenIdExists() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
@@ -154,6 +246,121 @@ class ProductControllerIT {
 		result.andExpect(jsonPath("$.name").value("New Product"));
 	}
 
+	@Test
+	void saveNewProductShouldNotLoadCompanyUsersOrProducts() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		MockMultipartFile photo = new MockMultipartFile("photo", "photo.jpg", "image/jpeg",
+				"fake-image-data".getBytes());
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.clear();
+		statistics.clear();
+
+		mockMvc.perform(MockMvcRequestBuilders.multipart("/products").file(photo).param("name", "New Product")
+				.param("quantity", "100").param("description", "descrição").param("critical_quantity", "10")
+				.param("unit_value", "19.99").param("categories", "1")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.MULTIPART_FORM_DATA))
+				.andExpect(status().isCreated());
+
+		// o usuário logado vem das claims do token: só a categoria informada é lida
+		Assertions.assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+		Assertions.assertTrue(statistics.getEntityLoadCount() <= 2, statistics.toString());
+		Assertions.assertEquals(0, statistics.getEntityStatistics(Product.class.getName()).getLoadCount());
+		Assertions.assertEquals(0,
+				statistics.getCollectionStatistics(Company.class.getName() + ".users").getLoadCount());
+	}
+
+	@Test
+	void saveNewProductShouldReturnNotFoundWhenCategoryBelongsToAnotherCompany() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		MockMultipartFile photo = new MockMultipartFile("photo", "photo.jpg", "image/jpeg",
+				"fake-image-data".getBytes());
+
+		mockMvc.perform(MockMvcRequestBuilders.multipart("/products").file(photo).param("name", "New Product")
+				.param("quantity", "100").param("description", "descrição").param("critical_quantity", "10")
+				.param("unit_value", "19.99").param("categories", "1", "3")
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.MULTIPART_FORM_DATA))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void importProductsShouldSaveValidCsvRowsAndReportInvalidOnes() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		String csv = "name,quantity,description,critical_quantity,unit_value,categories\n"
+				+ "Caneta azul,10,\"Caneta, azul\",2,1.50,1|2\n"
+				+ "Caderno,5,Caderno pautado,1,12.00,1\n"
+				+ "Lápis,0,Lápis preto,1,0.50,1\n";
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/products/import").content(csv)
+				.header("Authorization", "Bearer " + accessToken).contentType("text/csv"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(2))
+				.andExpect(jsonPath("$.failed").value(1)).andExpect(jsonPath("$.errors[0].line").value(4));
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/products").param("productName", "Caneta azul")
+				.header("Authorization", "Bearer " + accessToken)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].stockValue").value(15.0))
+				.andExpect(jsonPath("$.content[0].categories.length()").value(2));
+	}
+
+	@Test
+	void importProductsShouldSaveNdjsonRows() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		String ndjson = "{\"name\": \"Mouse sem fio\", \"quantity\": 3, \"description\": \"Mouse USB\", \"critical_quantity\": 1, \"unit_value\": 40, \"categories\": [2]}\n";
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/products/import").content(ndjson)
+				.header("Authorization", "Bearer " + accessToken).contentType("application/x-ndjson"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.failed").value(0));
+	}
+
+	@Test
+	void importProductsShouldReturnForbiddenWhenAuthenticatedAsOperator() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/products/import").content("name\n")
+				.header("Authorization", "Bearer " + accessToken).contentType("text/csv"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void exportProductsShouldStreamCsvInImportLayout() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/products/export")
+				.header("Authorization", "Bearer " + accessToken)).andExpect(request().asyncStarted()).andReturn();
+		Assertions.assertEquals(1_800_000L, started.getRequest().getAsyncContext().getTimeout());
+
+		String body = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"produtos.csv\""))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		String[] lines = body.split("\n");
+		Assertions.assertEquals("name,quantity,description,critical_quantity,unit_value,categories,id,stock_value",
+				lines[0]);
+		Assertions.assertTrue(lines.length > 1);
+		Assertions.assertFalse(body.contains("photo"));
+	}
+
+	@Test
+	void exportProductsShouldStreamNdjson() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/products/export").param("format", "ndjson")
+				.header("Authorization", "Bearer " + accessToken)).andExpect(request().asyncStarted()).andReturn();
+
+		String body = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString(StandardCharsets.UTF_8);
+		String first = body.split("\n")[0];
+		Assertions.assertTrue(first.startsWith("{\"id\":"), first);
+		Assertions.assertTrue(first.contains("\"categories\":["), first);
+	}
+
+	@Test
+	void exportProductsShouldReturnUnprocessableEntityWhenFormatIsInvalid() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/products/export").param("format", "xml")
+				.header("Authorization", "Bearer " + accessToken)).andExpect(status().isUnprocessableEntity());
+	}
+
 	@Test
 	void saveNewProductShouldReturnUnprocessableEntityWhenInvalidData() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
@@ -205,6 +412,25 @@ class ProductControllerIT {
 		result.andExpect(jsonPath("$.name").value("Updated Product"));
 	}
 
+	@Test
+	void updateProductShouldReturnConflictWhenVersionIsStale() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		MockMultipartFile photo = new MockMultipartFile("photo", "photo.jpg", "image/jpeg",
+				"fake-image-data".getBytes());
+
+		ResultActions result = mockMvc.perform(MockMvcRequestBuilders.multipart("/products/{id}", existingId)
+				.file(photo).param("name", "Updated Product").param("quantity", "200").param("description", "descrição")
+				.param("critical_quantity", "20").param("unit_value", "39.99").param("categories", "1")
+				.param("version", "99").header("Authorization", "Bearer " + accessToken)
+				.contentType(MediaType.MULTIPART_FORM_DATA).with(request -> {
+					request.setMethod("PUT");
+					return request;
+				}));
+
+		result.andExpect(status().isConflict());
+	}
+
 	@Test
 	void updateProductShouldReturnNotFoundWhenIdDoesNotExist() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
@@ -0,0 +1,65 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.superestoque.estoque.repositories.SigningKeyRepository;
+import com.superestoque.estoque.services.SigningKeyService;
+import com.superestoque.estoque.token.TokenUtil;
+
+import jakarta.transaction.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class SigningKeyIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Autowired
+	private SigningKeyRepository signingKeyRepository;
+
+	@Autowired
+	private SigningKeyService signingKeyService;
+
+	private String operatorUsername;
+	private String password;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		operatorUsername = "maria.green@ifpe.com";
+		password = "123456";
+	}
+
+	@Test
+	void jwksShouldPublishStoredPublicKey() throws Exception {
+		String keyId = signingKeyRepository.findAllByOrderByGenerationAsc().get(0).getId();
+
+		mockMvc.perform(get("/oauth2/jwks")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.keys[*].kid", Matchers.hasItem(keyId)))
+				.andExpect(jsonPath("$.keys[0].d").doesNotExist());
+	}
+
+	@Test
+	void tokenShouldStayValidAfterKeysAreReloaded() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		signingKeyService.refresh();
+
+		mockMvc.perform(get("/dashboard").header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk());
+	}
+}
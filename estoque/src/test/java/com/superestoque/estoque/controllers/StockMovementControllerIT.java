@@ -0,0 +1,167 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.services.StockShardService;
+import com.superestoque.estoque.token.TokenUtil;
+
+import jakarta.transaction.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class StockMovementControllerIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private StockShardService stockShardService;
+
+	private String adminUsername;
+	private String operatorUsername;
+	private String password;
+	private Long existingId;
+	private Long otherCompanyProductId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		adminUsername = "alex.brown@ifpe.com";
+		operatorUsername = "maria.green@ifpe.com";
+		password = "123456";
+		existingId = 2L;
+		otherCompanyProductId = 4L;
+	}
+
+	@Test
+	void registerShouldApplyMovementWhenAuthenticatedAsOperator() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, operatorUsername, password);
+
+		ResultActions result = register(accessToken, existingId, new StockMovementDTO(MovementType.OUT, 10, "Venda"));
+
+		result.andExpect(status().isCreated());
+		result.andExpect(jsonPath("$.quantity").value(-10));
+		result.andExpect(jsonPath("$.resultingQuantity").value(90));
+		result.andExpect(jsonPath("$.username").value(operatorUsername));
+
+		mockMvc.perform(get("/products/{id}/movements", existingId).header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content[0].type").value("OUT"))
+				.andExpect(jsonPath("$.totalElements").value(1));
+	}
+
+	@Test
+	void registerShouldReturnUnprocessableEntityWhenStockIsInsufficient() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = register(accessToken, existingId, new StockMovementDTO(MovementType.OUT, 1000, null));
+
+		result.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void registerShouldReturnNotFoundWhenProductBelongsToAnotherCompany() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = register(accessToken, otherCompanyProductId,
+				new StockMovementDTO(MovementType.IN, 1, null));
+
+		result.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void registerShouldReturnUnauthorizedWhenNoTokenProvided() throws Exception {
+		mockMvc.perform(post("/products/{id}/movements", existingId).contentType(MediaType.APPLICATION_JSON)
+				.content("{}")).andExpect(status().isUnauthorized());
+	}
+
+	// sem transação de teste: cada movimentação é confirmada na sua própria
+	// transação, como em produção
+	@Test
+	@Transactional(Transactional.TxType.NOT_SUPPORTED)
+	void concurrentMovementsShouldNotLoseIncrements() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		Integer before = jdbcTemplate.queryForObject("SELECT quantity FROM tb_product WHERE id = ?", Integer.class,
+				existingId);
+		BigDecimal stockValue = jdbcTemplate.queryForObject("SELECT stock_value FROM tb_product WHERE id = ?",
+				BigDecimal.class, existingId);
+		int threads = 8;
+		int perThread = 5;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < threads * perThread; i++) {
+				results.add(executor.submit(() -> register(accessToken, existingId,
+						new StockMovementDTO(MovementType.IN, 1, null)).andReturn().getResponse().getStatus()));
+			}
+			for (Future<Integer> status : results) {
+				Assertions.assertEquals(201, status.get());
+			}
+
+			Integer after = jdbcTemplate.queryForObject("SELECT quantity FROM tb_product WHERE id = ?", Integer.class,
+					existingId);
+			Assertions.assertEquals(before + threads * perThread, after);
+		} finally {
+			executor.shutdown();
+			jdbcTemplate.update("DELETE FROM tb_stock_movement WHERE product_id = ?", existingId);
+			jdbcTemplate.update("UPDATE tb_product SET quantity = ?, stock_value = ? WHERE id = ?", before, stockValue,
+					existingId);
+		}
+	}
+
+	@Test
+	void registerShouldKeepTotalAcrossShardsWhenProductIsSharded() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		stockShardService.shard(existingId, 4);
+
+		register(accessToken, existingId, new StockMovementDTO(MovementType.OUT, 10, null))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.resultingQuantity").value(90));
+		register(accessToken, existingId, new StockMovementDTO(MovementType.IN, 5, null))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.resultingQuantity").value(95));
+		register(accessToken, existingId, new StockMovementDTO(MovementType.OUT, 93, null))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.resultingQuantity").value(2));
+		register(accessToken, existingId, new StockMovementDTO(MovementType.OUT, 3, null))
+				.andExpect(status().isUnprocessableEntity());
+
+		mockMvc.perform(get("/products/{id}", existingId).header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.quantity").value(2));
+	}
+
+	private ResultActions register(String accessToken, Long productId, StockMovementDTO dto) throws Exception {
+		return mockMvc.perform(post("/products/{id}/movements", productId)
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(dto)));
+	}
+}
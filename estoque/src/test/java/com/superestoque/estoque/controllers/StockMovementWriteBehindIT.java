@@ -0,0 +1,203 @@
+package com.superestoque.estoque.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.services.StockWriteBehindService;
+import com.superestoque.estoque.token.TokenUtil;
+
+@SpringBootTest(properties = { "stock.write-behind.enabled=true",
+		"stock.write-behind.wal-dir=target/stock-wal-${random.uuid}", "stock.write-behind.flush-interval-ms=3600000",
+		"spring.datasource.url=jdbc:h2:mem:writebehind" })
+@AutoConfigureMockMvc
+class StockMovementWriteBehindIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private StockWriteBehindService writeBehind;
+
+	private String adminUsername;
+	private String password;
+	private Long existingId;
+	private Long lowStockId;
+	private Long otherCompanyProductId;
+	private Integer quantity;
+	private BigDecimal stockValue;
+	private Integer lowQuantity;
+	private BigDecimal lowStockValue;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		adminUsername = "alex.brown@ifpe.com";
+		password = "123456";
+		existingId = 2L;
+		lowStockId = 1L;
+		otherCompanyProductId = 4L;
+		quantity = quantity(existingId);
+		stockValue = stockValue(existingId);
+		lowQuantity = quantity(lowStockId);
+		lowStockValue = stockValue(lowStockId);
+	}
+
+	@AfterEach
+	void tearDown() {
+		writeBehind.flush();
+		jdbcTemplate.update("DELETE FROM tb_stock_movement");
+		jdbcTemplate.update("DELETE FROM tb_stock_movement_dead_letter");
+		jdbcTemplate.update("UPDATE tb_product SET quantity = ?, stock_value = ? WHERE id = ?", quantity, stockValue,
+				existingId);
+		jdbcTemplate.update("UPDATE tb_product SET quantity = ?, stock_value = ? WHERE id = ?", lowQuantity,
+				lowStockValue, lowStockId);
+	}
+
+	@Test
+	void movementsShouldBeAcceptedAndAppliedAsOneUpdatePerProductOnFlush() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		int requests = 20;
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < requests; i++) {
+				results.add(executor.submit(() -> register(accessToken, existingId,
+						new StockMovementDTO(MovementType.IN, 1, null)).andReturn().getResponse().getStatus()));
+			}
+			for (Future<Integer> status : results) {
+				Assertions.assertEquals(202, status.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		Assertions.assertEquals(quantity, quantity(existingId));
+
+		writeBehind.flush();
+
+		Assertions.assertEquals(quantity + requests, quantity(existingId));
+		Assertions.assertEquals(requests, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM tb_stock_movement WHERE product_id = ?", Integer.class, existingId));
+		Assertions.assertEquals(quantity + requests, jdbcTemplate.queryForObject(
+				"SELECT MAX(resulting_quantity) FROM tb_stock_movement WHERE product_id = ?", Integer.class,
+				existingId));
+		Assertions.assertTrue(jdbcTemplate.queryForObject("SELECT last_seq FROM tb_stock_wal_checkpoint",
+				Long.class) >= requests);
+	}
+
+	@Test
+	void registerShouldCountPendingMovementsWhenCheckingStock() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions accepted = register(accessToken, lowStockId,
+				new StockMovementDTO(MovementType.OUT, lowQuantity, "Venda"));
+		accepted.andExpect(status().isAccepted());
+		accepted.andExpect(jsonPath("$.id").doesNotExist());
+		accepted.andExpect(jsonPath("$.resultingQuantity").value(0));
+
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.OUT, 1, "Venda"))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void registerShouldRecheckDatabaseWhenExitLeavesLittleStock() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.IN, 5, null))
+				.andExpect(status().isAccepted());
+
+		jdbcTemplate.update("UPDATE tb_product SET quantity = 0 WHERE id = ?", lowStockId);
+
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.OUT, lowQuantity + 5, "Venda"))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void flushShouldParkExitRejectedByDatabase() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.OUT, lowQuantity, "Venda"))
+				.andExpect(status().isAccepted());
+
+		jdbcTemplate.update("UPDATE tb_product SET quantity = 0 WHERE id = ?", lowStockId);
+		writeBehind.flush();
+
+		Assertions.assertEquals(0, quantity(lowStockId));
+		Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM tb_stock_movement WHERE product_id = ?", Integer.class, lowStockId));
+		Assertions.assertEquals(-lowQuantity, jdbcTemplate.queryForObject(
+				"SELECT quantity FROM tb_stock_movement_dead_letter WHERE product_id = ?", Integer.class, lowStockId));
+	}
+
+	@Test
+	void flushShouldApplyEntriesOneByOneWhenNetDeltaIsRejected() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.IN, 5, null))
+				.andExpect(status().isAccepted());
+		register(accessToken, lowStockId, new StockMovementDTO(MovementType.OUT, lowQuantity + 5, "Venda"))
+				.andExpect(status().isAccepted());
+
+		jdbcTemplate.update("UPDATE tb_product SET quantity = 0 WHERE id = ?", lowStockId);
+		writeBehind.flush();
+
+		Assertions.assertEquals(5, quantity(lowStockId));
+		Assertions.assertEquals(5, jdbcTemplate.queryForObject(
+				"SELECT resulting_quantity FROM tb_stock_movement WHERE product_id = ?", Integer.class, lowStockId));
+		Assertions.assertEquals("Estoque insuficiente.", jdbcTemplate.queryForObject(
+				"SELECT error FROM tb_stock_movement_dead_letter WHERE product_id = ?", String.class, lowStockId));
+		Long lastSeq = jdbcTemplate.queryForObject("SELECT last_seq FROM tb_stock_wal_checkpoint", Long.class);
+		Assertions.assertEquals(lastSeq, jdbcTemplate.queryForObject(
+				"SELECT seq FROM tb_stock_movement_dead_letter WHERE product_id = ?", Long.class, lowStockId));
+	}
+
+	@Test
+	void registerShouldReturnNotFoundWhenProductBelongsToAnotherCompany() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		register(accessToken, otherCompanyProductId, new StockMovementDTO(MovementType.IN, 1, null))
+				.andExpect(status().isNotFound());
+	}
+
+	private Integer quantity(Long id) {
+		return jdbcTemplate.queryForObject("SELECT quantity FROM tb_product WHERE id = ?", Integer.class, id);
+	}
+
+	private BigDecimal stockValue(Long id) {
+		return jdbcTemplate.queryForObject("SELECT stock_value FROM tb_product WHERE id = ?", BigDecimal.class, id);
+	}
+
+	private ResultActions register(String accessToken, Long productId, StockMovementDTO dto) throws Exception {
+		return mockMvc.perform(post("/products/{id}/movements", productId)
+				.header("Authorization", "Bearer " + accessToken).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(dto)));
+	}
+}
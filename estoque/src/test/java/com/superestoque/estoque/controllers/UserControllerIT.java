@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.superestoque.estoque.entities.dto.RoleDTO;
 import com.superestoque.estoque.entities.dto.UserInsertDTO;
 import com.superestoque.estoque.entities.dto.UserUpdatePasswordDTO;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+import com.superestoque.estoque.repositories.OutboxEmailRepository;
 import com.superestoque.estoque.token.TokenUtil;
 
 import jakarta.transaction.Transactional;
@@ -40,6 +43,9 @@ class UserControllerIT {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private OutboxEmailRepository outboxEmailRepository;
+
 	private String adminUsername;
 	private String operatorUsername;
 	private String password;
@@ -70,6 +76,16 @@ class UserControllerIT {
 		result.andExpect(jsonPath("$.email").isNotEmpty());
 	}
 
+	@Test
+	void getAvatarShouldReturnNotFoundWhenUserHasNoPhoto() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, adminUsername, password);
+
+		ResultActions result = mockMvc
+				.perform(get("/users/avatar/{email}", adminUsername).header("Authorization", "Bearer " + accessToken));
+
+		result.andExpect(status().isNotFound());
+	}
+
 	@Test
 	void findUserByIdShouldReturnUnauthorizedWhenNoTokenProvided() throws Exception {
 		ResultActions result = mockMvc.perform(get("/users/me").contentType(MediaType.APPLICATION_JSON));
@@ -218,4 +234,14 @@ class UserControllerIT {
 		result.andExpect(status().isForbidden());
 	}
 
-}
\ No newline at end of file
+	@Test
+	void requestPasswordResetShouldStoreEmailInOutbox() throws Exception {
+		long pending = outboxEmailRepository.countByStatus(OutboxStatus.PENDING);
+
+		ResultActions result = mockMvc.perform(post("/users/sendEmailResetPassword").param("email", operatorUsername));
+
+		result.andExpect(status().isNoContent());
+		Assertions.assertEquals(pending + 1, outboxEmailRepository.countByStatus(OutboxStatus.PENDING));
+	}
+
+}
@@ -29,6 +29,20 @@ class ProductTests {
 		Assertions.assertEquals(BigDecimal.valueOf(100.00), entity.getUnitValue());
 	}
 
+	@Test
+	void quantityShouldIncludeShardsWhenTheyAreLoaded() {
+		Product product = new Product(1L, "Product A", 10, "Description", null, 5, BigDecimal.valueOf(2));
+		product.setStockShards(4);
+		product.setShardQuantity(30);
+
+		Assertions.assertEquals(40, product.getQuantity());
+		Assertions.assertEquals(BigDecimal.valueOf(80), product.getStockValue());
+
+		product.setQuantity(12);
+
+		Assertions.assertEquals(12, product.getQuantity());
+	}
+
 	@Test
 	void equalsShouldReturnTrueWhenComparingSameObject() {
 		Product product = new Product(1L, "Product A", 10, "Description", null, 5, BigDecimal.valueOf(10.0));
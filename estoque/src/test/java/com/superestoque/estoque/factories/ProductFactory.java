@@ -16,8 +16,9 @@ public class ProductFactory {
 
 	public static ProductDTO createProductDTO(Company company) {
 		Product product = createProduct(company);
-		product.setPhoto(new byte[1]);
 		product.setCompany(company);
-		return new ProductDTO(product);
+		ProductDTO dto = new ProductDTO(product);
+		dto.setPhoto(new byte[1]);
+		return dto;
 	}
 }
\ No newline at end of file
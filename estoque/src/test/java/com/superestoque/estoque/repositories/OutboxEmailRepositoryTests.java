@@ -0,0 +1,96 @@
+package com.superestoque.estoque.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.enums.EmailType;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+
+@DataJpaTest
+class OutboxEmailRepositoryTests {
+
+	@Autowired
+	private OutboxEmailRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Instant now;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		now = Instant.now();
+	}
+
+	@Test
+	void findClaimableShouldReturnOnlyDuePendingEmailsWithoutLease() {
+		OutboxEmail due = repository.save(new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now.minusSeconds(10)));
+		OutboxEmail later = new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now);
+		later.setNextAttemptAt(now.plusSeconds(60));
+		repository.save(later);
+		OutboxEmail leased = new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now.minusSeconds(10));
+		leased.setLockedUntil(now.plusSeconds(60));
+		repository.save(leased);
+		OutboxEmail failed = new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now.minusSeconds(10));
+		failed.setStatus(OutboxStatus.FAILED);
+		repository.save(failed);
+
+		List<OutboxEmail> result = repository.findClaimable(now, 10);
+
+		Assertions.assertEquals(List.of(due), result);
+		Assertions.assertEquals(3, repository.countByStatus(OutboxStatus.PENDING));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void findClaimableShouldSkipRowsLockedByAnotherTransaction() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(status -> {
+			repository.save(new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now.minusSeconds(10)));
+			repository.save(new OutboxEmail(EmailType.PASSWORD_RESET, "{}", now.minusSeconds(10)));
+		});
+		CountDownLatch claimed = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		try {
+			CompletableFuture<List<OutboxEmail>> first = CompletableFuture
+					.supplyAsync(() -> transactionTemplate.execute(status -> {
+						List<OutboxEmail> emails = repository.findClaimable(now, 1);
+						claimed.countDown();
+						try {
+							done.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return emails;
+					}));
+			Assertions.assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+			List<OutboxEmail> second = CompletableFuture
+					.supplyAsync(() -> transactionTemplate
+							.execute(status -> repository.findClaimable(now, 10)))
+					.get(10, TimeUnit.SECONDS);
+			done.countDown();
+
+			Assertions.assertEquals(1, first.get(10, TimeUnit.SECONDS).size());
+			Assertions.assertEquals(1, second.size());
+			Assertions.assertNotEquals(first.get().get(0).getId(), second.get(0).getId());
+		} finally {
+			done.countDown();
+			transactionTemplate.executeWithoutResult(status -> repository.deleteAll());
+		}
+	}
+}
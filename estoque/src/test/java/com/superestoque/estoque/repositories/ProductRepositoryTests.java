@@ -1,6 +1,7 @@
 package com.superestoque.estoque.repositories;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -8,9 +9,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import com.superestoque.estoque.entities.Category;
 import com.superestoque.estoque.entities.Company;
 import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.ProductStockShard;
 import com.superestoque.estoque.factories.ProductFactory;
 
 @DataJpaTest
@@ -22,6 +30,15 @@ class ProductRepositoryTests {
 	@Autowired
 	private CompanyRepository companyRepository;
 
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductStockShardRepository shardRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
 	private Long existingId;
 	private Long nonExistingId;
 	private Product product;
@@ -36,6 +53,23 @@ class ProductRepositoryTests {
 		product = ProductFactory.createProduct(company);
 	}
 
+	@Test
+	void shardWritesShouldAdvanceStockVersionAndFoldShouldKeepIt() {
+		product = repository.save(product);
+		Long id = product.getId();
+		repository.enableShards(id, 2);
+		shardRepository.saveAll(List.of(new ProductStockShard(null, product, 0, 0), new ProductStockShard(null, product, 1, 0)));
+		long rowVersion = repository.findById(id).get().getVersion();
+
+		shardRepository.addQuantity(id, 0, 5);
+		shardRepository.addQuantity(id, 1, 3);
+		long shardVersion = shardRepository.findByProductId(id).stream().mapToLong(ProductStockShard::getVersion).sum();
+		repository.foldShards(id, 8, shardVersion);
+
+		Assertions.assertEquals(2L, shardVersion);
+		Assertions.assertEquals(rowVersion + shardVersion + 1, repository.findById(id).get().getVersion());
+	}
+
 	@Test
 	void saveShouldPersistProduct() {
 		product = repository.save(product);
@@ -113,4 +147,59 @@ class ProductRepositoryTests {
 		Assertions.assertEquals(BigDecimal.valueOf(100), product.getStockValue());
 	}
 
-}
\ No newline at end of file
+	@Test
+	void findFirstIdsByCompanyIdShouldReturnIdsOrderedByNameAndId() {
+		List<Long> result = repository.findFirstIdsByCompanyId(1L, null, null, Limit.of(10));
+
+		Assertions.assertEquals(List.of(1L, 2L), result);
+	}
+
+	@Test
+	void findIdsByCompanyIdAfterShouldReturnOnlyIdsAfterCursor() {
+		String afterName = repository.findById(existingId).get().getName();
+
+		List<Long> result = repository.findIdsByCompanyIdAfter(1L, afterName, existingId, null, null, Limit.of(10));
+
+		Assertions.assertEquals(List.of(2L), result);
+	}
+
+	@Test
+	void findFirstIdsByCompanyIdShouldFilterByCategory() {
+		List<Long> result = repository.findFirstIdsByCompanyId(1L, 2L, null, Limit.of(10));
+
+		Assertions.assertEquals(List.of(2L), result);
+	}
+
+	@Test
+	void findWithCategoriesByIdInShouldFetchCategories() {
+		List<Product> result = repository.findWithCategoriesByIdIn(List.of(1L, 2L));
+
+		Assertions.assertEquals(2, result.size());
+		result.forEach(item -> Assertions.assertFalse(item.getCategories().isEmpty()));
+	}
+
+	@Test
+	void findIdsByCompanyIdAndCategoryIdShouldPageInDatabaseAndCount() {
+		Page<Long> result = repository.findIdsByCompanyIdAndCategoryId(1L, null, null,
+				PageRequest.of(0, 1, Sort.by("id")));
+
+		Assertions.assertEquals(List.of(1L), result.getContent());
+		Assertions.assertEquals(2, result.getTotalElements());
+	}
+
+	@Test
+	void categoryFilterShouldKeepOtherCategoriesOfTheProduct() {
+		Category otherCategory = categoryRepository.getReferenceById(2L);
+		Product entity = repository.getReferenceById(existingId);
+		entity.getCategories().add(otherCategory);
+		repository.saveAndFlush(entity);
+		entityManager.clear();
+
+		Page<Long> ids = repository.findIdsByCompanyIdAndCategoryId(1L, 1L, null, PageRequest.of(0, 10));
+		List<Product> result = repository.findWithCategoriesByIdIn(ids.getContent());
+
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals(2, result.get(0).getCategories().size());
+	}
+
+}
@@ -8,9 +8,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import com.superestoque.estoque.entities.Role;
 import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.entities.dto.UserSummaryDTO;
 import com.superestoque.estoque.factories.UserFactory;
 
 @DataJpaTest
@@ -37,6 +41,47 @@ class UserRepositoryTests {
 		role = new Role(1L, "ROLE_ADMIN");
 	}
 
+	@Test
+	void findByCompanyIdAndStatusShouldReturnOnlyUsersOfCompanyWithStatus() {
+		List<User> result = repository.findByCompanyIdAndStatus(1L, true);
+
+		Assertions.assertEquals(3, result.size());
+		Assertions.assertTrue(result.stream().allMatch(u -> u.getCompany().getId().equals(1L) && u.isStatus()));
+	}
+
+	@Test
+	void findSummariesByCompanyIdShouldFilterByNameAndRoleInDatabase() {
+		Page<UserSummaryDTO> byName = repository.findSummariesByCompanyId(1L, true, "green", null,
+				PageRequest.of(0, 10));
+		Page<UserSummaryDTO> byRole = repository.findSummariesByCompanyId(1L, true, null, "ROLE_ADMIN",
+				PageRequest.of(0, 10));
+
+		Assertions.assertEquals(1, byName.getTotalElements());
+		Assertions.assertEquals("maria.green@ifpe.com", byName.getContent().get(0).getEmail());
+		Assertions.assertEquals(1, byRole.getTotalElements());
+		Assertions.assertEquals("alex.brown@ifpe.com", byRole.getContent().get(0).getEmail());
+	}
+
+	@Test
+	void findSummariesByCompanyIdShouldPageAndFilterByStatus() {
+		Page<UserSummaryDTO> active = repository.findSummariesByCompanyId(1L, true, null, null,
+				PageRequest.of(0, 2, Sort.by("name")));
+		Page<UserSummaryDTO> inactive = repository.findSummariesByCompanyId(1L, false, null, null,
+				PageRequest.of(0, 2));
+
+		Assertions.assertEquals(3, active.getTotalElements());
+		Assertions.assertEquals(2, active.getContent().size());
+		Assertions.assertEquals("Alex Brown", active.getContent().get(0).getName());
+		Assertions.assertEquals(0, inactive.getTotalElements());
+	}
+
+	@Test
+	void findEmailsByCompanyIdAndAuthorityShouldReturnOnlyAdmins() {
+		List<String> result = repository.findEmailsByCompanyIdAndAuthority(1L, "ROLE_ADMIN");
+
+		Assertions.assertEquals(List.of("alex.brown@ifpe.com"), result);
+	}
+
 	@Test
 	void deleteShouldReturnNulltWhenIdNonExists() {
 		Optional<User> result = repository.findById(nonExistingId);
@@ -0,0 +1,111 @@
+package com.superestoque.estoque.services;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.factories.CompanyFactory;
+import com.superestoque.estoque.factories.UserFactory;
+import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.exceptions.UnauthorizedException;
+
+@ExtendWith(SpringExtension.class)
+class AuthServiceTests {
+
+	@InjectMocks
+	private AuthService service;
+
+	@Mock
+	private UserRepository repository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		user = UserFactory.createUser();
+		user.setCompany(CompanyFactory.createCompany());
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		Mockito.when(repository.findByEmail(user.getEmail())).thenReturn(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void principalShouldReadClaimsWithoutQueryingUser() {
+		authenticate(Jwt.withTokenValue("token").header("alg", "RS256").claim("username", user.getEmail())
+				.claim(AuthService.USER_ID_CLAIM, 7L).claim(AuthService.COMPANY_ID_CLAIM, 3L)
+				.issuedAt(Instant.now()).build());
+
+		AuthenticatedUser principal = service.principal();
+
+		Assertions.assertEquals(7L, principal.getId());
+		Assertions.assertEquals(3L, principal.getCompanyId());
+		Assertions.assertEquals(user.getEmail(), principal.getUsername());
+		Mockito.verify(repository, Mockito.never()).findByEmail(ArgumentMatchers.anyString());
+	}
+
+	@Test
+	public void principalShouldFallBackToUserWhenTokenHasNoClaims() {
+		authenticate(Jwt.withTokenValue("token").header("alg", "RS256").claim("username", user.getEmail())
+				.issuedAt(Instant.now()).build());
+
+		AuthenticatedUser principal = service.principal();
+
+		Assertions.assertEquals(AuthenticatedUser.of(user), principal);
+		Mockito.verify(repository, Mockito.times(1)).findByEmail(user.getEmail());
+	}
+
+	@Test
+	public void authenticatedShouldQueryUserOncePerRequest() {
+		authenticate(Jwt.withTokenValue("token").header("alg", "RS256").claim("username", user.getEmail())
+				.issuedAt(Instant.now()).build());
+
+		service.authenticated();
+		service.authenticated();
+
+		Mockito.verify(repository, Mockito.times(1)).findByEmail(user.getEmail());
+	}
+
+	@Test
+	public void invalidateShouldReloadUserOnNextCall() {
+		authenticate(Jwt.withTokenValue("token").header("alg", "RS256").claim("username", user.getEmail())
+				.issuedAt(Instant.now()).build());
+
+		service.authenticated();
+		service.invalidate();
+		service.authenticated();
+
+		Mockito.verify(repository, Mockito.times(2)).findByEmail(user.getEmail());
+	}
+
+	@Test
+	public void authenticatedShouldThrowUnauthorizedExceptionWhenNotAuthenticated() {
+		Assertions.assertThrows(UnauthorizedException.class, () -> {
+			service.authenticated();
+		});
+	}
+
+	private static void authenticate(Jwt jwt) {
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}
@@ -0,0 +1,101 @@
+package com.superestoque.estoque.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+class BoundedAuthorizationServiceTests {
+
+	private AtomicLong ticker;
+	private BoundedAuthorizationService service;
+	private RegisteredClient client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ticker = new AtomicLong();
+		service = new BoundedAuthorizationService(10, Duration.ofMinutes(5), ticker::get, Runnable::run);
+		client = RegisteredClient.withId("client").clientId("myclientid").clientSecret("secret")
+				.authorizationGrantType(new AuthorizationGrantType("password")).build();
+	}
+
+	@Test
+	void findByTokenShouldReturnAuthorizationOfAccessToken() {
+		OAuth2Authorization authorization = authorization("token-1", Duration.ofMinutes(1));
+		service.save(authorization);
+
+		Assertions.assertSame(authorization, service.findByToken("token-1", OAuth2TokenType.ACCESS_TOKEN));
+		Assertions.assertSame(authorization, service.findByToken("token-1", null));
+		Assertions.assertNull(service.findByToken("token-1", OAuth2TokenType.REFRESH_TOKEN));
+		Assertions.assertNull(service.findByToken("other", null));
+		Assertions.assertSame(authorization, service.findById(authorization.getId()));
+	}
+
+	@Test
+	void authorizationShouldExpireWithItsAccessToken() {
+		OAuth2Authorization authorization = authorization("token-1", Duration.ofMinutes(1));
+		service.save(authorization);
+
+		ticker.addAndGet(Duration.ofSeconds(61).toNanos());
+
+		Assertions.assertNull(service.findById(authorization.getId()));
+		Assertions.assertNull(service.findByToken("token-1", null));
+		Assertions.assertEquals(0, service.size());
+		Assertions.assertEquals(0, service.indexedTokens());
+	}
+
+	@Test
+	void saveShouldKeepNumberOfAuthorizationsBounded() {
+		for (int i = 0; i < 1000; i++) {
+			service.save(authorization("token-" + i, Duration.ofMinutes(1)));
+		}
+
+		Assertions.assertTrue(service.size() <= 10, "autorizações: " + service.size());
+		Assertions.assertTrue(service.indexedTokens() <= 10, "tokens: " + service.indexedTokens());
+	}
+
+	@Test
+	void saveShouldReplaceTokensOfExistingAuthorization() {
+		OAuth2Authorization authorization = authorization("token-1", Duration.ofMinutes(1));
+		service.save(authorization);
+		OAuth2Authorization renewed = OAuth2Authorization.from(authorization)
+				.accessToken(accessToken("token-2", Duration.ofMinutes(1))).build();
+
+		service.save(renewed);
+
+		Assertions.assertNull(service.findByToken("token-1", null));
+		Assertions.assertSame(renewed, service.findByToken("token-2", null));
+		Assertions.assertEquals(1, service.indexedTokens());
+	}
+
+	@Test
+	void removeShouldDropAuthorizationAndItsTokens() {
+		OAuth2Authorization authorization = authorization("token-1", Duration.ofMinutes(1));
+		service.save(authorization);
+
+		service.remove(authorization);
+
+		Assertions.assertNull(service.findByToken("token-1", null));
+		Assertions.assertEquals(0, service.indexedTokens());
+	}
+
+	private OAuth2Authorization authorization(String token, Duration ttl) {
+		return OAuth2Authorization.withRegisteredClient(client).id(UUID.randomUUID().toString())
+				.principalName("alex.brown@ifpe.com").authorizationGrantType(new AuthorizationGrantType("password"))
+				.accessToken(accessToken(token, ttl)).build();
+	}
+
+	private static OAuth2AccessToken accessToken(String token, Duration ttl) {
+		Instant now = Instant.now();
+		return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, token, now, now.plus(ttl));
+	}
+}
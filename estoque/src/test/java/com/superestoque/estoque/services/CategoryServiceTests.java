@@ -1,6 +1,7 @@
 package com.superestoque.estoque.services;
 
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -16,7 +17,6 @@ import com.superestoque.estoque.entities.Category;
 import com.superestoque.estoque.entities.Company;
 import com.superestoque.estoque.entities.User;
 import com.superestoque.estoque.entities.dto.CategoryDTO;
-import com.superestoque.estoque.entities.dto.CompanyDTO;
 import com.superestoque.estoque.factories.CategoryFactory;
 import com.superestoque.estoque.factories.CompanyFactory;
 import com.superestoque.estoque.factories.UserFactory;
@@ -55,13 +55,17 @@ class CategoryServiceTests {
 		categoryDTO = CategoryFactory.createCompanyDTO();
 		user.setCompany(company);
 
-		Mockito.when(authService.authenticated()).thenReturn(user);
-		Mockito.when(companyService.findById()).thenReturn(new CompanyDTO(company));
-		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(category));
-		Mockito.when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
+		Mockito.when(authService.principal()).thenReturn(AuthenticatedUser.of(user));
+		Mockito.when(companyService.getReference()).thenReturn(company);
+		Mockito.when(repository.findByIdAndCompanyId(existingId, company.getId())).thenReturn(Optional.of(category));
+		Mockito.when(repository.findByIdAndCompanyId(nonExistingId, company.getId())).thenReturn(Optional.empty());
 		Mockito.when(repository.findByCompanyId(company.getId())).thenReturn(List.of(category));
 		Mockito.when(repository.save(Mockito.any())).thenReturn(category);
 		Mockito.when(repository.existsById(category.getId())).thenReturn(true);
+		Mockito.when(repository.findByIdInAndCompanyId(Set.of(category.getId()), company.getId()))
+				.thenReturn(List.of(category));
+		Mockito.when(repository.findByIdInAndCompanyId(Set.of(category.getId(), nonExistingId), company.getId()))
+				.thenReturn(List.of(category));
 	}
 
 	@Test
@@ -70,7 +74,7 @@ class CategoryServiceTests {
 
 		Assertions.assertNotNull(result);
 		Assertions.assertEquals(category.getName(), result.getName());
-		Mockito.verify(repository, Mockito.times(1)).findById(existingId);
+		Mockito.verify(repository, Mockito.times(1)).findByIdAndCompanyId(existingId, company.getId());
 	}
 
 	@Test
@@ -79,7 +83,7 @@ class CategoryServiceTests {
 			service.findById(nonExistingId);
 		});
 
-		Mockito.verify(repository, Mockito.times(1)).findById(nonExistingId);
+		Mockito.verify(repository, Mockito.times(1)).findByIdAndCompanyId(nonExistingId, company.getId());
 	}
 
 	@Test
@@ -121,4 +125,23 @@ class CategoryServiceTests {
 		Mockito.verify(repository, Mockito.times(1)).existsById(category.getId());
 		Mockito.verify(repository, Mockito.never()).deleteById(Mockito.anyLong());
 	}
-}
\ No newline at end of file
+
+	@Test
+	void findAllOwnedByIdShouldReturnCategoriesInSingleQuery() {
+		Set<Category> result = service.findAllOwnedById(List.of(category.getId(), category.getId()));
+
+		Assertions.assertEquals(Set.of(category), result);
+		Mockito.verify(repository, Mockito.times(1)).findByIdInAndCompanyId(Set.of(category.getId()),
+				company.getId());
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+
+	@Test
+	void findAllOwnedByIdShouldThrowResourceNotFoundExceptionWhenAnyIdIsMissingOrForeign() {
+		ResourceNotFoundException exception = Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findAllOwnedById(List.of(category.getId(), nonExistingId));
+		});
+
+		Assertions.assertTrue(exception.getMessage().contains(String.valueOf(nonExistingId)));
+	}
+}
@@ -1,6 +1,7 @@
 package com.superestoque.estoque.services;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -11,15 +12,22 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.superestoque.estoque.entities.Company;
 import com.superestoque.estoque.entities.User;
 import com.superestoque.estoque.entities.dto.CompanyDTO;
+import com.superestoque.estoque.entities.dto.UserDTO;
+import com.superestoque.estoque.entities.dto.UserSummaryDTO;
 import com.superestoque.estoque.factories.CompanyFactory;
 import com.superestoque.estoque.factories.UserFactory;
 import com.superestoque.estoque.repositories.CompanyRepository;
+import com.superestoque.estoque.repositories.UserRepository;
 import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
 
 @ExtendWith(SpringExtension.class)
@@ -34,6 +42,12 @@ class CompanyServiceTests {
 	@Mock
 	private CompanyRepository repository;
 
+	@Mock
+	private ImageStorageService imageStorageService;
+
+	@Mock
+	private UserRepository userRepository;
+
 	private Long existingCompanyId;
 	private Long nonExistingCompanyId;
 	private Company company;
@@ -51,7 +65,7 @@ class CompanyServiceTests {
 		validPhoto = new MockMultipartFile("photo", "test.jpg", "image/jpeg", "photo content".getBytes());
 		invalidPhoto = new MockMultipartFile("photo", "test.txt", "text/plain", "invalid content".getBytes());
 
-		Mockito.when(authService.authenticated()).thenReturn(user);
+		Mockito.when(authService.principal()).thenReturn(AuthenticatedUser.of(user));
 		Mockito.when(repository.findById(existingCompanyId)).thenReturn(Optional.of(company));
 		Mockito.when(repository.findById(nonExistingCompanyId)).thenReturn(Optional.empty());
 		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(company);
@@ -65,6 +79,24 @@ class CompanyServiceTests {
 		Assertions.assertEquals("Updated Company", result.getName());
 		Mockito.verify(repository, Mockito.times(1)).findById(existingCompanyId);
 		Mockito.verify(repository, Mockito.times(1)).save(ArgumentMatchers.any(Company.class));
+		Mockito.verify(imageStorageService, Mockito.times(1)).storeUpload(ArgumentMatchers.any());
+	}
+
+	@Test
+	void findLogoHashShouldReturnHashWhenCompanyHasPhoto() {
+		company.setPhotoHash("hash");
+		Mockito.when(repository.findById(company.getId())).thenReturn(Optional.of(company));
+
+		Assertions.assertEquals("hash", service.findLogoHash());
+	}
+
+	@Test
+	void findLogoHashShouldThrowResourceNotFoundExceptionWhenCompanyHasNoPhoto() {
+		Mockito.when(repository.findById(company.getId())).thenReturn(Optional.of(company));
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findLogoHash();
+		});
 	}
 
 	@Test
@@ -86,6 +118,39 @@ class CompanyServiceTests {
 		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any(Company.class));
 	}
 
+	@Test
+	void findAllActiversUserByCompanyShouldQueryOnlyActiveUsers() {
+		Mockito.when(repository.existsById(company.getId())).thenReturn(true);
+		Mockito.when(userRepository.findByCompanyIdAndStatus(company.getId(), true)).thenReturn(List.of(user));
+
+		List<UserDTO> result = service.findAllActiversUserByCompany();
+
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals(user.getId(), result.get(0).getId());
+		Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.any());
+	}
+
+	@Test
+	void findUsersByCompanyPagedShouldNormalizeRoleAndBlankName() {
+		Pageable pageable = PageRequest.of(0, 10);
+		Page<UserSummaryDTO> page = new PageImpl<>(List.of());
+		Mockito.when(userRepository.findSummariesByCompanyId(company.getId(), true, null, "ROLE_OPERATOR", pageable))
+				.thenReturn(page);
+
+		Page<UserSummaryDTO> result = service.findUsersByCompanyPaged(true, " ", "operator", pageable);
+
+		Assertions.assertSame(page, result);
+		Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.any());
+	}
+
+	@Test
+	void getReferenceShouldNotLoadCompany() {
+		Mockito.when(repository.getReferenceById(company.getId())).thenReturn(company);
+
+		Assertions.assertSame(company, service.getReference());
+		Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.any());
+	}
+
 	@Test
 	void findAllUserByCompanyShouldThrowResourceNotFoundExceptionWhenCompanyDoesNotExist() {
 
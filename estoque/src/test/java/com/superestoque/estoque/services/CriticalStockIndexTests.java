@@ -0,0 +1,138 @@
+package com.superestoque.estoque.services;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.superestoque.estoque.entities.dto.CriticalProductDTO;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+@ExtendWith(SpringExtension.class)
+class CriticalStockIndexTests {
+
+	@InjectMocks
+	private CriticalStockIndex index;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private AuthService authService;
+
+	private Long companyId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		companyId = 1L;
+		Mockito.when(authService.principal()).thenReturn(new AuthenticatedUser(1L, companyId, "alex.brown@ifpe.com"));
+		Mockito.doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(row(1L, "Código Limpo", 1, 10));
+			handler.processRow(row(5L, "Caneta", 3, 4));
+			return null;
+		}).when(jdbcTemplate).query(ArgumentMatchers.eq(CriticalStockIndex.CRITICAL_PRODUCTS),
+				ArgumentMatchers.any(RowCallbackHandler.class), ArgumentMatchers.eq(companyId));
+	}
+
+	@Test
+	void topShouldReturnProductsOrderedByShortage() {
+		List<CriticalProductDTO> result = index.top(10);
+
+		Assertions.assertEquals(List.of(1L, 5L), result.stream().map(CriticalProductDTO::getId).toList());
+		Assertions.assertEquals(9, result.get(0).getShortage());
+	}
+
+	@Test
+	void topShouldLimitResultAndLoadCompanyOnlyOnce() {
+		index.top(10);
+		List<CriticalProductDTO> result = index.top(1);
+
+		Assertions.assertEquals(1, result.size());
+		Mockito.verify(jdbcTemplate, Mockito.times(1)).query(ArgumentMatchers.eq(CriticalStockIndex.CRITICAL_PRODUCTS),
+				ArgumentMatchers.any(RowCallbackHandler.class), ArgumentMatchers.<Object>any());
+	}
+
+	@Test
+	void onProductChangedShouldReorderAddAndRemoveProducts() {
+		index.top(10);
+
+		index.onProductChanged(new ProductChangedEvent(snapshot(5L, 3, 4), snapshot(5L, 0, 40)));
+		index.onProductChanged(ProductChangedEvent.created(snapshot(7L, 2, 5)));
+		index.onProductChanged(new ProductChangedEvent(snapshot(1L, 1, 10), snapshot(1L, 50, 10)));
+		List<CriticalProductDTO> result = index.top(10);
+
+		Assertions.assertEquals(List.of(5L, 7L), result.stream().map(CriticalProductDTO::getId).toList());
+		Assertions.assertEquals(40, result.get(0).getShortage());
+	}
+
+	@Test
+	void onProductChangedShouldRemoveDeletedProducts() {
+		index.top(10);
+
+		index.onProductChanged(ProductChangedEvent.deleted(snapshot(1L, 1, 10)));
+
+		Assertions.assertEquals(List.of(5L), index.top(10).stream().map(CriticalProductDTO::getId).toList());
+	}
+
+	@Test
+	void onProductChangedShouldIgnoreOlderVersions() {
+		index.top(10);
+
+		index.onProductChanged(new ProductChangedEvent(snapshot(1L, 1, 10, 1), snapshot(1L, 50, 10, 2)));
+		index.onProductChanged(new ProductChangedEvent(snapshot(1L, 0, 10, 0), snapshot(1L, 1, 10, 1)));
+
+		Assertions.assertEquals(List.of(5L), index.top(10).stream().map(CriticalProductDTO::getId).toList());
+	}
+
+	@Test
+	void reconcileShouldApplyEventsReceivedWhileLoading() throws Exception {
+		index.top(10);
+		Mockito.doAnswer(invocation -> {
+			index.onProductChanged(ProductChangedEvent.created(snapshot(7L, 2, 5, 0)));
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(row(1L, "Código Limpo", 1, 10));
+			return null;
+		}).when(jdbcTemplate).query(ArgumentMatchers.eq(CriticalStockIndex.CRITICAL_PRODUCTS),
+				ArgumentMatchers.any(RowCallbackHandler.class), ArgumentMatchers.eq(companyId));
+
+		index.reconcile();
+
+		Assertions.assertEquals(List.of(1L, 7L), index.top(10).stream().map(CriticalProductDTO::getId).toList());
+	}
+
+	private static ResultSet row(Long id, String name, int quantity, int criticalQuantity) throws Exception {
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		Mockito.when(rs.getLong("id")).thenReturn(id);
+		Mockito.when(rs.getString("name")).thenReturn(name);
+		Mockito.when(rs.getInt("quantity")).thenReturn(quantity);
+		Mockito.when(rs.getInt("critical_quantity")).thenReturn(criticalQuantity);
+		return rs;
+	}
+
+	private ProductSnapshot snapshot(Long id, int quantity, int criticalQuantity) {
+		return snapshot(id, quantity, criticalQuantity, 0);
+	}
+
+	private ProductSnapshot snapshot(Long id, int quantity, int criticalQuantity, long version) {
+		return new ProductSnapshot(id, companyId, "Produto " + id, null, quantity, criticalQuantity, BigDecimal.TEN,
+				BigDecimal.TEN.multiply(new BigDecimal(quantity)), Set.of(1L), version);
+	}
+}
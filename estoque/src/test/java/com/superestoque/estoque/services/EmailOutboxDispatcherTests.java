@@ -0,0 +1,127 @@
+package com.superestoque.estoque.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.enums.EmailType;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+import com.superestoque.estoque.repositories.OutboxEmailRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+
+class EmailOutboxDispatcherTests {
+
+	private OutboxEmailRepository repository;
+	private EmailOutboxService outboxService;
+	private SimpleMeterRegistry meterRegistry;
+	private EmailOutboxDispatcher dispatcher;
+	private OutboxEmail email;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repository = Mockito.mock(OutboxEmailRepository.class);
+		outboxService = Mockito.mock(EmailOutboxService.class);
+		meterRegistry = new SimpleMeterRegistry();
+		dispatcher = new EmailOutboxDispatcher(repository, outboxService, Mockito.mock(PlatformTransactionManager.class),
+				Runnable::run, meterRegistry, 20, 3, 5000L, 300000L);
+		email = new OutboxEmail(EmailType.PASSWORD_RESET, "{}", Instant.now());
+		Mockito.when(repository.findClaimable(ArgumentMatchers.any(), ArgumentMatchers.eq(20)))
+				.thenReturn(List.of(email));
+	}
+
+	@Test
+	void dispatchShouldSendClaimedEmailsAndRemoveThem() throws Exception {
+		dispatcher.dispatch();
+
+		Assertions.assertNotNull(email.getLockedUntil());
+		Mockito.verify(outboxService, Mockito.times(1)).deliver(email);
+		Mockito.verify(repository, Mockito.times(1)).deleteById(email.getId());
+		Assertions.assertEquals(1.0, meterRegistry.get("email.outbox.deliveries").tag("result", "sent").counter().count());
+	}
+
+	@Test
+	void dispatchShouldRescheduleFailedEmailWithBackoff() throws Exception {
+		Mockito.doThrow(new MessagingException("SMTP indisponível")).when(outboxService).deliver(email);
+
+		dispatcher.dispatch();
+		email.setLockedUntil(Instant.now());
+		dispatcher.dispatch();
+
+		Assertions.assertEquals(2, email.getAttempts());
+		Assertions.assertEquals(OutboxStatus.PENDING, email.getStatus());
+		Assertions.assertNull(email.getLockedUntil());
+		Assertions.assertEquals("SMTP indisponível", email.getLastError());
+		Duration delay = Duration.between(Instant.now(), email.getNextAttemptAt());
+		Assertions.assertTrue(delay.compareTo(Duration.ofSeconds(9)) > 0 && delay.compareTo(Duration.ofSeconds(10)) <= 0,
+				delay.toString());
+		Mockito.verify(repository, Mockito.never()).deleteById(ArgumentMatchers.any());
+	}
+
+	@Test
+	void dispatchShouldMarkEmailFailedAfterMaxAttempts() throws Exception {
+		Mockito.doThrow(new MessagingException("SMTP indisponível")).when(outboxService).deliver(email);
+		email.setAttempts(2);
+
+		dispatcher.dispatch();
+
+		Assertions.assertEquals(OutboxStatus.FAILED, email.getStatus());
+		Assertions.assertEquals(1.0,
+				meterRegistry.get("email.outbox.deliveries").tag("result", "failed").counter().count());
+	}
+
+	@Test
+	void dispatchShouldNotWaitForSendsAndKeepOneBatchInFlight() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		dispatcher = new EmailOutboxDispatcher(repository, outboxService, Mockito.mock(PlatformTransactionManager.class),
+				tasks::add, meterRegistry, 20, 3, 5000L, 300000L);
+
+		dispatcher.dispatch();
+		dispatcher.dispatch();
+
+		Assertions.assertEquals(1, tasks.size());
+		Mockito.verify(outboxService, Mockito.never()).deliver(email);
+		Mockito.verify(repository, Mockito.times(1)).findClaimable(ArgumentMatchers.any(), ArgumentMatchers.eq(19));
+
+		tasks.get(0).run();
+
+		Mockito.verify(outboxService, Mockito.times(1)).deliver(email);
+	}
+
+	@Test
+	void dispatchShouldReleaseEmailWhenExecutorRejects() throws Exception {
+		dispatcher = new EmailOutboxDispatcher(repository, outboxService, Mockito.mock(PlatformTransactionManager.class),
+				task -> {
+					throw new RejectedExecutionException();
+				}, meterRegistry, 20, 3, 5000L, 300000L);
+
+		dispatcher.dispatch();
+
+		Assertions.assertNull(email.getLockedUntil());
+		Assertions.assertEquals(0, email.getAttempts());
+		Mockito.verify(repository, Mockito.times(1)).save(email);
+		Mockito.verify(outboxService, Mockito.never()).deliver(email);
+	}
+
+	@Test
+	void dispatchShouldPublishQueueDepth() {
+		Mockito.when(repository.countByStatus(OutboxStatus.PENDING)).thenReturn(7L);
+		Mockito.when(repository.countByStatus(OutboxStatus.FAILED)).thenReturn(2L);
+
+		dispatcher.dispatch();
+
+		Assertions.assertEquals(7.0, meterRegistry.get("email.outbox.depth").tag("status", "pending").gauge().value());
+		Assertions.assertEquals(2.0, meterRegistry.get("email.outbox.depth").tag("status", "failed").gauge().value());
+	}
+}
@@ -0,0 +1,73 @@
+package com.superestoque.estoque.services;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.OutboxEmail;
+import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.entities.enums.EmailType;
+import com.superestoque.estoque.entities.enums.OutboxStatus;
+import com.superestoque.estoque.factories.UserFactory;
+import com.superestoque.estoque.repositories.OutboxEmailRepository;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+class EmailOutboxServiceTests {
+
+	private OutboxEmailRepository repository;
+	private EmailService emailService;
+	private EmailOutboxService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repository = Mockito.mock(OutboxEmailRepository.class);
+		emailService = Mockito.mock(EmailService.class);
+		service = new EmailOutboxService(repository, emailService, new ObjectMapper());
+		Mockito.when(repository.save(ArgumentMatchers.any())).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	void enqueuePasswordResetShouldStoreEmailThatDeliversResetLink() throws Exception {
+		User user = UserFactory.createUser();
+
+		service.enqueuePasswordReset(user, "token");
+		OutboxEmail email = saved();
+		service.deliver(email);
+
+		Assertions.assertEquals(EmailType.PASSWORD_RESET, email.getType());
+		Assertions.assertEquals(OutboxStatus.PENDING, email.getStatus());
+		Mockito.verify(emailService, Mockito.times(1)).sendPasswordResetEmail(user.getName(), user.getEmail(), "token");
+	}
+
+	@Test
+	void enqueueCriticalStockDigestShouldStoreEmailThatDeliversProducts() throws Exception {
+		ProductSnapshot product = new ProductSnapshot(1L, 1L, "Código Limpo", null, 1, 10, BigDecimal.TEN,
+				BigDecimal.TEN, Set.of(1L));
+
+		service.enqueueCriticalStockDigest(1L, List.of(product));
+		service.deliver(saved());
+
+		ArgumentCaptor<List<ProductSnapshot>> products = ArgumentCaptor.captor();
+		Mockito.verify(emailService, Mockito.times(1)).sendCriticalStockDigest(ArgumentMatchers.eq(1L),
+				products.capture());
+		ProductSnapshot delivered = products.getValue().get(0);
+		Assertions.assertEquals("Código Limpo", delivered.getName());
+		Assertions.assertNull(delivered.getPhotoHash());
+		Assertions.assertEquals(1, delivered.getQuantity());
+		Assertions.assertEquals(10, delivered.getCriticalQuantity());
+	}
+
+	private OutboxEmail saved() {
+		ArgumentCaptor<OutboxEmail> email = ArgumentCaptor.forClass(OutboxEmail.class);
+		Mockito.verify(repository).save(email.capture());
+		return email.getValue();
+	}
+}
@@ -4,11 +4,20 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -18,10 +27,12 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 
 import com.superestoque.estoque.entities.Company;
-import com.superestoque.estoque.entities.Product;
 import com.superestoque.estoque.entities.Role;
 import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.events.ProductSnapshot;
 
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 
 class EmailServiceTests {
@@ -32,18 +43,33 @@ class EmailServiceTests {
 	@Mock
 	private JavaMailSender javaMailSender;
 
-	@Mock
 	private MimeMessage mimeMessage;
 
 	@Mock
 	private MimeMessageHelper mimeMessageHelper;
 
-	private Product product;
+	@Mock
+	private ImageStorageService imageStorageService;
+
+	@Mock
+	private ThumbnailService thumbnailService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	private ProductSnapshot product;
 	private User adminUser;
 
+	@TempDir
+	Path dir;
+
+	private Path thumbnail;
+
 	@BeforeEach
-	void setUp() {
+	void setUp() throws Exception {
+		thumbnail = Files.write(dir.resolve("hash-64.jpg"), new byte[] { 1, 2, 3, 4 });
 		MockitoAnnotations.openMocks(this);
+		mimeMessage = new MimeMessage((Session) null);
 		adminUser = new User();
 		adminUser.setId(1L);
 		adminUser.setName("Admin User");
@@ -53,35 +79,60 @@ class EmailServiceTests {
 
 		Company company = new Company();
 		company.setId(1L);
-		company.getUsers().add(adminUser);
 
-		product = new Product();
-		product.setName("Product A");
-		product.setQuantity(5);
-		product.setCritical_quantity(10);
-		product.setDescription("Critical product description");
-		product.setPhoto(new byte[] { 1, 2, 3, 4 });
-		product.setCompany(company);
+		product = new ProductSnapshot(1L, company.getId(), "Product A", "hash", 5, 10, BigDecimal.TEN,
+				new BigDecimal("50"), Set.of(1L));
 
 		Mockito.when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
+		Mockito.when(userRepository.findEmailsByCompanyIdAndAuthority(1L, "ROLE_ADMIN"))
+				.thenReturn(List.of(adminUser.getEmail()));
+		Mockito.when(imageStorageService.findRendition("hash", 64)).thenReturn(Optional.of(thumbnail));
 		Mockito.when(mimeMessageHelper.getMimeMessage()).thenReturn(mimeMessage);
 	}
 
 	@Test
-	void sendEmailProductShouldSendEmailToAdmin() throws Exception {
-		emailService.sendEmailProduct(product);
+	void sendCriticalStockDigestShouldSendOneEmailWithThumbnails() throws Exception {
+		emailService.sendCriticalStockDigest(1L, List.of(product));
 
-		String expectedPhotoBase64 = Base64.getEncoder().encodeToString(product.getPhoto());
+		String expectedThumbnailBase64 = Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3, 4 });
 
 		Mockito.verify(javaMailSender, times(1)).send(ArgumentMatchers.any(MimeMessage.class));
-		Mockito.verify(mimeMessageHelper, never()).setTo(adminUser.getEmail());
-		Mockito.verify(mimeMessageHelper, never()).setText(ArgumentMatchers.contains(expectedPhotoBase64), eq(true));
+		Mockito.verify(userRepository, times(1)).findEmailsByCompanyIdAndAuthority(1L, "ROLE_ADMIN");
+		Mockito.verify(thumbnailService, times(1)).createRenditions("hash");
+		Mockito.verify(imageStorageService, never()).read("hash");
+		Mockito.verify(mimeMessageHelper, never()).setText(ArgumentMatchers.contains(expectedThumbnailBase64),
+				eq(true));
+	}
+
+	@Test
+	void sendCriticalStockDigestShouldAttachEachThumbnailOnceAsInlinePart() throws Exception {
+		ProductSnapshot samePhoto = new ProductSnapshot(2L, 1L, "Product <B>", "hash", 1, 10, BigDecimal.TEN,
+				BigDecimal.TEN, Set.of(1L));
+
+		emailService.sendCriticalStockDigest(1L, List.of(product, samePhoto));
+		mimeMessage.saveChanges();
+		String raw = raw(mimeMessage);
+
+		Mockito.verify(imageStorageService, times(1)).findRendition("hash", 64);
+		Assertions.assertEquals(2, raw.split("src=3D\"cid:img-hash\"|src=\"cid:img-hash\"", -1).length - 1);
+		Assertions.assertEquals(1, raw.split("Content-ID: <img-hash>", -1).length - 1);
+		Assertions.assertTrue(raw.contains("Product &lt;B&gt;"));
+		Assertions.assertFalse(raw.contains("data:image"));
+	}
+
+	@Test
+	void sendCriticalStockDigestShouldNotSendWhenCompanyHasNoAdmin() throws Exception {
+		Mockito.when(userRepository.findEmailsByCompanyIdAndAuthority(1L, "ROLE_ADMIN")).thenReturn(List.of());
+
+		emailService.sendCriticalStockDigest(1L, List.of(product));
+
+		Mockito.verify(javaMailSender, never()).send(ArgumentMatchers.any(MimeMessage.class));
 	}
 
 	@Test
 	void sendPasswordResetEmailShouldSendEmailToUser() throws Exception {
 		String token = "testToken123";
-		emailService.sendPasswordResetEmail(adminUser, token);
+		emailService.sendPasswordResetEmail(adminUser.getName(), adminUser.getEmail(), token);
 
 		String expectedResetLink = "http://137.131.180.24/reset-password?token=" + token;
 
@@ -89,4 +140,10 @@ class EmailServiceTests {
 		Mockito.verify(mimeMessageHelper, never()).setTo(adminUser.getEmail());
 		Mockito.verify(mimeMessageHelper, never()).setText(ArgumentMatchers.contains(expectedResetLink), eq(true));
 	}
+
+	private static String raw(MimeMessage message) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		message.writeTo(out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
 }
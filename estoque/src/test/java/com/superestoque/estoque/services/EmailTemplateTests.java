@@ -0,0 +1,60 @@
+package com.superestoque.estoque.services;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EmailTemplateTests {
+
+	@Test
+	void renderShouldEscapeValuesAndKeepRawContent() {
+		EmailTemplate template = EmailTemplate.compile("<p>{{name}}</p>{{{content}}}<p>{{ count }}</p>");
+
+		String html = template.render(Map.of("name", "A & <B>", "content", "<b>ok</b>", "count", 3));
+
+		Assertions.assertEquals("<p>A &amp; &lt;B&gt;</p><b>ok</b><p>3</p>", html);
+	}
+
+	@Test
+	void renderShouldReuseCompiledTemplateAcrossMessages() {
+		EmailTemplate template = EmailTemplate.compile("Olá, {{name}}!");
+
+		Assertions.assertEquals("Olá, Ana!", template.render(Map.of("name", "Ana")));
+		Assertions.assertEquals("Olá, Bruno!", template.render(Map.of("name", "Bruno")));
+	}
+
+	@Test
+	void renderShouldAppendToCallerBuffer() {
+		EmailTemplate template = EmailTemplate.compile("<tr>{{name}}</tr>");
+		StringBuilder rows = new StringBuilder();
+
+		template.render(rows, Map.of("name", "Ana"));
+		template.render(rows, Map.of("name", "Bruno"));
+
+		Assertions.assertEquals("<tr>Ana</tr><tr>Bruno</tr>", rows.toString());
+	}
+
+	@Test
+	void renderShouldThrowWhenValueIsMissing() {
+		EmailTemplate template = EmailTemplate.compile("{{name}}");
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+	}
+
+	@Test
+	void compileShouldThrowWhenVariableIsNotClosed() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("<p>{{name</p>"));
+	}
+
+	@Test
+	void pageShouldPlaceContentInsideLayout() {
+		String html = EmailTemplate.page("password-reset.html")
+				.render(Map.of("title", "Redefinição de Senha", "name", "Ana", "link", "https://superestoque.me"));
+
+		Assertions.assertTrue(html.startsWith("<!DOCTYPE html>"));
+		Assertions.assertTrue(html.contains("<h1>Redefinição de Senha</h1>"));
+		Assertions.assertTrue(html.contains("Olá, Ana!"));
+		Assertions.assertTrue(html.contains("width: 100%;"));
+	}
+}
@@ -0,0 +1,114 @@
+package com.superestoque.estoque.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo para os testes: aceita qualquer remetente e
+ * destinatário e guarda o conteúdo das mensagens recebidas.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final AtomicInteger connections = new AtomicInteger();
+	private final List<String> messages = new CopyOnWriteArrayList<>();
+	private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+	private volatile long greetingDelayMs;
+
+	FakeSmtpServer() throws IOException {
+		serverSocket = new ServerSocket(0);
+		Thread acceptor = new Thread(this::accept, "FakeSmtpServer");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	int getConnections() {
+		return connections.get();
+	}
+
+	List<String> getMessages() {
+		return messages;
+	}
+
+	void setGreetingDelayMs(long greetingDelayMs) {
+		this.greetingDelayMs = greetingDelayMs;
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				sockets.add(socket);
+				Thread session = new Thread(() -> handle(socket), "FakeSmtpSession");
+				session.setDaemon(true);
+				session.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+			Thread.sleep(greetingDelayMs);
+			reply(out, "220 localhost ESMTP");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+				switch (command) {
+				case "EHLO", "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+				case "DATA" -> {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					StringBuilder message = new StringBuilder();
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						message.append(line).append('\n');
+					}
+					messages.add(message.toString());
+					reply(out, "250 OK");
+				}
+				case "QUIT" -> {
+					reply(out, "221 Bye");
+					return;
+				}
+				default -> reply(out, "502 Command not implemented");
+				}
+			}
+		} catch (SocketException e) {
+			// conexão encerrada pelo teste
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void reply(PrintWriter out, String line) {
+		out.print(line + "\r\n");
+		out.flush();
+	}
+}
@@ -0,0 +1,85 @@
+package com.superestoque.estoque.services;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockMovementRepository;
+
+class HotProductPolicyTests {
+
+	private StockShardService shardService;
+	private ProductRepository productRepository;
+	private StockMovementRepository movementRepository;
+	private HotProductPolicy policy;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		shardService = Mockito.mock(StockShardService.class);
+		productRepository = Mockito.mock(ProductRepository.class);
+		movementRepository = Mockito.mock(StockMovementRepository.class);
+		policy = new HotProductPolicy(shardService, productRepository, movementRepository, 4, 8, 60000L, true);
+	}
+
+	@Test
+	void evaluateShouldShardProductsAboveThreshold() {
+		Mockito.when(movementRepository.findBusyProductIds(ArgumentMatchers.anyCollection(),
+				ArgumentMatchers.any(Instant.class), ArgumentMatchers.eq(4L))).thenReturn(List.of(1L));
+		policy.record(1L);
+		policy.record(2L);
+
+		policy.evaluate();
+
+		Mockito.verify(shardService, Mockito.times(1)).shard(1L, 8);
+		Mockito.verify(shardService, Mockito.never()).shard(Mockito.eq(2L), Mockito.anyInt());
+	}
+
+	@Test
+	void evaluateShouldConsolidateShardedProductsThatCooledDown() {
+		Mockito.when(productRepository.findShardedIds()).thenReturn(List.of(1L, 3L));
+		Mockito.when(movementRepository.findBusyProductIds(ArgumentMatchers.eq(List.of(1L, 3L)),
+				ArgumentMatchers.any(Instant.class), ArgumentMatchers.eq(1L))).thenReturn(List.of(1L));
+
+		policy.evaluate();
+
+		Mockito.verify(shardService, Mockito.never()).consolidate(1L);
+		Mockito.verify(shardService, Mockito.times(1)).consolidate(3L);
+	}
+
+	@Test
+	void evaluateShouldKeepShardsOfProductBusyOnAnotherNode() {
+		Mockito.when(productRepository.findShardedIds()).thenReturn(List.of(1L));
+		Mockito.when(movementRepository.findBusyProductIds(ArgumentMatchers.eq(List.of(1L)),
+				ArgumentMatchers.any(Instant.class), ArgumentMatchers.eq(1L))).thenReturn(List.of(1L));
+
+		policy.evaluate();
+
+		Mockito.verify(shardService, Mockito.never()).consolidate(1L);
+	}
+
+	@Test
+	void evaluateShouldDoNothingWhenDisabled() {
+		policy = new HotProductPolicy(shardService, productRepository, movementRepository, 4, 8, 60000L, false);
+		policy.record(1L);
+
+		policy.evaluate();
+
+		Mockito.verifyNoInteractions(shardService, productRepository, movementRepository);
+	}
+
+	@Test
+	void evaluateShouldStartNewWindow() {
+		Mockito.when(movementRepository.findBusyProductIds(ArgumentMatchers.anyCollection(),
+				ArgumentMatchers.any(Instant.class), ArgumentMatchers.eq(4L))).thenReturn(List.of(1L));
+		policy.record(1L);
+		policy.evaluate();
+		policy.evaluate();
+
+		Mockito.verify(shardService, Mockito.times(1)).shard(1L, 8);
+	}
+}
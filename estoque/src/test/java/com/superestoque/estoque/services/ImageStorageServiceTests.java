@@ -0,0 +1,110 @@
+package com.superestoque.estoque.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+class ImageStorageServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private ImageStorageService service;
+
+	private byte[] png;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new ImageStorageService(directory.toString(), 4_000_000);
+		png = new byte[] { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0 };
+	}
+
+	@Test
+	void storeShouldReturnSha256OfContent() {
+		String hash = service.store("conteudo".getBytes(StandardCharsets.UTF_8));
+
+		Assertions.assertEquals(ImageStorageService.sha256("conteudo".getBytes(StandardCharsets.UTF_8)), hash);
+		Assertions.assertEquals(64, hash.length());
+	}
+
+	@Test
+	void storeShouldDeduplicateSameContent() throws Exception {
+		String first = service.store(png);
+		String second = service.store(png.clone());
+
+		Assertions.assertEquals(first, second);
+		try (var files = Files.walk(directory)) {
+			Assertions.assertEquals(1, files.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void storeUploadShouldRejectImageAbovePixelLimitWithoutDecoding() throws Exception {
+		byte[] bomb = pngHeader(100_000, 100_000);
+
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> service.storeUpload(bomb));
+		Assertions.assertTrue(service.find(ImageStorageService.sha256(bomb)).isEmpty());
+	}
+
+	@Test
+	void storeUploadShouldAcceptImageWithinPixelLimit() throws Exception {
+		byte[] image = pngHeader(2000, 2000);
+
+		String hash = service.storeUpload(image);
+
+		Assertions.assertTrue(service.find(hash).isPresent());
+	}
+
+	@Test
+	void readShouldReturnStoredContent() {
+		String hash = service.store(png);
+
+		Assertions.assertArrayEquals(png, service.read(hash));
+	}
+
+	@Test
+	void findShouldReturnEmptyWhenHashIsInvalid() {
+		Optional<Path> result = service.find("../../etc/passwd");
+
+		Assertions.assertTrue(result.isEmpty());
+	}
+
+	@Test
+	void readShouldThrowResourceNotFoundExceptionWhenImageDoesNotExist() {
+		String hash = ImageStorageService.sha256(new byte[] { 1 });
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.read(hash);
+		});
+	}
+
+	@Test
+	void contentTypeShouldDetectPng() {
+		String hash = service.store(png);
+
+		Assertions.assertEquals("image/png", service.contentType(service.find(hash).get()));
+	}
+
+	// só a assinatura e o IHDR, com as dimensões declaradas
+	private static byte[] pngHeader(int width, int height) {
+		ByteBuffer header = ByteBuffer.allocate(33);
+		header.put(new byte[] { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A });
+		header.putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII));
+		header.putInt(width).putInt(height).put(new byte[] { 8, 6, 0, 0, 0 });
+		CRC32 crc = new CRC32();
+		crc.update(header.array(), 12, 17);
+		header.putInt((int) crc.getValue());
+		return header.array();
+	}
+}
@@ -0,0 +1,179 @@
+package com.superestoque.estoque.services;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.superestoque.estoque.entities.dto.CategoryDTO;
+import com.superestoque.estoque.entities.dto.InventoryDashboardDTO;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.events.ProductSnapshot;
+
+@ExtendWith(SpringExtension.class)
+class InventoryDashboardServiceTests {
+
+	@InjectMocks
+	private InventoryDashboardService service;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private AuthService authService;
+
+	@Mock
+	private CategoryService categoryService;
+
+	private Long companyId;
+	private Long otherCompanyId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		companyId = 1L;
+		otherCompanyId = 2L;
+		Mockito.when(authService.principal()).thenReturn(new AuthenticatedUser(1L, companyId, "alex.brown@ifpe.com"));
+		Mockito.when(categoryService.findAllCategory())
+				.thenReturn(List.of(new CategoryDTO(1L, "Livros"), new CategoryDTO(2L, "Eletrônicos")));
+		Mockito.when(jdbcTemplate.queryForMap(InventoryDashboardService.TOTALS, companyId)).thenReturn(
+				Map.of("products", 2L, "critical", 1L, "stock_value", new BigDecimal("559.00")));
+		Mockito.when(jdbcTemplate.queryForList(InventoryDashboardService.CATEGORY_VALUES, companyId))
+				.thenReturn(List.of(Map.of("category_id", 1L, "stock_value", new BigDecimal("100.00")),
+						Map.of("category_id", 2L, "stock_value", new BigDecimal("459.00"))));
+	}
+
+	@Test
+	void dashboardShouldLoadCompanyOnlyOnce() {
+		service.dashboard();
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(2, result.getProductCount());
+		Assertions.assertEquals(1, result.getCriticalCount());
+		Assertions.assertEquals(new BigDecimal("559.00"), result.getTotalStockValue());
+		Assertions.assertEquals(new BigDecimal("100.00"), result.getCategories().get(0).getStockValue());
+		Mockito.verify(jdbcTemplate, Mockito.times(1)).queryForMap(InventoryDashboardService.TOTALS, companyId);
+	}
+
+	@Test
+	void onProductChangedShouldApplyDifferenceBetweenSnapshots() {
+		service.dashboard();
+		ProductSnapshot before = snapshot(companyId, 1, 10);
+		ProductSnapshot after = before.withQuantity(20);
+
+		service.onProductChanged(new ProductChangedEvent(before, after));
+		service.onProductChanged(ProductChangedEvent.created(snapshot(companyId, 5, 0)));
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(3, result.getProductCount());
+		Assertions.assertEquals(0, result.getCriticalCount());
+		Assertions.assertEquals(new BigDecimal("1159.00"), result.getTotalStockValue());
+		Assertions.assertEquals(new BigDecimal("700.00"), result.getCategories().get(0).getStockValue());
+		Assertions.assertEquals(new BigDecimal("459.00"), result.getCategories().get(1).getStockValue());
+	}
+
+	@Test
+	void onProductChangedShouldIgnoreCompaniesNotLoaded() {
+		service.onProductChanged(ProductChangedEvent.created(snapshot(otherCompanyId, 1, 10)));
+
+		Mockito.verify(jdbcTemplate, Mockito.never()).queryForMap(ArgumentMatchers.anyString(),
+				ArgumentMatchers.<Object>any());
+	}
+
+	@Test
+	void reconcileShouldReloadLoadedCompanies() {
+		service.dashboard();
+		service.onProductChanged(ProductChangedEvent.deleted(snapshot(companyId, 1, 10)));
+
+		service.reconcile();
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(2, result.getProductCount());
+		Mockito.verify(jdbcTemplate, Mockito.times(2)).queryForMap(InventoryDashboardService.TOTALS, companyId);
+	}
+
+	@Test
+	void reconcileShouldApplyEventsReceivedWhileLoading() {
+		service.dashboard();
+		Mockito.when(jdbcTemplate.queryForMap(InventoryDashboardService.TOTALS, companyId)).thenAnswer(invocation -> {
+			service.onProductChanged(ProductChangedEvent.created(snapshot(companyId, 5, 0)));
+			return Map.of("products", 2L, "critical", 1L, "stock_value", new BigDecimal("559.00"));
+		});
+
+		service.reconcile();
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(3, result.getProductCount());
+		Assertions.assertEquals(new BigDecimal("684.00"), result.getTotalStockValue());
+	}
+
+	@Test
+	void reconcileShouldSkipEventsAlreadySeenByReload() {
+		service.dashboard();
+		Mockito.doAnswer(invocation -> {
+			ResultSet rs = Mockito.mock(ResultSet.class);
+			Mockito.when(rs.getLong("id")).thenReturn(10L);
+			Mockito.when(rs.getLong("version")).thenReturn(3L);
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(ArgumentMatchers.eq(CompanyStateCache.PRODUCT_VERSIONS),
+				ArgumentMatchers.any(RowCallbackHandler.class), ArgumentMatchers.eq(companyId));
+		Mockito.when(jdbcTemplate.queryForMap(InventoryDashboardService.TOTALS, companyId)).thenAnswer(invocation -> {
+			service.onProductChanged(
+					new ProductChangedEvent(snapshot(companyId, 1, 10, 2), snapshot(companyId, 2, 10, 3)));
+			service.onProductChanged(
+					new ProductChangedEvent(snapshot(companyId, 2, 10, 3), snapshot(companyId, 4, 10, 4)));
+			return Map.of("products", 2L, "critical", 1L, "stock_value", new BigDecimal("559.00"));
+		});
+
+		service.reconcile();
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(2, result.getProductCount());
+		Assertions.assertEquals(new BigDecimal("609.00"), result.getTotalStockValue());
+	}
+
+	@Test
+	void reconcileShouldSkipLateEventsOfProductsRemovedBeforeReload() {
+		service.dashboard();
+		Mockito.when(jdbcTemplate.queryForMap(InventoryDashboardService.TOTALS, companyId)).thenAnswer(invocation -> {
+			service.onProductChanged(
+					new ProductChangedEvent(snapshot(companyId, 1, 10, 2), snapshot(companyId, 2, 10, 3)));
+			service.onProductChanged(ProductChangedEvent.deleted(snapshot(companyId, 2, 10, 3)));
+			return Map.of("products", 2L, "critical", 1L, "stock_value", new BigDecimal("559.00"));
+		});
+
+		service.reconcile();
+		InventoryDashboardDTO result = service.dashboard();
+
+		Assertions.assertEquals(2, result.getProductCount());
+		Assertions.assertEquals(new BigDecimal("559.00"), result.getTotalStockValue());
+	}
+
+	private static ProductSnapshot snapshot(Long companyId, int quantity, int criticalQuantity) {
+		return snapshot(companyId, quantity, criticalQuantity, 0);
+	}
+
+	private static ProductSnapshot snapshot(Long companyId, int quantity, int criticalQuantity, long version) {
+		BigDecimal unitValue = new BigDecimal("25.00");
+		return new ProductSnapshot(10L, companyId, "Produto", null, quantity, criticalQuantity, unitValue,
+				unitValue.multiply(new BigDecimal(quantity)), Set.of(1L), version);
+	}
+}
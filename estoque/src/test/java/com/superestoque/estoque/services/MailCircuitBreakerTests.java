@@ -0,0 +1,89 @@
+package com.superestoque.estoque.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailCircuitBreakerTests {
+
+	private AtomicLong clock;
+	private MailCircuitBreaker breaker;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		clock = new AtomicLong();
+		breaker = new MailCircuitBreaker(3, 1000L, clock::get);
+	}
+
+	@Test
+	void breakerShouldOpenAfterThresholdFailures() {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		Assertions.assertTrue(breaker.allowRequest());
+
+		breaker.recordFailure();
+
+		Assertions.assertEquals(MailCircuitBreaker.State.OPEN, breaker.getState());
+		Assertions.assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void successShouldResetFailureCount() {
+		breaker.recordFailure();
+		breaker.recordFailure();
+		breaker.recordSuccess();
+		breaker.recordFailure();
+
+		Assertions.assertEquals(MailCircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void breakerShouldAllowSingleTrialAfterOpenPeriod() {
+		openBreaker();
+		clock.addAndGet(1000L);
+
+		Assertions.assertTrue(breaker.allowRequest());
+		Assertions.assertFalse(breaker.allowRequest());
+		breaker.recordSuccess();
+
+		Assertions.assertEquals(MailCircuitBreaker.State.CLOSED, breaker.getState());
+		Assertions.assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void failedTrialShouldReopenBreaker() {
+		openBreaker();
+		clock.addAndGet(1000L);
+		breaker.allowRequest();
+
+		breaker.recordFailure();
+
+		Assertions.assertEquals(MailCircuitBreaker.State.OPEN, breaker.getState());
+		Assertions.assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void releaseShouldFreeTrialThatEndedWithoutOutcome() throws Exception {
+		openBreaker();
+		clock.addAndGet(1000L);
+		Assertions.assertTrue(breaker.allowRequest());
+
+		Thread other = new Thread(breaker::release);
+		other.start();
+		other.join();
+		Assertions.assertFalse(breaker.allowRequest());
+
+		breaker.release();
+
+		Assertions.assertEquals(MailCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		Assertions.assertTrue(breaker.allowRequest());
+	}
+
+	private void openBreaker() {
+		for (int i = 0; i < 3; i++) {
+			breaker.recordFailure();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.superestoque.estoque.services;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import jakarta.mail.internet.MimeMessage;
+
+class PooledMailSenderTests {
+
+	private FakeSmtpServer server;
+	private PooledMailSender sender;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new FakeSmtpServer();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (sender != null) {
+			sender.destroy();
+		}
+		server.close();
+	}
+
+	@Test
+	void sendShouldReuseOpenSessionForConsecutiveMessages() throws Exception {
+		sender = sender(server.getPort(), 1, 60000L, 5);
+
+		for (int i = 0; i < 10; i++) {
+			sender.send(message("Mensagem " + i));
+		}
+
+		Assertions.assertEquals(10, server.getMessages().size());
+		Assertions.assertEquals(1, server.getConnections());
+	}
+
+	@Test
+	void concurrentSendsShouldShareTheSessionPool() throws Exception {
+		sender = sender(server.getPort(), 2, 60000L, 5);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				MimeMessage message = message("Mensagem " + i);
+				results.add(executor.submit(() -> sender.send(message)));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		Assertions.assertEquals(40, server.getMessages().size());
+		Assertions.assertTrue(server.getConnections() <= 2, "conexões: " + server.getConnections());
+	}
+
+	@Test
+	void idleSessionShouldBeClosedAndReopened() throws Exception {
+		sender = sender(server.getPort(), 1, 100L, 5);
+
+		sender.send(message("Primeira"));
+		Thread.sleep(400);
+		sender.send(message("Segunda"));
+
+		Assertions.assertEquals(2, server.getMessages().size());
+		Assertions.assertEquals(2, server.getConnections());
+	}
+
+	@Test
+	void circuitShouldOpenAfterConsecutiveConnectionFailures() throws Exception {
+		sender = sender(closedPort(), 1, 60000L, 2);
+
+		Assertions.assertThrows(MailSendException.class, () -> sender.send(message("Primeira")));
+		Assertions.assertThrows(MailSendException.class, () -> sender.send(message("Segunda")));
+		MailSendException rejected = Assertions.assertThrows(MailSendException.class,
+				() -> sender.send(message("Terceira")));
+
+		Assertions.assertEquals(MailCircuitBreaker.State.OPEN, sender.getCircuitState());
+		Assertions.assertTrue(rejected.getFailedMessages().isEmpty());
+	}
+
+	@Test
+	void timedOutMessageShouldNotBeSentLaterAndShouldCountAsFailure() throws Exception {
+		server.setGreetingDelayMs(500);
+		sender = new PooledMailSender(1, 20, 100, 60000L, 100L, 1, 60000L);
+		sender.setHost("localhost");
+		sender.setPort(server.getPort());
+
+		Assertions.assertThrows(MailSendException.class, () -> sender.send(message("Atrasada")));
+		Thread.sleep(1000);
+
+		Assertions.assertEquals(MailCircuitBreaker.State.OPEN, sender.getCircuitState());
+		Assertions.assertEquals(1, server.getConnections());
+		Assertions.assertTrue(server.getMessages().isEmpty());
+	}
+
+	private MimeMessage message(String subject) throws Exception {
+		MimeMessage message = sender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, false);
+		helper.setFrom("estoque@ifpe.com");
+		helper.setTo("alex.brown@ifpe.com");
+		helper.setSubject(subject);
+		helper.setText(subject);
+		return message;
+	}
+
+	private static PooledMailSender sender(int port, int poolSize, long idleMs, int failureThreshold) {
+		PooledMailSender sender = new PooledMailSender(poolSize, 20, 100, idleMs, 10000L, failureThreshold, 60000L);
+		sender.setHost("localhost");
+		sender.setPort(port);
+		return sender;
+	}
+
+	private static int closedPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
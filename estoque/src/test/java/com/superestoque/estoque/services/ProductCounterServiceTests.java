@@ -0,0 +1,101 @@
+package com.superestoque.estoque.services;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.superestoque.estoque.repositories.ProductRepository;
+
+@ExtendWith(SpringExtension.class)
+class ProductCounterServiceTests {
+
+	private ProductCounterService service;
+
+	@Mock
+	private ProductRepository repository;
+
+	private Long companyId;
+	private Long categoryId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		companyId = 1L;
+		categoryId = 2L;
+		service = new ProductCounterService(repository, 300);
+
+		Mockito.when(repository.countByCompanyId(companyId)).thenReturn(10L);
+		Mockito.when(repository.countByCompanyIdAndCategoryId(companyId, categoryId)).thenReturn(4L);
+	}
+
+	@Test
+	void countByCompanyShouldLoadFromDatabaseOnlyOnce() {
+		Assertions.assertEquals(10L, service.countByCompany(companyId));
+		Assertions.assertEquals(10L, service.countByCompany(companyId));
+
+		Mockito.verify(repository, Mockito.times(1)).countByCompanyId(companyId);
+	}
+
+	@Test
+	void productCreatedShouldIncrementCompanyAndCategoryCounters() {
+		service.countByCompany(companyId);
+		service.countByCompanyAndCategory(companyId, categoryId);
+
+		service.productCreated(companyId, List.of(categoryId));
+
+		Assertions.assertEquals(11L, service.countByCompany(companyId));
+		Assertions.assertEquals(5L, service.countByCompanyAndCategory(companyId, categoryId));
+	}
+
+	@Test
+	void productsCreatedShouldIncrementCountersByBatchTotals() {
+		service.countByCompany(companyId);
+		service.countByCompanyAndCategory(companyId, categoryId);
+
+		service.productsCreated(companyId, 5, Map.of(categoryId, 3L));
+
+		Assertions.assertEquals(15L, service.countByCompany(companyId));
+		Assertions.assertEquals(7L, service.countByCompanyAndCategory(companyId, categoryId));
+	}
+
+	@Test
+	void productDeletedShouldDecrementCompanyAndCategoryCounters() {
+		service.countByCompany(companyId);
+		service.countByCompanyAndCategory(companyId, categoryId);
+
+		service.productDeleted(companyId, List.of(categoryId));
+
+		Assertions.assertEquals(9L, service.countByCompany(companyId));
+		Assertions.assertEquals(3L, service.countByCompanyAndCategory(companyId, categoryId));
+	}
+
+	@Test
+	void categoriesChangedShouldMoveProductBetweenCategoryCounters() {
+		Long otherCategoryId = 3L;
+		Mockito.when(repository.countByCompanyIdAndCategoryId(companyId, otherCategoryId)).thenReturn(0L);
+		service.countByCompanyAndCategory(companyId, categoryId);
+		service.countByCompanyAndCategory(companyId, otherCategoryId);
+
+		service.categoriesChanged(companyId, List.of(categoryId), List.of(otherCategoryId));
+
+		Assertions.assertEquals(3L, service.countByCompanyAndCategory(companyId, categoryId));
+		Assertions.assertEquals(1L, service.countByCompanyAndCategory(companyId, otherCategoryId));
+		Assertions.assertEquals(10L, service.countByCompany(companyId));
+	}
+
+	@Test
+	void countShouldReloadFromDatabaseWhenCounterExpired() {
+		service = new ProductCounterService(repository, 0);
+
+		service.countByCompany(companyId);
+		service.countByCompany(companyId);
+
+		Mockito.verify(repository, Mockito.times(2)).countByCompanyId(companyId);
+	}
+}
@@ -0,0 +1,26 @@
+package com.superestoque.estoque.services;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ProductExportServiceTests {
+
+	@Test
+	void csvFieldShouldQuoteOnlyWhenNeeded() {
+		Assertions.assertEquals("Caneta", ProductExportService.csvField("Caneta"));
+		Assertions.assertEquals("\"Caneta, azul\"", ProductExportService.csvField("Caneta, azul"));
+		Assertions.assertEquals("\"diz \"\"oi\"\"\"", ProductExportService.csvField("diz \"oi\""));
+		Assertions.assertEquals("", ProductExportService.csvField(null));
+	}
+
+	@Test
+	void csvFieldShouldBeReadBackByImport() {
+		String value = "linha, com \"aspas\"";
+
+		List<String> values = ProductImportService.splitCsv(ProductExportService.csvField(value) + ",1");
+
+		Assertions.assertEquals(List.of(value, "1"), values);
+	}
+}
@@ -0,0 +1,120 @@
+package com.superestoque.estoque.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superestoque.estoque.entities.Category;
+import com.superestoque.estoque.entities.Company;
+import com.superestoque.estoque.entities.dto.ProductImportReportDTO;
+import com.superestoque.estoque.factories.CategoryFactory;
+import com.superestoque.estoque.factories.CompanyFactory;
+import com.superestoque.estoque.repositories.CategoryRepository;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+@ExtendWith(SpringExtension.class)
+class ProductImportServiceTests {
+
+	private ProductImportService service;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private AuthService authService;
+
+	@Mock
+	private CategoryRepository categoryRepository;
+
+	@Mock
+	private ProductCounterService counterService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private Company company;
+	private Category category;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		company = CompanyFactory.createCompany();
+		category = CategoryFactory.createCategory();
+		service = new ProductImportService(jdbcTemplate, transactionManager, authService, categoryRepository,
+				counterService, new ObjectMapper(), eventPublisher);
+
+		Mockito.when(authService.principal()).thenReturn(new AuthenticatedUser(1L, company.getId(), "user"));
+		Mockito.when(categoryRepository.findByCompanyId(company.getId())).thenReturn(List.of(category));
+	}
+
+	@Test
+	void splitCsvShouldHandleQuotedFieldsWithCommasAndQuotes() {
+		List<String> values = ProductImportService.splitCsv("\"Caneta, azul\",10,\"diz \"\"oi\"\"\",,1|2");
+
+		Assertions.assertEquals(List.of("Caneta, azul", "10", "diz \"oi\"", "", "1|2"), values);
+	}
+
+	@Test
+	void importProductsShouldReportInvalidRowsWithoutWriting() {
+		String csv = "name,quantity,description,critical_quantity,unit_value,categories\n"
+				+ ",10,descrição,2,5.00," + category.getId() + "\n"
+				+ "Caneta,dez,descrição,2,5.00," + category.getId() + "\n"
+				+ "Caneta,10,descrição,2,5.00,999\n";
+
+		ProductImportReportDTO report = service.importProducts(stream(csv), "text/csv");
+
+		Assertions.assertEquals(0, report.getImported());
+		Assertions.assertEquals(3, report.getFailed());
+		Assertions.assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(e -> e.getLine()).toList());
+		Assertions.assertEquals("Categorias não encontradas: 999.", report.getErrors().get(2).getMessage());
+		Mockito.verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void importProductsShouldReportInvalidJsonLines() {
+		String ndjson = "{\"name\": \"Caneta\", \"quantity\": 0}\nnão é json\n";
+
+		ProductImportReportDTO report = service.importProducts(stream(ndjson), "application/x-ndjson");
+
+		Assertions.assertEquals(2, report.getFailed());
+		Assertions.assertEquals("JSON inválido.", report.getErrors().get(1).getMessage());
+		Mockito.verify(jdbcTemplate, Mockito.never()).batchUpdate(ArgumentMatchers.anyString(),
+				ArgumentMatchers.<Object[]>anyList());
+	}
+
+	@Test
+	void importProductsShouldThrowValidMultiFormDataExceptionWhenColumnIsMissing() {
+		String csv = "name,quantity\nCaneta,10\n";
+
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> {
+			service.importProducts(stream(csv), "text/csv");
+		});
+	}
+
+	@Test
+	void importProductsShouldThrowValidMultiFormDataExceptionWhenFormatIsNotSupported() {
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> {
+			service.importProducts(stream(""), "application/xml");
+		});
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
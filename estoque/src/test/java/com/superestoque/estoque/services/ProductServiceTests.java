@@ -4,31 +4,40 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.superestoque.estoque.entities.Category;
 import com.superestoque.estoque.entities.Company;
 import com.superestoque.estoque.entities.Product;
 import com.superestoque.estoque.entities.User;
-import com.superestoque.estoque.entities.dto.CategoryDTO;
-import com.superestoque.estoque.entities.dto.CompanyDTO;
+import com.superestoque.estoque.entities.dto.CursorPageDTO;
 import com.superestoque.estoque.entities.dto.ProductDTO;
 import com.superestoque.estoque.factories.CategoryFactory;
 import com.superestoque.estoque.factories.CompanyFactory;
 import com.superestoque.estoque.factories.ProductFactory;
 import com.superestoque.estoque.factories.UserFactory;
 import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
 import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
 import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
 
@@ -50,16 +59,33 @@ class ProductServiceTests {
 	@Mock
 	private CategoryService categoryService;
 
+	@Mock
+	private ProductCounterService counterService;
+
+	@Mock
+	private ImageStorageService imageStorageService;
+
+	@Mock
+	private ThumbnailService thumbnailService;
+
+	@Mock
+	private StockMovementService stockMovementService;
+
+	@Mock
+	private StockShardService stockShardService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	private Long existingId;
 	private Long nonExistingId;
 	private Long existingIdCategory;
 	private Product product;
 	private ProductDTO productDTO;
 	private Company company;
-	private CompanyDTO companyDTO;
 	private User user;
 	private List<Long> categories = new ArrayList<>();
-	private CategoryDTO categoryDTO;
+	private Category category;
 
 	@BeforeEach
 	void setUp() throws Exception {
@@ -67,26 +93,27 @@ class ProductServiceTests {
 		nonExistingId = 1000L;
 		existingIdCategory = 1L;
 		company = CompanyFactory.createCompany();
-		companyDTO = CompanyFactory.createCompanyDTO();
 		product = ProductFactory.createProduct(company);
 		productDTO = ProductFactory.createProductDTO(company);
 		product.setCompany(company);
 		user = UserFactory.createUser();
 		user.setCompany(company);
 		categories.add(1L);
-		categoryDTO = CategoryFactory.createCompanyDTO();
+		category = CategoryFactory.createCategory();
 
-		Mockito.when(authService.authenticated()).thenReturn(user);
+		Mockito.when(authService.principal()).thenReturn(AuthenticatedUser.of(user));
 		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(product));
 		Mockito.when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
 		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(product);
-		Mockito.when(
-				repository.findByCompanyIdAndCategoryId(company.getId(), existingIdCategory, product.getName(), PageRequest.of(0, 10)))
-				.thenReturn(new PageImpl<>(List.of(product)));
+		Mockito.when(repository.saveAndFlush(ArgumentMatchers.any())).thenReturn(product);
+		Mockito.when(repository.findIdsByCompanyIdAndCategoryId(ArgumentMatchers.eq(company.getId()),
+				ArgumentMatchers.eq(existingIdCategory), ArgumentMatchers.eq(product.getName()), ArgumentMatchers.any()))
+				.thenReturn(new PageImpl<>(List.of(product.getId())));
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(product.getId()))).thenReturn(List.of(product));
 		Mockito.when(repository.existsById(existingId)).thenReturn(true);
 		Mockito.when(repository.existsById(nonExistingId)).thenReturn(false);
-		Mockito.when(companyService.findById()).thenReturn(companyDTO);
-		Mockito.when(categoryService.findById(ArgumentMatchers.anyLong())).thenReturn(categoryDTO);
+		Mockito.when(companyService.getReference()).thenReturn(company);
+		Mockito.when(categoryService.findAllOwnedById(ArgumentMatchers.anyCollection())).thenReturn(Set.of(category));
 	}
 
 	@Test
@@ -96,8 +123,98 @@ class ProductServiceTests {
 		Assertions.assertNotNull(result);
 		Assertions.assertEquals(1, result.getTotalElements());
 		Assertions.assertEquals(product.getName(), result.getContent().get(0).getName());
-		Mockito.verify(repository, Mockito.times(1)).findByCompanyIdAndCategoryId(company.getId(), existingIdCategory,
-				 product.getName(), PageRequest.of(0, 10));
+		Mockito.verify(repository, Mockito.times(1)).findIdsByCompanyIdAndCategoryId(company.getId(),
+				existingIdCategory, product.getName(), PageRequest.of(0, 10, Sort.by("id")));
+		Mockito.verify(repository, Mockito.times(1)).findWithCategoriesByIdIn(List.of(product.getId()));
+	}
+
+	@Test
+	void findAllProductByCompanyIdPagedShouldUseCachedCounterWhenNoNameFilter() {
+		Mockito.when(repository.findIdSliceByCompanyIdAndCategoryId(ArgumentMatchers.eq(company.getId()),
+				ArgumentMatchers.eq(existingIdCategory), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+				.thenReturn(new SliceImpl<>(List.of(product.getId())));
+		Mockito.when(counterService.countByCompanyAndCategory(company.getId(), existingIdCategory)).thenReturn(42L);
+
+		Page<ProductDTO> result = service.findAllProductByCompanyIdPaged(PageRequest.of(0, 10), existingIdCategory,
+				null);
+
+		Assertions.assertEquals(42L, result.getTotalElements());
+		Assertions.assertEquals(1, result.getContent().size());
+		Mockito.verify(repository, Mockito.never()).findIdsByCompanyIdAndCategoryId(ArgumentMatchers.any(),
+				ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+	}
+
+	@Test
+	void findAllProductSliceByCompanyIdShouldNotCount() {
+		Mockito.when(repository.findIdSliceByCompanyIdAndCategoryId(ArgumentMatchers.eq(company.getId()),
+				ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+				.thenReturn(new SliceImpl<>(List.of(product.getId()), PageRequest.of(0, 1), true));
+
+		Slice<ProductDTO> result = service.findAllProductSliceByCompanyId(PageRequest.of(0, 1), null, null);
+
+		Assertions.assertTrue(result.hasNext());
+		Assertions.assertEquals(1, result.getContent().size());
+		Mockito.verifyNoInteractions(counterService);
+	}
+
+	@Test
+	void findAllProductByCompanyIdAfterShouldReturnNextCursorWhenThereAreMoreProducts() {
+		Mockito.when(repository.findFirstIdsByCompanyId(company.getId(), null, null, Limit.of(2)))
+				.thenReturn(List.of(existingId, 51L));
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(existingId))).thenReturn(List.of(product));
+
+		CursorPageDTO<ProductDTO> result = service.findAllProductByCompanyIdAfter("", 1, null, null);
+
+		Assertions.assertEquals(1, result.getContent().size());
+		Assertions.assertTrue(result.isHasNext());
+		Assertions.assertNotNull(result.getNextCursor());
+	}
+
+	@Test
+	void findAllProductByCompanyIdAfterShouldUseLastLoadedProductWhenPageLostProducts() {
+		Mockito.when(repository.findFirstIdsByCompanyId(company.getId(), null, null, Limit.of(3)))
+				.thenReturn(List.of(existingId, 51L, 52L));
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(existingId, 51L))).thenReturn(List.of(product));
+
+		CursorPageDTO<ProductDTO> result = service.findAllProductByCompanyIdAfter("", 2, null, null);
+
+		Assertions.assertEquals(1, result.getContent().size());
+		Assertions.assertEquals(ProductCursor.of(product).encode(), result.getNextCursor());
+	}
+
+	@Test
+	void findAllProductByCompanyIdAfterShouldReadAgainWhenWholePageWasRemoved() {
+		Mockito.when(repository.findFirstIdsByCompanyId(company.getId(), null, null, Limit.of(2)))
+				.thenReturn(List.of(51L, 52L), List.of(existingId));
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(51L))).thenReturn(List.of());
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(existingId))).thenReturn(List.of(product));
+
+		CursorPageDTO<ProductDTO> result = service.findAllProductByCompanyIdAfter("", 1, null, null);
+
+		Assertions.assertEquals(1, result.getContent().size());
+		Assertions.assertFalse(result.isHasNext());
+		Assertions.assertNull(result.getNextCursor());
+	}
+
+	@Test
+	void findAllProductByCompanyIdAfterShouldDecodeCursorAndReturnLastPage() {
+		String cursor = ProductCursor.of(product).encode();
+		Mockito.when(repository.findIdsByCompanyIdAfter(company.getId(), product.getName(), product.getId(), null, null,
+				Limit.of(11))).thenReturn(List.of(existingId));
+		Mockito.when(repository.findWithCategoriesByIdIn(List.of(existingId))).thenReturn(List.of(product));
+
+		CursorPageDTO<ProductDTO> result = service.findAllProductByCompanyIdAfter(cursor, 10, null, null);
+
+		Assertions.assertEquals(1, result.getContent().size());
+		Assertions.assertFalse(result.isHasNext());
+		Assertions.assertNull(result.getNextCursor());
+	}
+
+	@Test
+	void findAllProductByCompanyIdAfterShouldThrowValidMultiFormDataExceptionWhenCursorIsInvalid() {
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> {
+			service.findAllProductByCompanyIdAfter("invalido", 10, null, null);
+		});
 	}
 
 	@Test
@@ -124,7 +241,11 @@ class ProductServiceTests {
 			service.deleteById(existingId);
 		});
 
-		Mockito.verify(repository, Mockito.times(1)).deleteById(existingId);
+		Mockito.verify(repository, Mockito.times(1)).delete(product);
+		Mockito.verify(counterService, Mockito.times(1)).productDeleted(ArgumentMatchers.eq(company.getId()),
+				ArgumentMatchers.anyCollection());
+		Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(ArgumentMatchers
+				.<ProductChangedEvent>argThat(event -> event.getBefore() != null && event.getAfter() == null));
 	}
 
 	@Test
@@ -133,7 +254,7 @@ class ProductServiceTests {
 			service.deleteById(nonExistingId);
 		});
 
-		Mockito.verify(repository, Mockito.times(1)).existsById(nonExistingId);
+		Mockito.verify(repository, Mockito.never()).delete(ArgumentMatchers.any());
 	}
 
 	@Test
@@ -143,18 +264,45 @@ class ProductServiceTests {
 		Assertions.assertNotNull(result);
 		Assertions.assertEquals(product.getName(), result.getName());
 		Mockito.verify(repository, Mockito.times(1)).save(ArgumentMatchers.any(Product.class));
+		Mockito.verify(counterService, Mockito.times(1)).productCreated(ArgumentMatchers.any(),
+				ArgumentMatchers.anyCollection());
 	}
 
 	@Test
 	void updateProductShouldUpdateAndReturnProductDTOWhenIdExists() {
 		ProductDTO updatedDTO = ProductFactory.createProductDTO(company);
-		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(product);
 
 		ProductDTO result = service.updateProduct(existingId, updatedDTO, categories);
 
 		Assertions.assertNotNull(result);
 		Assertions.assertEquals("Produto 15", result.getName());
-		Mockito.verify(repository, Mockito.times(1)).save(ArgumentMatchers.any(Product.class));
+		Mockito.verify(repository, Mockito.times(1)).saveAndFlush(ArgumentMatchers.any(Product.class));
+		Mockito.verify(stockMovementService, Mockito.times(1)).registerEdit(ArgumentMatchers.eq(product),
+				ArgumentMatchers.anyInt());
+	}
+
+	@Test
+	void updateProductShouldLockShardsBeforeSavingAndResetThemAfter() {
+		ProductDTO updatedDTO = ProductFactory.createProductDTO(company);
+
+		service.updateProduct(existingId, updatedDTO, categories);
+
+		InOrder inOrder = Mockito.inOrder(stockShardService, repository);
+		inOrder.verify(stockShardService).lockTotal(product);
+		inOrder.verify(repository).saveAndFlush(product);
+		inOrder.verify(stockShardService).resetShards(product);
+	}
+
+	@Test
+	void updateProductShouldThrowOptimisticLockingFailureWhenVersionIsStale() {
+		ProductDTO updatedDTO = ProductFactory.createProductDTO(company);
+		updatedDTO.setVersion(product.getVersion() + 1);
+
+		Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+			service.updateProduct(existingId, updatedDTO, categories);
+		});
+
+		Mockito.verify(repository, Mockito.never()).saveAndFlush(ArgumentMatchers.any(Product.class));
 	}
 
 	@Test
@@ -165,7 +313,7 @@ class ProductServiceTests {
 			service.updateProduct(nonExistingId, updatedDTO, categories);
 		});
 
-		Mockito.verify(repository, Mockito.times(0)).save(ArgumentMatchers.any(Product.class));
+		Mockito.verify(repository, Mockito.times(0)).saveAndFlush(ArgumentMatchers.any(Product.class));
 	}
 
 	@Test
@@ -231,6 +379,39 @@ class ProductServiceTests {
 
 		service.updateProduct(existingId, updatedDTO, categories);
 
-		Mockito.verify(repository, Mockito.times(1)).save(Mockito.argThat(product -> product.getPhoto() == null));
+		Mockito.verify(repository, Mockito.times(1)).saveAndFlush(Mockito.argThat(product -> product.getPhotoHash() == null));
+		Mockito.verify(imageStorageService, Mockito.never()).storeUpload(ArgumentMatchers.any());
+	}
+
+	@Test
+	void saveNewProductShouldStorePhotoAndKeepOnlyHash() {
+		Mockito.when(imageStorageService.storeUpload(productDTO.getPhoto())).thenReturn("abc");
+
+		service.saveNewProduct(productDTO, categories);
+
+		Mockito.verify(repository, Mockito.times(1)).save(Mockito.argThat(product -> "abc".equals(product.getPhotoHash())));
+		Mockito.verify(thumbnailService, Mockito.times(1)).generate("abc");
+	}
+
+	@Test
+	void saveNewProductShouldResolveCategoriesInSingleLookup() {
+		categories.add(2L);
+
+		service.saveNewProduct(productDTO, categories);
+
+		Mockito.verify(categoryService, Mockito.times(1)).findAllOwnedById(categories);
+		Mockito.verify(categoryService, Mockito.never()).findById(ArgumentMatchers.anyLong());
+	}
+
+	@Test
+	void saveNewProductShouldThrowResourceNotFoundExceptionWhenCategoryIsNotOwned() {
+		Mockito.when(categoryService.findAllOwnedById(categories))
+				.thenThrow(new ResourceNotFoundException("Categorias não encontradas: 1."));
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.saveNewProduct(productDTO, categories);
+		});
+
+		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any(Product.class));
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package com.superestoque.estoque.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.superestoque.estoque.entities.SigningKey;
+import com.superestoque.estoque.repositories.SigningKeyRepository;
+
+class SigningKeyServiceTests {
+
+	private static final String CLIENT_SECRET = "myclientsecret";
+
+	private static final long ROTATION = 1000;
+	private static final long OVERLAP = 500;
+	private static final long ACTIVATION_DELAY = 100;
+
+	private SigningKeyRepository repository;
+	private List<SigningKey> stored;
+	private AtomicLong clock;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stored = new ArrayList<>();
+		clock = new AtomicLong(1_000_000);
+		repository = Mockito.mock(SigningKeyRepository.class);
+		Mockito.when(repository.findAllByOrderByGenerationAsc()).thenAnswer(
+				invocation -> stored.stream().sorted(Comparator.comparingLong(SigningKey::getGeneration)).toList());
+		Mockito.when(repository.saveAndFlush(ArgumentMatchers.any(SigningKey.class))).thenAnswer(invocation -> {
+			SigningKey key = invocation.getArgument(0);
+			if (stored.stream().anyMatch(existing -> existing.getGeneration() == key.getGeneration())) {
+				throw new DataIntegrityViolationException("geração duplicada");
+			}
+			stored.add(key);
+			return key;
+		});
+		Mockito.doAnswer(invocation -> {
+			List<SigningKey> keys = invocation.getArgument(0);
+			stored.removeAll(keys);
+			return null;
+		}).when(repository).deleteAllInBatch(ArgumentMatchers.anyIterable());
+	}
+
+	@Test
+	void initShouldCreateFirstKeyAndShareItWithOtherInstances() throws Exception {
+		SigningKeyService first = service("segredo");
+		first.init();
+		SigningKeyService second = service("segredo");
+		second.init();
+
+		Assertions.assertEquals(1, stored.size());
+		Assertions.assertEquals(keyIds(first.signingSource()), keyIds(second.signingSource()));
+		Assertions.assertTrue(select(second.signingSource()).get(0).isPrivate());
+		Assertions.assertFalse(select(second.verificationSource()).get(0).isPrivate());
+	}
+
+	@Test
+	void refreshShouldPublishNewKeyBeforeSigningWithIt() throws Exception {
+		SigningKeyService service = service("segredo");
+		service.init();
+		String firstKey = keyIds(service.signingSource()).get(0);
+
+		clock.addAndGet(ROTATION);
+		service.refresh();
+
+		Assertions.assertEquals(2, stored.size());
+		Assertions.assertEquals(List.of(firstKey), keyIds(service.signingSource()));
+		Assertions.assertEquals(2, keyIds(service.verificationSource()).size());
+
+		clock.addAndGet(ACTIVATION_DELAY);
+		service.refresh();
+
+		String secondKey = stored.get(1).getId();
+		Assertions.assertEquals(List.of(secondKey), keyIds(service.signingSource()));
+		Assertions.assertTrue(keyIds(service.verificationSource()).contains(firstKey));
+	}
+
+	@Test
+	void refreshShouldRemoveReplacedKeyAfterOverlap() throws Exception {
+		SigningKeyService service = service("segredo");
+		service.init();
+		String firstKey = keyIds(service.signingSource()).get(0);
+		clock.addAndGet(ROTATION);
+		service.refresh();
+
+		clock.addAndGet(ACTIVATION_DELAY + OVERLAP);
+		service.refresh();
+
+		Assertions.assertEquals(1, stored.size());
+		Assertions.assertFalse(keyIds(service.verificationSource()).contains(firstKey));
+	}
+
+	@Test
+	void refreshShouldKeepSingleKeyWhenInstancesRotateTogether() throws Exception {
+		SigningKeyService first = service("segredo");
+		first.init();
+		SigningKeyService second = service("segredo");
+		second.init();
+		clock.addAndGet(ROTATION);
+
+		first.refresh();
+		second.refresh();
+
+		Assertions.assertEquals(2, stored.size());
+		Assertions.assertEquals(keyIds(first.verificationSource()), keyIds(second.verificationSource()));
+	}
+
+	@Test
+	void initShouldThrowWhenSecretDoesNotMatchStoredKeys() throws Exception {
+		service("segredo").init();
+
+		Assertions.assertThrows(IllegalStateException.class, () -> service("outro").init());
+	}
+
+	@Test
+	void constructorShouldRejectMissingSecret() {
+		Assertions.assertThrows(IllegalStateException.class, () -> service(""));
+		Assertions.assertThrows(IllegalStateException.class, () -> service(null));
+	}
+
+	@Test
+	void constructorShouldRejectClientSecret() {
+		Assertions.assertThrows(IllegalStateException.class, () -> service(CLIENT_SECRET));
+	}
+
+	@Test
+	void initShouldStorePrivateKeyWithOwnSalt() throws Exception {
+		SigningKeyService service = service("segredo");
+		service.init();
+		clock.addAndGet(ROTATION);
+		service.refresh();
+
+		Assertions.assertTrue(stored.get(0).getPrivateKey().startsWith("pbkdf2:"));
+		Assertions.assertNotEquals(salt(stored.get(0)), salt(stored.get(1)));
+	}
+
+	@Test
+	void refreshShouldRotateLegacyKeyAndKeepVerifyingIt() throws Exception {
+		stored.add(legacyKey("segredo"));
+
+		SigningKeyService service = service("segredo");
+		service.init();
+
+		Assertions.assertEquals(2, stored.size());
+		Assertions.assertEquals(List.of("legada"), keyIds(service.signingSource()));
+		Assertions.assertTrue(keyIds(service.verificationSource()).contains("legada"));
+		Assertions.assertTrue(stored.get(1).getPrivateKey().startsWith("pbkdf2:"));
+	}
+
+	@Test
+	void initShouldDiscardLegacyKeyEncryptedWithAnotherSecret() throws Exception {
+		stored.add(legacyKey(CLIENT_SECRET));
+
+		SigningKeyService service = service("segredo");
+		service.init();
+
+		Assertions.assertEquals(1, stored.size());
+		Assertions.assertFalse(keyIds(service.verificationSource()).contains("legada"));
+		Assertions.assertEquals(List.of(stored.get(0).getId()), keyIds(service.signingSource()));
+	}
+
+	private SigningKeyService service(String secret) {
+		return new SigningKeyService(repository, secret, CLIENT_SECRET, ROTATION, OVERLAP, ACTIVATION_DELAY,
+				clock::get);
+	}
+
+	private static String salt(SigningKey key) {
+		byte[] bytes = Base64.getDecoder().decode(key.getPrivateKey().substring("pbkdf2:".length()));
+		return Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, 16));
+	}
+
+	// formato anterior ao PBKDF2: IV e texto cifrado com o SHA-256 do segredo
+	private SigningKey legacyKey(String secret) throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		KeyPair keyPair = generator.generateKeyPair();
+		byte[] iv = new byte[12];
+		Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(
+				MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8)), "AES"),
+				new GCMParameterSpec(128, iv));
+		byte[] encrypted = cipher.doFinal(keyPair.getPrivate().getEncoded());
+		Instant now = Instant.ofEpochMilli(clock.get());
+		return new SigningKey("legada", 1, Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+				Base64.getEncoder().encodeToString(
+						ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array()),
+				now, now);
+	}
+
+	private static List<JWK> select(JWKSource<SecurityContext> source) throws Exception {
+		return source.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+	}
+
+	private static List<String> keyIds(JWKSource<SecurityContext> source) throws Exception {
+		return select(source).stream().map(JWK::getKeyID).sorted().toList();
+	}
+}
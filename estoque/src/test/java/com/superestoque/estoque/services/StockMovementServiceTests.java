@@ -0,0 +1,161 @@
+package com.superestoque.estoque.services;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.superestoque.estoque.entities.Company;
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.StockMovement;
+import com.superestoque.estoque.entities.User;
+import com.superestoque.estoque.entities.dto.StockMovementDTO;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.factories.CompanyFactory;
+import com.superestoque.estoque.factories.ProductFactory;
+import com.superestoque.estoque.factories.UserFactory;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockMovementRepository;
+import com.superestoque.estoque.repositories.UserRepository;
+import com.superestoque.estoque.services.events.ProductChangedEvent;
+import com.superestoque.estoque.services.exceptions.ResourceNotFoundException;
+import com.superestoque.estoque.services.exceptions.ValidMultiFormDataException;
+
+@ExtendWith(SpringExtension.class)
+class StockMovementServiceTests {
+
+	@InjectMocks
+	private StockMovementService service;
+
+	@Mock
+	private StockMovementRepository repository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private AuthService authService;
+
+	@Mock
+	private ObjectProvider<StockWriteBehindService> writeBehind;
+
+	@Mock
+	private StockShardService shardService;
+
+	@Mock
+	private HotProductPolicy hotProductPolicy;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private Company company;
+	private User user;
+	private Product product;
+	private Long nonExistingId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		nonExistingId = 1000L;
+		company = CompanyFactory.createCompany();
+		user = UserFactory.createUser();
+		user.setCompany(company);
+		product = ProductFactory.createProduct(company);
+
+		Mockito.when(authService.principal()).thenReturn(AuthenticatedUser.of(user));
+		Mockito.when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+		Mockito.when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+		Mockito.when(productRepository.existsByIdAndCompanyId(product.getId(), company.getId())).thenReturn(true);
+		Mockito.when(shardService.addQuantity(ArgumentMatchers.eq(product.getId()),
+				ArgumentMatchers.eq(company.getId()), ArgumentMatchers.anyInt())).thenReturn(1);
+		Mockito.when(repository.save(ArgumentMatchers.any())).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	void registerShouldDelegateToWriteBehindWhenEnabled() {
+		StockWriteBehindService accumulator = Mockito.mock(StockWriteBehindService.class);
+		StockMovementDTO accepted = new StockMovementDTO(null, product.getId(), MovementType.OUT, -2, 8, null,
+				user.getEmail(), null);
+		Mockito.when(writeBehind.getIfAvailable()).thenReturn(accumulator);
+		Mockito.when(accumulator.submit(ArgumentMatchers.eq(product.getId()), ArgumentMatchers.any(),
+				ArgumentMatchers.eq(MovementType.OUT), ArgumentMatchers.eq(-2), ArgumentMatchers.isNull()))
+				.thenReturn(accepted);
+
+		StockMovementDTO result = service.register(product.getId(), new StockMovementDTO(MovementType.OUT, 2, null));
+
+		Assertions.assertSame(accepted, result);
+		Mockito.verify(shardService, Mockito.never()).addQuantity(ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.anyInt());
+		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any());
+	}
+
+	@Test
+	void registerShouldApplyDeltaAtomicallyAndAppendMovement() {
+		StockMovementDTO result = service.register(product.getId(), new StockMovementDTO(MovementType.IN, 5, null));
+
+		Assertions.assertEquals(5, result.getQuantity());
+		Assertions.assertEquals(product.getQuantity(), result.getResultingQuantity());
+		Assertions.assertEquals(user.getEmail(), result.getUsername());
+		Mockito.verify(shardService, Mockito.times(1)).addQuantity(product.getId(), company.getId(), 5);
+		Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(ArgumentMatchers.<ProductChangedEvent>argThat(
+				event -> event.getAfter().getQuantity() - event.getBefore().getQuantity() == 5));
+		Mockito.verify(productRepository, Mockito.never()).save(ArgumentMatchers.any());
+	}
+
+	@Test
+	void registerShouldUseNegativeDeltaForOut() {
+		service.register(product.getId(), new StockMovementDTO(MovementType.OUT, 3, null));
+
+		Mockito.verify(shardService, Mockito.times(1)).addQuantity(product.getId(), company.getId(), -3);
+		Mockito.verify(repository, Mockito.times(1)).save(Mockito.<StockMovement>argThat(
+				movement -> movement.getQuantity() == -3 && movement.getType() == MovementType.OUT));
+	}
+
+	@Test
+	void registerShouldThrowValidMultiFormDataExceptionWhenStockIsInsufficient() {
+		Mockito.when(shardService.addQuantity(product.getId(), company.getId(), -500)).thenReturn(0);
+
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> {
+			service.register(product.getId(), new StockMovementDTO(MovementType.OUT, 500, null));
+		});
+
+		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any());
+	}
+
+	@Test
+	void registerShouldThrowResourceNotFoundExceptionWhenProductDoesNotExist() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.register(nonExistingId, new StockMovementDTO(MovementType.IN, 1, null));
+		});
+	}
+
+	@Test
+	void registerShouldThrowValidMultiFormDataExceptionWhenAdjustHasNoReason() {
+		Assertions.assertThrows(ValidMultiFormDataException.class, () -> {
+			service.register(product.getId(), new StockMovementDTO(MovementType.ADJUST, -2, " "));
+		});
+
+		Mockito.verify(shardService, Mockito.never()).addQuantity(ArgumentMatchers.anyLong(),
+				ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+	}
+
+	@Test
+	void registerEditShouldAppendAdjustOnlyWhenQuantityChanged() {
+		service.registerEdit(product, product.getQuantity());
+		service.registerEdit(product, product.getQuantity() - 4);
+
+		Mockito.verify(repository, Mockito.times(1)).save(Mockito.<StockMovement>argThat(
+				movement -> movement.getQuantity() == 4 && movement.getType() == MovementType.ADJUST));
+	}
+}
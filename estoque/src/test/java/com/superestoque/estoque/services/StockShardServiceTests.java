@@ -0,0 +1,139 @@
+package com.superestoque.estoque.services;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.superestoque.estoque.entities.Company;
+import com.superestoque.estoque.entities.Product;
+import com.superestoque.estoque.entities.ProductStockShard;
+import com.superestoque.estoque.factories.CompanyFactory;
+import com.superestoque.estoque.factories.ProductFactory;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.ProductStockShardRepository;
+
+@ExtendWith(SpringExtension.class)
+class StockShardServiceTests {
+
+	@InjectMocks
+	private StockShardService service;
+
+	@Mock
+	private ProductStockShardRepository repository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	private Company company;
+	private Product product;
+	private Long productId;
+	private Long companyId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		company = CompanyFactory.createCompany();
+		product = ProductFactory.createProduct(company);
+		productId = product.getId();
+		companyId = company.getId();
+	}
+
+	@Test
+	void addQuantityShouldUpdateProductRowWhenProductIsNotSharded() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(0);
+		Mockito.when(productRepository.addQuantity(productId, companyId, 5)).thenReturn(1);
+
+		Assertions.assertEquals(1, service.addQuantity(productId, companyId, 5));
+		Mockito.verifyNoInteractions(repository);
+	}
+
+	@Test
+	void addQuantityShouldReturnZeroWhenProductDoesNotBelongToCompany() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(null);
+
+		Assertions.assertEquals(0, service.addQuantity(productId, companyId, 5));
+		Mockito.verify(productRepository, Mockito.never()).addQuantity(ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.anyInt());
+	}
+
+	@Test
+	void addQuantityShouldWriteToOneShardWhenProductIsSharded() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(4);
+		Mockito.when(repository.addQuantity(ArgumentMatchers.eq(productId), ArgumentMatchers.anyInt(),
+				ArgumentMatchers.eq(5))).thenReturn(1);
+
+		Assertions.assertEquals(1, service.addQuantity(productId, companyId, 5));
+		Mockito.verify(repository, Mockito.times(1)).addQuantity(ArgumentMatchers.eq(productId),
+				ArgumentMatchers.anyInt(), ArgumentMatchers.eq(5));
+		Mockito.verify(productRepository, Mockito.never()).addQuantity(ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.anyInt());
+	}
+
+	@Test
+	void addQuantityShouldFallBackToProductRowWhenNoShardCoversOutput() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(4);
+		Mockito.when(productRepository.addQuantity(productId, companyId, -3)).thenReturn(1);
+
+		Assertions.assertEquals(1, service.addQuantity(productId, companyId, -3));
+		Mockito.verify(repository, Mockito.times(4)).addQuantity(ArgumentMatchers.eq(productId),
+				ArgumentMatchers.anyInt(), ArgumentMatchers.eq(-3));
+		Mockito.verify(repository, Mockito.never()).findForUpdateByProductId(productId);
+	}
+
+	@Test
+	void addQuantityShouldProbeShardsInAscendingOrderForOutput() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(3);
+		Mockito.when(repository.addQuantity(productId, 2, -3)).thenReturn(1);
+
+		Assertions.assertEquals(1, service.addQuantity(productId, companyId, -3));
+		InOrder inOrder = Mockito.inOrder(repository);
+		inOrder.verify(repository).addQuantity(productId, 0, -3);
+		inOrder.verify(repository).addQuantity(productId, 1, -3);
+		inOrder.verify(repository).addQuantity(productId, 2, -3);
+		Mockito.verify(productRepository, Mockito.never()).addQuantity(ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.anyInt());
+	}
+
+	@Test
+	void addQuantityShouldDrainShardsIntoProductRowWhenOutputSpansParts() {
+		Mockito.when(productRepository.findStockShardsByIdAndCompanyId(productId, companyId)).thenReturn(2);
+		Mockito.when(productRepository.addQuantity(productId, companyId, -5)).thenReturn(0);
+		Mockito.when(repository.findForUpdateByProductId(productId))
+				.thenReturn(List.of(new ProductStockShard(1L, product, 0, 3), new ProductStockShard(2L, product, 1, 4)));
+		Mockito.when(productRepository.addQuantity(productId, companyId, 2)).thenReturn(1);
+
+		Assertions.assertEquals(1, service.addQuantity(productId, companyId, -5));
+		Mockito.verify(repository, Mockito.times(1)).resetByProductId(productId);
+		Mockito.verify(productRepository, Mockito.times(1)).addQuantity(productId, companyId, 2);
+	}
+
+	@Test
+	void loadTotalsShouldAddCachedShardSumToShardedProducts() {
+		product.setStockShards(4);
+		Mockito.when(repository.sumCachedByProductId(productId)).thenReturn(7L);
+		int rowQuantity = product.getQuantity();
+
+		service.loadTotals(List.of(product));
+
+		Assertions.assertEquals(rowQuantity + 7, product.getQuantity());
+	}
+
+	@Test
+	void consolidateShouldFoldShardsIntoProductRow() {
+		Mockito.when(repository.findForUpdateByProductId(productId))
+				.thenReturn(List.of(new ProductStockShard(1L, product, 0, 3), new ProductStockShard(2L, product, 1, 4)));
+
+		service.consolidate(productId);
+
+		Mockito.verify(repository, Mockito.times(1)).deleteByProductId(productId);
+		Mockito.verify(productRepository, Mockito.times(1)).foldShards(productId, 7, 0L);
+	}
+}
@@ -0,0 +1,78 @@
+package com.superestoque.estoque.services;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.superestoque.estoque.entities.enums.MovementType;
+
+class StockWriteAheadLogTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void entriesShouldSurviveReopeningTheLog() throws Exception {
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			wal.append(1L, 1L, 1L, MovementType.IN, 5, null);
+			StockWriteAheadLog.Entry last = wal.append(2L, 1L, 1L, MovementType.ADJUST, -3, "Quebra; caixa\nrasgada");
+			wal.sync(last.getSeq());
+		}
+
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			List<StockWriteAheadLog.Entry> entries = wal.readExisting();
+
+			Assertions.assertEquals(2, entries.size());
+			Assertions.assertEquals(1L, entries.get(0).getSeq());
+			Assertions.assertNull(entries.get(0).getReason());
+			Assertions.assertEquals(-3, entries.get(1).getDelta());
+			Assertions.assertEquals("Quebra; caixa\nrasgada", entries.get(1).getReason());
+		}
+	}
+
+	@Test
+	void readExistingShouldIgnoreTornLastLine() throws Exception {
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			wal.sync(wal.append(1L, 1L, 1L, MovementType.IN, 5, null).getSeq());
+		}
+		try (var files = Files.list(dir)) {
+			Path segment = files.findFirst().orElseThrow();
+			Files.writeString(segment, "2;1;1;1;OU", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		}
+
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			Assertions.assertEquals(1, wal.readExisting().size());
+		}
+	}
+
+	@Test
+	void appendShouldContinueAfterRecoveredSequence() throws Exception {
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			wal.startAfter(41L);
+
+			Assertions.assertEquals(42L, wal.append(1L, 1L, 1L, MovementType.IN, 1, null).getSeq());
+		}
+	}
+
+	@Test
+	void discardShouldRemoveRotatedSegments() throws Exception {
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			wal.append(1L, 1L, 1L, MovementType.IN, 1, null);
+
+			List<Path> segments = wal.rotate();
+			wal.discard(segments);
+
+			Assertions.assertEquals(1, segments.size());
+			Assertions.assertFalse(Files.exists(segments.get(0)));
+		}
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			Assertions.assertTrue(wal.readExisting().isEmpty());
+		}
+	}
+}
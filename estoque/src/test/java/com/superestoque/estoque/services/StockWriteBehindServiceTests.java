@@ -0,0 +1,90 @@
+package com.superestoque.estoque.services;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.superestoque.estoque.entities.StockWalCheckpoint;
+import com.superestoque.estoque.entities.enums.MovementType;
+import com.superestoque.estoque.repositories.ProductRepository;
+import com.superestoque.estoque.repositories.StockWalCheckpointRepository;
+
+@ExtendWith(SpringExtension.class)
+class StockWriteBehindServiceTests {
+
+	@TempDir
+	Path dir;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private StockWalCheckpointRepository checkpointRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private Long productId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		productId = 2L;
+		try (StockWriteAheadLog wal = new StockWriteAheadLog(dir)) {
+			wal.append(productId, 1L, 1L, MovementType.IN, 10, null);
+			wal.append(productId, 1L, 1L, MovementType.OUT, -4, null);
+			wal.sync(wal.append(productId, 1L, 1L, MovementType.OUT, -1, null).getSeq());
+		}
+	}
+
+	@Test
+	void recoverShouldReplayEntriesAfterCheckpoint() {
+		Mockito.when(checkpointRepository.findById("node")).thenReturn(Optional.of(new StockWalCheckpoint("node", 1L)));
+
+		StockWriteBehindService service = service();
+		service.recover();
+
+		Assertions.assertEquals(-5L, service.pendingDelta(productId));
+	}
+
+	@Test
+	void recoverShouldReplayEverythingWhenThereIsNoCheckpoint() {
+		Mockito.when(checkpointRepository.findById("node")).thenReturn(Optional.empty());
+
+		StockWriteBehindService service = service();
+		service.recover();
+
+		Assertions.assertEquals(5L, service.pendingDelta(productId));
+	}
+
+	@Test
+	void recoverShouldSkipEverythingAlreadyCheckpointed() {
+		Mockito.when(checkpointRepository.findById("node")).thenReturn(Optional.of(new StockWalCheckpoint("node", 3L)));
+
+		StockWriteBehindService service = service();
+		service.recover();
+
+		Assertions.assertEquals(0L, service.pendingDelta(productId));
+	}
+
+	private StockWriteBehindService service() {
+		return new StockWriteBehindService(jdbcTemplate, transactionManager, checkpointRepository, productRepository,
+				eventPublisher, dir.toString(), "node", 1000L, 10);
+	}
+}
@@ -0,0 +1,140 @@
+package com.superestoque.estoque.services;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ThumbnailServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private ImageStorageService imageStorageService;
+
+	private ThumbnailService service;
+
+	private List<Runnable> scheduled;
+
+	@BeforeEach
+	void setUp() {
+		imageStorageService = new ImageStorageService(directory.toString(), 4_000_000);
+		scheduled = new ArrayList<>();
+		service = new ThumbnailService(imageStorageService, scheduled::add);
+	}
+
+	@Test
+	void createRenditionsShouldStoreJpegForEachSizeKeepingAspectRatio() throws Exception {
+		String hash = imageStorageService.store(png(2000, 1000));
+
+		service.createRenditions(hash);
+
+		assertRendition(hash, 1024, 1024, 512);
+		assertRendition(hash, 256, 256, 128);
+		assertRendition(hash, 64, 64, 32);
+	}
+
+	@Test
+	void createRenditionsShouldNotUpscaleSmallImages() throws Exception {
+		String hash = imageStorageService.store(png(100, 50));
+
+		service.createRenditions(hash);
+
+		assertRendition(hash, 1024, 100, 50);
+		assertRendition(hash, 64, 64, 32);
+	}
+
+	@Test
+	void createRenditionsShouldSkipUnsupportedContent() {
+		String hash = imageStorageService.store("nao e imagem".getBytes(StandardCharsets.UTF_8));
+
+		service.createRenditions(hash);
+
+		Assertions.assertTrue(imageStorageService.findRendition(hash, 256).isEmpty());
+		Assertions.assertTrue(imageStorageService.isUnrenderable(hash));
+	}
+
+	@Test
+	void createRenditionsShouldSkipImagesAbovePixelLimit() throws Exception {
+		String hash = imageStorageService.store(png(2001, 2000));
+
+		service.createRenditions(hash);
+
+		Assertions.assertTrue(imageStorageService.findRendition(hash, 64).isEmpty());
+		Assertions.assertTrue(imageStorageService.isUnrenderable(hash));
+	}
+
+	@Test
+	void generateShouldNotScheduleImageMarkedWithoutRenditions() {
+		String hash = imageStorageService.store("nao e imagem".getBytes(StandardCharsets.UTF_8));
+		service.generate(hash);
+		scheduled.remove(0).run();
+
+		service.generate(hash);
+
+		Assertions.assertTrue(scheduled.isEmpty());
+	}
+
+	@Test
+	void generateShouldScheduleOnceWhileImageIsInProgress() throws Exception {
+		String hash = imageStorageService.store(png(100, 50));
+
+		service.generate(hash);
+		service.generate(hash);
+
+		Assertions.assertEquals(1, scheduled.size());
+		scheduled.remove(0).run();
+		assertRendition(hash, 64, 64, 32);
+	}
+
+	@Test
+	void generateShouldAllowNewAttemptWhenQueueIsFull() throws Exception {
+		String hash = imageStorageService.store(png(100, 50));
+		AtomicBoolean full = new AtomicBoolean(true);
+		service = new ThumbnailService(imageStorageService, task -> {
+			if (full.get()) {
+				throw new RejectedExecutionException();
+			}
+			task.run();
+		});
+		service.generate(hash);
+
+		full.set(false);
+		service.generate(hash);
+
+		assertRendition(hash, 64, 64, 32);
+	}
+
+	@Test
+	void generateShouldNotPropagateErrors() {
+		service.generate("0".repeat(64));
+
+		Assertions.assertDoesNotThrow(() -> scheduled.remove(0).run());
+	}
+
+	private void assertRendition(String hash, int size, int width, int height) throws Exception {
+		Path path = imageStorageService.findRendition(hash, size).orElseThrow();
+		Assertions.assertEquals("image/jpeg", imageStorageService.contentType(path));
+		BufferedImage image = ImageIO.read(Files.newInputStream(path));
+		Assertions.assertEquals(width, image.getWidth());
+		Assertions.assertEquals(height, image.getHeight());
+	}
+
+	private static byte[] png(int width, int height) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+		return out.toByteArray();
+	}
+}
@@ -46,6 +46,9 @@ class UserServiceTests {
 	@Mock
 	private RoleRepository roleRepository;
 
+	@Mock
+	private ImageStorageService imageStorageService;
+
 	private Long existingId;
 	private Long nonExistingId;
 	private String existingEmail;
@@ -78,7 +81,8 @@ class UserServiceTests {
 		Mockito.when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
 		Mockito.when(repository.save(ArgumentMatchers.any(User.class))).thenReturn(entity);
 		Mockito.when(authService.authenticated()).thenReturn(entity);
-		Mockito.when(roleRepository.findById(role.getId())).thenReturn(Optional.of(role));
+		Mockito.when(roleRepository.existsById(role.getId())).thenReturn(true);
+		Mockito.when(roleRepository.getReferenceById(role.getId())).thenReturn(role);
 		Mockito.when(repository.getByEmail(existingEmail)).thenReturn(userOpt);
 		Mockito.when(repository.getByEmail(nonExistingEmail)).thenReturn(Optional.empty());
 	}
@@ -231,6 +235,16 @@ class UserServiceTests {
 		Mockito.verify(repository, Mockito.times(1)).save(ArgumentMatchers.any(User.class));
 	}
 
+	@Test
+	void updateRoleShouldThrowResourceNotFoundExceptionWhenRoleDoesNotExist() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.updateRole(existingId, nonExistingId);
+		});
+
+		Mockito.verify(roleRepository, Mockito.never()).getReferenceById(nonExistingId);
+		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any(User.class));
+	}
+
 	@Test
 	void updateRoleShouldNotDuplicateRole() {
 		Role existingRole = new Role(role.getId(), "ROLE_ADMIN");
@@ -275,15 +289,43 @@ class UserServiceTests {
 		Mockito.verify(repository, Mockito.times(1)).getByEmail(existingEmail);
 	}
 
+	@Test
+	void updateUserShouldStorePhotoAndKeepOnlyHash() {
+		byte[] photo = new byte[] { 1, 2, 3 };
+		Mockito.when(imageStorageService.storeUpload(photo)).thenReturn("hash");
+
+		service.updateUser(existingEmail, new UserUpdateDTO("", photo));
+
+		Assertions.assertEquals("hash", entity.getPhotoHash());
+	}
+
 	@Test
 	void getUserPhotoShouldReturnPhotoWhenEmailExists() {
+		byte[] content = new byte[] { 1, 2, 3 };
+		entity.setPhotoHash("hash");
+		Mockito.when(imageStorageService.read("hash")).thenReturn(content);
+
 		UserPhoto photo = service.getUserPhoto(existingEmail);
 
 		Assertions.assertNotNull(photo);
-		Assertions.assertArrayEquals(entity.getPhoto(), photo.getPhoto());
+		Assertions.assertArrayEquals(content, photo.getPhoto());
 		Mockito.verify(repository, Mockito.times(1)).getByEmail(existingEmail);
 	}
 
+	@Test
+	void findAvatarHashShouldReturnHashWhenUserHasPhoto() {
+		entity.setPhotoHash("hash");
+
+		Assertions.assertEquals("hash", service.findAvatarHash(existingEmail));
+	}
+
+	@Test
+	void findAvatarHashShouldThrowResourceNotFoundExceptionWhenUserHasNoPhoto() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findAvatarHash(existingEmail);
+		});
+	}
+
 	@Test
 	void getUserPhotoShouldThrowResourceNotFoundExceptionWhenEmailDoesNotExist() {
 		Assertions.assertThrows(ResourceNotFoundException.class, () -> {